@@ -0,0 +1,199 @@
+package org.example.springwebpos.loadtest;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.example.springwebpos.config.WebAppRootConfig;
+import org.example.springwebpos.controller.OrderController;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.export.OrderExporter;
+import org.example.springwebpos.journal.JournaledOrderService;
+import org.example.springwebpos.retry.TransactionRetryExecutor;
+import org.example.springwebpos.service.BatchOrderService;
+import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.service.ReceiptService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Places orders through {@link OrderController#placeOrder} from {@code logbench.threads} threads under each logging
+ * setup in {@code logbench.modes}: the shipped {@code AsyncAppender}s ({@code async-*}) or the file appender called
+ * on the request thread ({@code sync-*}), with the application at INFO or DEBUG. Only the application's events are
+ * written (to the file appender); the benchmark's own summary goes to the console. Appends latency percentiles and
+ * throughput per mode to {@code target/loadtest/checkout-logging-report.csv}.
+ */
+public class CheckoutLoggingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutLoggingBenchmark.class);
+
+    private static final String HEADER = "timestamp,label,mode,threads,orders,seconds,orders_per_s,p50_ms,p99_ms,"
+            + "max_ms,failed\n";
+    private static final int ITEMS = 1_000;
+    private static final int LINES = 5;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(System.getProperty("logbench.threads", "16"));
+        int seconds = Integer.parseInt(System.getProperty("logbench.duration-seconds", "15"));
+        int warmupSeconds = Integer.parseInt(System.getProperty("logbench.warmup-seconds", "5"));
+        String modes = System.getProperty("logbench.modes", "sync-debug,sync-info,async-debug,async-info");
+        String label = System.getProperty("logbench.label", "default");
+        Path reportFile = Paths.get(System.getProperty("logbench.report-file",
+                "target/loadtest/checkout-logging-report.csv"));
+
+        List<String> lines = new ArrayList<>();
+        try (AnnotationConfigApplicationContext context = start(threads)) {
+            seed(context.getBean(JdbcTemplate.class));
+            OrderController controller = new OrderController(context.getBean(OrderService.class),
+                    context.getBean(BatchOrderService.class),
+                    context.getBean(JournaledOrderService.class), context.getBean(OrderExporter.class),
+                    context.getBean(ReceiptService.class), context.getBean(TransactionRetryExecutor.class));
+            for (String mode : modes.split(",")) {
+                configureLogging(mode.trim());
+                run(controller, threads, warmupSeconds);
+                LatencySamples samples = run(controller, threads, seconds);
+                samples.seal();
+                double ordersPerSecond = samples.getCount() / (double) seconds;
+                logger.info("{}: {} orders in {} s ({} orders/s), p50 {} ms, p99 {} ms, max {} ms, {} failed",
+                        mode, samples.getCount(), seconds, String.format(Locale.ROOT, "%.0f", ordersPerSecond),
+                        String.format(Locale.ROOT, "%.2f", samples.percentileMillis(0.50)),
+                        String.format(Locale.ROOT, "%.2f", samples.percentileMillis(0.99)),
+                        String.format(Locale.ROOT, "%.2f", samples.percentileMillis(1.0)), samples.getErrors());
+                lines.add(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%.0f,%.2f,%.2f,%.2f,%d%n", Instant.now(),
+                        label, mode.trim(), threads, samples.getCount(), seconds, ordersPerSecond,
+                        samples.percentileMillis(0.50), samples.percentileMillis(0.99),
+                        samples.percentileMillis(1.0), samples.getErrors()));
+            }
+        }
+        writeReport(reportFile, lines);
+    }
+
+    private static AnnotationConfigApplicationContext start(int threads) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("logbench", Map.of(
+                "pos.datasource.primary.driver", "org.h2.Driver",
+                "pos.datasource.primary.url", "jdbc:h2:mem:logbench;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                        + "NON_KEYWORDS=VALUE;LOCK_TIMEOUT=10000",
+                "pos.datasource.primary.username", "sa",
+                "pos.datasource.primary.password", "",
+                "pos.datasource.primary.pool-size", String.valueOf(threads + 4),
+                "pos.jpa.database-platform", "org.hibernate.dialect.H2Dialect")));
+        context.register(WebAppRootConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO customers (id, name, address, mobile) VALUES (?, ?, ?, ?)",
+                "C0", "Bench customer", "Address", "0710000000");
+        List<Object[]> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"I" + i, "Item " + i, 1.25 + i, 100_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (code, description, price, qty) VALUES (?, ?, ?, ?)", items);
+    }
+
+    /**
+     * Sends the application's events to the file appender, through its {@code AsyncAppender} or directly, at the
+     * mode's level. The appenders are the ones {@code logback.xml} configured.
+     */
+    private static void configureLogging(String mode) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        AsyncAppender asyncFile = (AsyncAppender) root.getAppender("ASYNC_FILE");
+        AsyncAppender asyncConsole = (AsyncAppender) root.getAppender("ASYNC_CONSOLE");
+        if (asyncFile == null || asyncConsole == null) {
+            throw new IllegalStateException("logback.xml no longer defines ASYNC_FILE and ASYNC_CONSOLE");
+        }
+        Appender<ILoggingEvent> file = asyncFile.getAppender("FILE");
+
+        ch.qos.logback.classic.Logger application = loggerContext.getLogger("org.example.springwebpos");
+        // Detach only: the appenders are shared with the root logger and must keep running
+        application.detachAppender(asyncFile);
+        application.detachAppender(file);
+        application.addAppender(mode.startsWith("async") ? asyncFile : file);
+        application.setAdditive(false);
+        Level level = mode.endsWith("debug") ? Level.DEBUG : Level.INFO;
+        application.setLevel(level);
+        loggerContext.getLogger("org.example.springwebpos.service.OrderServiceIMPL").setLevel(level);
+
+        ch.qos.logback.classic.Logger benchmark = loggerContext.getLogger(CheckoutLoggingBenchmark.class);
+        if (benchmark.getAppender("ASYNC_CONSOLE") == null) {
+            benchmark.addAppender(asyncConsole);
+        }
+        benchmark.setAdditive(false);
+        benchmark.setLevel(Level.INFO);
+    }
+
+    private static LatencySamples run(OrderController controller, int threads, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<LatencySamples>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    LatencySamples samples = new LatencySamples();
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            controller.placeOrder(order());
+                            samples.record(System.nanoTime() - started);
+                        } catch (RuntimeException e) {
+                            samples.recordError();
+                        }
+                    }
+                    return samples;
+                }));
+            }
+            LatencySamples all = new LatencySamples();
+            for (Future<LatencySamples> future : futures) {
+                all.merge(future.get());
+            }
+            return all;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static OrderDTO order() {
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId("C0");
+        order.setOrderDate("2026-10-19");
+        order.setCash(1_000_000);
+        List<OrderDetailDTO> details = new ArrayList<>(LINES);
+        for (int line = 0; line < LINES; line++) {
+            details.add(new OrderDetailDTO("I" + ThreadLocalRandom.current().nextInt(ITEMS), 0, 1, 0));
+        }
+        order.setOrderDetails(details);
+        return order;
+    }
+
+    private static void writeReport(Path reportFile, List<String> lines) throws IOException {
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        if (!Files.exists(reportFile)) {
+            Files.writeString(reportFile, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(reportFile, String.join("", lines), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Checkout logging benchmark appended to {}", reportFile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.springwebpos.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Decodes a {@code .poscol} export far enough to check it: row count and the sum of every numeric column (money in
+ * cents). See {@code ColumnarRowWriter} for the layout.
+ */
+public class ColumnarFileReader {
+    private static final byte[] MAGIC = "POSCOL1\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int STRING = 0;
+
+    private final String[] names;
+    private final long[] sums;
+    private long rows;
+
+    private ColumnarFileReader(String[] names) {
+        this.names = names;
+        this.sums = new long[names.length];
+    }
+
+    public static ColumnarFileReader read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file),
+                64 * 1024))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a columnar export: " + file);
+            }
+            int columnCount = (int) readVarint(in);
+            String[] names = new String[columnCount];
+            int[] types = new int[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                byte[] name = new byte[(int) readVarint(in)];
+                in.readFully(name);
+                names[column] = new String(name, StandardCharsets.UTF_8);
+                types[column] = in.readUnsignedByte();
+            }
+            ColumnarFileReader reader = new ColumnarFileReader(names);
+            long groupRows;
+            while ((groupRows = readVarint(in)) != 0) {
+                for (int column = 0; column < columnCount; column++) {
+                    byte[] chunk = new byte[(int) readVarint(in)];
+                    in.readFully(chunk);
+                    if (types[column] != STRING) {
+                        reader.sums[column] += sumDeltas(chunk, groupRows);
+                    }
+                }
+                reader.rows += groupRows;
+            }
+            long trailerRows = readVarint(in);
+            if (trailerRows != reader.rows) {
+                throw new IOException("Trailer says " + trailerRows + " rows, groups hold " + reader.rows);
+            }
+            return reader;
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getSum(String column) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(column)) {
+                return sums[i];
+            }
+        }
+        throw new IllegalArgumentException("No column " + column);
+    }
+
+    private static long sumDeltas(byte[] chunk, long count) throws IOException {
+        InputStream in = new ByteArrayInputStream(chunk);
+        long value = 0;
+        long sum = 0;
+        for (long row = 0; row < count; row++) {
+            long zigzag = readVarint(in);
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.springwebpos.loadtest;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.example.springwebpos.AppInitializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The application as deployed (AppInitializer, both contexts, DispatcherServlet) in an embedded Tomcat on a free
+ * port.
+ */
+public class EmbeddedServer implements AutoCloseable {
+    private final Tomcat tomcat = new Tomcat();
+    private final int port;
+
+    public EmbeddedServer() throws IOException, LifecycleException {
+        Path baseDir = Files.createTempDirectory("springwebpos-tomcat");
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.getConnector().setPort(0);
+        Context context = tomcat.addContext("", baseDir.toString());
+        // Resolve the application (and application.properties) from the launcher's classpath
+        context.setParentClassLoader(EmbeddedServer.class.getClassLoader());
+        context.addServletContainerInitializer((classes, servletContext) ->
+                new AppInitializer().onStartup(servletContext), null);
+        tomcat.start();
+        if (!context.getState().isAvailable()) {
+            close();
+            throw new IllegalStateException("Application failed to start, see the log above");
+        }
+        port = tomcat.getConnector().getLocalPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
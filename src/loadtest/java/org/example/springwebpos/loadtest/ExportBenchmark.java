@@ -0,0 +1,217 @@
+package org.example.springwebpos.loadtest;
+
+import org.example.springwebpos.config.WebAppRootConfig;
+import org.example.springwebpos.export.ExportDataset;
+import org.example.springwebpos.export.ExportFormat;
+import org.example.springwebpos.export.OrderExportJob;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Seeds a file-backed H2 database with {@code exportbench.orders} orders (reused across runs when the count
+ * matches), then exports the whole range through {@link OrderExportJob} in every dataset and format. Each run is
+ * checked by reading the file back and appended to {@code target/loadtest/export-report.csv} with rows per second,
+ * file size and the peak heap seen during the export.
+ * <p>
+ * Run it under a small heap (e.g. {@code MAVEN_OPTS=-Xmx256m}) to see that memory does not grow with the row count.
+ */
+public class ExportBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ExportBenchmark.class);
+
+    private static final String HEADER = "timestamp,label,dataset,format,rows,seconds,rows_per_s,file_mb,"
+            + "peak_heap_mb\n";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+    private static final int CUSTOMERS = 100;
+    private static final int ITEMS = 500;
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int orders = Integer.parseInt(System.getProperty("exportbench.orders", "1000000"));
+        int linesPerOrder = Integer.parseInt(System.getProperty("exportbench.lines-per-order", "3"));
+        int days = Integer.parseInt(System.getProperty("exportbench.days", "90"));
+        String label = System.getProperty("exportbench.label", "default");
+        Path outputDir = Paths.get(System.getProperty("exportbench.dir", "target/loadtest/export"));
+        Path reportFile = Paths.get(System.getProperty("exportbench.report-file",
+                "target/loadtest/export-report.csv"));
+
+        defaultProperty("pos.datasource.primary.driver", "org.h2.Driver");
+        defaultProperty("pos.datasource.primary.url", "jdbc:h2:file:./target/loadtest/exportbench/pos;MODE=MySQL;"
+                + "NON_KEYWORDS=VALUE");
+        defaultProperty("pos.datasource.primary.username", "sa");
+        defaultProperty("pos.datasource.primary.password", "");
+        defaultProperty("pos.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        defaultProperty("pos.export.dir", outputDir.toString());
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                WebAppRootConfig.class)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+            if (existing == null || existing != orders) {
+                seed(jdbcTemplate, transactionTemplate, orders, linesPerOrder, days);
+            } else {
+                logger.info("Reusing {} seeded orders", existing);
+            }
+            long expectedSubTotal = PricingEngine.toMinor(jdbcTemplate.queryForObject(
+                    "SELECT SUM(subTotal) FROM orders", Double.class));
+
+            OrderExportJob exportJob = context.getBean(OrderExportJob.class);
+            LocalDate lastDay = FIRST_DAY.plusDays(days - 1);
+            List<String> lines = new ArrayList<>();
+            for (ExportDataset dataset : ExportDataset.values()) {
+                for (ExportFormat format : ExportFormat.values()) {
+                    System.gc();
+                    resetPeakHeap();
+                    long started = System.nanoTime();
+                    Path file = exportJob.exportToFile(StoreContext.DEFAULT_STORE, FIRST_DAY, lastDay, dataset, format);
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    double peakHeapMb = peakHeap() / 1048576.0;
+                    long rows = verify(file, dataset, format, expectedSubTotal);
+                    double fileMb = Files.size(file) / 1048576.0;
+                    logger.info("{} as {}: {} rows in {} s ({} rows/s), {} MB, peak heap {} MB", dataset, format,
+                            rows, String.format(Locale.ROOT, "%.2f", seconds),
+                            String.format(Locale.ROOT, "%.0f", rows / seconds),
+                            String.format(Locale.ROOT, "%.1f", fileMb),
+                            String.format(Locale.ROOT, "%.0f", peakHeapMb));
+                    lines.add(String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%.3f,%.0f,%.2f,%.0f%n", Instant.now(),
+                            label, dataset, format, rows, seconds, rows / seconds, fileMb, peakHeapMb));
+                }
+            }
+            writeReport(reportFile, lines);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int orders,
+                             int linesPerOrder, int days) {
+        logger.info("Seeding {} orders with {} lines each over {} days", orders, linesPerOrder, days);
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM order_details");
+            jdbcTemplate.update("DELETE FROM orders");
+            jdbcTemplate.update("DELETE FROM settlement_items");
+            jdbcTemplate.update("DELETE FROM settlements");
+            jdbcTemplate.update("DELETE FROM items");
+            jdbcTemplate.update("DELETE FROM customers");
+            List<Object[]> customers = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                customers.add(new Object[]{"C" + i, "Customer " + i, "Address " + i, "07" + (10000000 + i)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO customers (id, name, address, mobile) VALUES (?, ?, ?, ?)",
+                    customers);
+            List<Object[]> items = new ArrayList<>();
+            for (int i = 0; i < ITEMS; i++) {
+                items.add(new Object[]{"I" + i, "Item " + i, 0.5 + (i % 200) * 0.25, 1_000_000});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (code, description, price, qty) VALUES (?, ?, ?, ?)", items);
+        });
+
+        Random random = new Random(42);
+        for (int from = 0; from < orders; from += BATCH) {
+            List<Object[]> orderRows = new ArrayList<>(BATCH);
+            List<Object[]> detailRows = new ArrayList<>(BATCH * linesPerOrder);
+            for (int order = from; order < Math.min(orders, from + BATCH); order++) {
+                String orderId = String.format("O%09d", order);
+                long total = 0;
+                for (int line = 0; line < linesPerOrder; line++) {
+                    int item = random.nextInt(ITEMS);
+                    int quantity = 1 + random.nextInt(5);
+                    long unitPrice = PricingEngine.toMinor(0.5 + (item % 200) * 0.25);
+                    total += unitPrice * quantity;
+                    detailRows.add(new Object[]{orderId, "I" + item, quantity, PricingEngine.toMajor(unitPrice),
+                            PricingEngine.toMajor(unitPrice * quantity)});
+                }
+                long discount = total / 20;
+                long cash = (total - discount + 999) / 1000 * 1000;
+                orderRows.add(new Object[]{orderId, "C" + random.nextInt(CUSTOMERS),
+                        FIRST_DAY.plusDays((long) order * days / orders).toString(), PricingEngine.toMajor(total),
+                        PricingEngine.toMajor(discount), PricingEngine.toMajor(total - discount),
+                        PricingEngine.toMajor(cash), PricingEngine.toMajor(cash - total + discount)});
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("INSERT INTO orders (orderId, customerId, orderDate, total, discount, "
+                        + "subTotal, cash, balance) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", orderRows);
+                jdbcTemplate.batchUpdate("INSERT INTO order_details (order_id, item_code, quantity, unitPrice, "
+                        + "totalPrice) VALUES (?, ?, ?, ?, ?)", detailRows);
+            });
+        }
+        logger.info("Seeded in {} s", String.format(Locale.ROOT, "%.1f", (System.nanoTime() - started) / 1e9));
+    }
+
+    /**
+     * Reads the export back and checks the row count against the trailer or line count; for the columnar orders
+     * file also checks that the subtotal column adds up to the database's total to the cent.
+     */
+    private static long verify(Path file, ExportDataset dataset, ExportFormat format, long expectedSubTotal)
+            throws IOException {
+        if (format == ExportFormat.COLUMNAR) {
+            ColumnarFileReader reader = ColumnarFileReader.read(file);
+            if (dataset == ExportDataset.ORDERS && reader.getSum("subTotal") != expectedSubTotal) {
+                throw new IllegalStateException("Columnar subTotal sum " + reader.getSum("subTotal")
+                        + " does not match the database's " + expectedSubTotal);
+            }
+            return reader.getRows();
+        }
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        return lines - 1;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void writeReport(Path reportFile, List<String> lines) throws IOException {
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        if (!Files.exists(reportFile)) {
+            Files.writeString(reportFile, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(reportFile, String.join("", lines), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Export benchmark appended to {}", reportFile.toAbsolutePath());
+    }
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.springwebpos.loadtest;
+
+import org.example.springwebpos.util.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Inserts {@code idbench.rows} rows keyed by the old {@code ORDER-<uuid>} ids, by {@link IdGenerator} text ids and
+ * by their {@code BINARY(16)} form, each into its own file-backed H2 database under {@code target/loadtest/idbench}.
+ * Appends insert throughput and the on-disk size of the table and its primary key to
+ * {@code target/loadtest/id-key-report.csv}.
+ * <p>
+ * H2's MVStore is a copy-on-write B-tree, so random keys cost page rewrites and half-full pages much like InnoDB
+ * page splits do; absolute numbers differ from MySQL, the ratios between the key kinds are what to compare.
+ */
+public class IdKeyBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(IdKeyBenchmark.class);
+
+    private static final String HEADER = "timestamp,label,key,rows,seconds,rows_per_s,bytes,bytes_per_row\n";
+    private static final int BATCH = 1_000;
+
+    private enum Key {
+        PREFIXED_UUID("VARCHAR(255)"),
+        ULID_TEXT("VARCHAR(255)"),
+        ULID_BINARY("BINARY(16)");
+
+        private final String columnType;
+
+        Key(String columnType) {
+            this.columnType = columnType;
+        }
+
+        void bind(PreparedStatement statement) throws SQLException {
+            switch (this) {
+                case PREFIXED_UUID -> statement.setString(1, "ORDER-" + UUID.randomUUID());
+                case ULID_TEXT -> statement.setString(1, IdGenerator.next());
+                case ULID_BINARY -> statement.setBytes(1, IdGenerator.toBytes(IdGenerator.next()));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int rows = Integer.parseInt(System.getProperty("idbench.rows", "2000000"));
+        String label = System.getProperty("idbench.label", "default");
+        Path directory = Paths.get(System.getProperty("idbench.directory", "target/loadtest/idbench"));
+        Path reportFile = Paths.get(System.getProperty("idbench.report-file", "target/loadtest/id-key-report.csv"));
+
+        List<String> lines = new ArrayList<>();
+        for (Key key : Key.values()) {
+            Path database = directory.resolve(key.name().toLowerCase(Locale.ROOT)).toAbsolutePath();
+            Files.deleteIfExists(Paths.get(database + ".mv.db"));
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + database, "sa", "")) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE orders (orderId " + key.columnType + " NOT NULL, "
+                            + "customerId VARCHAR(255) NOT NULL, total DECIMAL(12, 2) NOT NULL, "
+                            + "PRIMARY KEY (orderId))");
+                }
+                double seconds = insert(connection, key, rows);
+                long bytes = diskSpaceUsed(connection);
+                logger.info("{}: {} rows in {} s ({} rows/s), {} bytes on disk ({} bytes/row)", key, rows,
+                        String.format(Locale.ROOT, "%.2f", seconds),
+                        String.format(Locale.ROOT, "%.0f", rows / seconds), bytes,
+                        String.format(Locale.ROOT, "%.1f", bytes / (double) rows));
+                lines.add(String.format(Locale.ROOT, "%s,%s,%s,%d,%.2f,%.0f,%d,%.1f%n", Instant.now(), label, key,
+                        rows, seconds, rows / seconds, bytes, bytes / (double) rows));
+            }
+        }
+        writeReport(reportFile, lines);
+    }
+
+    private static double insert(Connection connection, Key key, int rows) throws SQLException {
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO orders (orderId, customerId, total) VALUES (?, 'C0', 12.50)")) {
+            for (int row = 1; row <= rows; row++) {
+                key.bind(statement);
+                statement.addBatch();
+                if (row % BATCH == 0 || row == rows) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    private static long diskSpaceUsed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("CALL DISK_SPACE_USED('ORDERS')")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void writeReport(Path reportFile, List<String> lines) throws IOException {
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        if (!Files.exists(reportFile)) {
+            Files.writeString(reportFile, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(reportFile, String.join("", lines), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Id key benchmark appended to {}", reportFile.toAbsolutePath());
+    }
+}
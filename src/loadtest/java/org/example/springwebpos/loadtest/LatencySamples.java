@@ -0,0 +1,60 @@
+package org.example.springwebpos.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one operation as seen by one worker thread, in nanoseconds. Workers never share an instance, so no
+ * synchronization is needed while recording; {@link #merge} combines them once the run is over.
+ */
+public class LatencySamples {
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void merge(LatencySamples other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    /**
+     * Sorts the samples in place; call once before reading percentiles.
+     */
+    public void seal() {
+        Arrays.sort(samples, 0, count);
+    }
+
+    public double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return samples[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        return count == 0 ? 0 : samples[count - 1] / 1_000_000.0;
+    }
+}
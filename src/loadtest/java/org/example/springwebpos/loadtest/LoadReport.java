@@ -0,0 +1,75 @@
+package org.example.springwebpos.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Appends one CSV line per operation to the report file, so runs with different labels can be compared side by
+ * side.
+ */
+public class LoadReport {
+    private static final Logger logger = LoggerFactory.getLogger(LoadReport.class);
+
+    private static final String HEADER = "timestamp,label,operation,threads,duration_s,requests,errors,"
+            + "throughput_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n";
+
+    private final LoadTestConfig config;
+    private final Map<String, LatencySamples> operations = new TreeMap<>();
+    private double measuredSeconds;
+
+    public LoadReport(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void add(Map<String, LatencySamples> workerSamples) {
+        workerSamples.forEach((operation, samples) ->
+                operations.computeIfAbsent(operation, key -> new LatencySamples()).merge(samples));
+    }
+
+    public void setMeasuredSeconds(double measuredSeconds) {
+        this.measuredSeconds = measuredSeconds;
+    }
+
+    public void write() throws IOException {
+        LatencySamples total = new LatencySamples();
+        operations.values().forEach(total::merge);
+        operations.put("all", total);
+
+        String timestamp = Instant.now().toString();
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<String, LatencySamples> operation : operations.entrySet()) {
+            LatencySamples samples = operation.getValue();
+            samples.seal();
+            String line = String.format(Locale.ROOT, "%s,%s,%s,%d,%.1f,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                    timestamp, config.getLabel(), operation.getKey(), config.getThreads(), measuredSeconds,
+                    samples.getCount(), samples.getErrors(), samples.getCount() / measuredSeconds,
+                    samples.percentileMillis(50), samples.percentileMillis(90), samples.percentileMillis(99),
+                    samples.percentileMillis(99.9), samples.maxMillis());
+            lines.append(line);
+            logger.info("{} {}/s p50={}ms p99={}ms errors={}", String.format("%-16s", operation.getKey()),
+                    String.format(Locale.ROOT, "%.1f", samples.getCount() / measuredSeconds),
+                    String.format(Locale.ROOT, "%.2f", samples.percentileMillis(50)),
+                    String.format(Locale.ROOT, "%.2f", samples.percentileMillis(99)), samples.getErrors());
+        }
+
+        Path path = config.getReportFile();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.notExists(path)) {
+            Files.writeString(path, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(path, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Load test report appended to {}", path.toAbsolutePath());
+    }
+}
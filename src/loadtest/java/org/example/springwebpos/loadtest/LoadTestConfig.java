@@ -0,0 +1,73 @@
+package org.example.springwebpos.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code -Dloadtest.*} system properties.
+ */
+@Getter
+public class LoadTestConfig {
+    private final String label;
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int items;
+    private final int customers;
+    private final int basketMin;
+    private final int basketMax;
+    // Zipf exponent for picking basket items: 0 is uniform, around 1 a few items take most of the sales
+    private final double hotItemSkew;
+    private final Map<Workload.Kind, Integer> mix;
+    private final Path reportFile;
+
+    private LoadTestConfig() {
+        label = property("label", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        threads = Integer.parseInt(property("threads", "16"));
+        warmupSeconds = Integer.parseInt(property("warmup-seconds", "10"));
+        durationSeconds = Integer.parseInt(property("duration-seconds", "60"));
+        items = Integer.parseInt(property("items", "500"));
+        customers = Integer.parseInt(property("customers", "200"));
+        basketMin = Integer.parseInt(property("basket-min", "1"));
+        basketMax = Math.min(items, Integer.parseInt(property("basket-max", "8")));
+        hotItemSkew = Double.parseDouble(property("hot-item-skew", "1.0"));
+        mix = parseMix(property("mix", "orders:60,catalog:30,customers:10"));
+        reportFile = Paths.get(property("report-file", "target/loadtest/report.csv"));
+        if (basketMin < 1 || basketMin > basketMax) {
+            throw new IllegalArgumentException("Need 1 <= loadtest.basket-min <= loadtest.basket-max <= loadtest.items");
+        }
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig();
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<Workload.Kind, Integer> parseMix(String spec) {
+        Map<Workload.Kind, Integer> weights = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            weights.put(Workload.Kind.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "label=" + label + " threads=" + threads + " warmup=" + warmupSeconds + "s duration="
+                + durationSeconds + "s items=" + items + " customers=" + customers + " basket=" + basketMin + ".."
+                + basketMax + " skew=" + hotItemSkew + " mix=" + mix;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.springwebpos.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the whole stack against an in-memory H2 database (MySQL mode, same Flyway migrations) and drives it with
+ * closed-loop workers: each worker sends its next request as soon as the previous one answers. Requests made during
+ * warm-up are not recorded.
+ * <p>
+ * Any {@code pos.*} property can be overridden with {@code -D}, e.g. to point at a real MySQL server or to enable
+ * the order journal for a comparison run.
+ */
+public class LoadTestRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        defaultProperty("pos.datasource.primary.driver", "org.h2.Driver");
+        defaultProperty("pos.datasource.primary.url",
+                "jdbc:h2:mem:springwebpos;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE");
+        defaultProperty("pos.datasource.primary.username", "sa");
+        defaultProperty("pos.datasource.primary.password", "");
+        defaultProperty("pos.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try (EmbeddedServer server = new EmbeddedServer()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+            Workload workload = new Workload(client, server.getBaseUrl(), config);
+            logger.info("Seeding {} items and {} customers at {}", config.getItems(), config.getCustomers(),
+                    server.getBaseUrl());
+            workload.seed();
+
+            logger.info("Running load test: {}", config);
+            LoadReport report = run(workload, config);
+            report.write();
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static LoadReport run(Workload workload, LoadTestConfig config) throws Exception {
+        Workload.Kind[] schedule = schedule(config.getMix());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.getThreads());
+        List<Future<Map<String, LatencySamples>>> results = new ArrayList<>();
+        for (int worker = 0; worker < config.getThreads(); worker++) {
+            long seed = worker;
+            results.add(workers.submit(() -> {
+                Random random = new Random(seed);
+                Map<String, LatencySamples> samples = new HashMap<>();
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    Workload.Kind kind = schedule[random.nextInt(schedule.length)];
+                    workload.run(kind, random, now >= measureFrom ? samples : null);
+                }
+                return samples;
+            }));
+        }
+
+        LoadReport report = new LoadReport(config);
+        for (Future<Map<String, LatencySamples>> result : results) {
+            report.add(result.get());
+        }
+        report.setMeasuredSeconds((System.nanoTime() - measureFrom) / 1e9);
+        workers.shutdown();
+        return report;
+    }
+
+    // Expands weights like orders:60,catalog:30 into a lookup table for picking the next operation
+    private static Workload.Kind[] schedule(Map<Workload.Kind, Integer> mix) {
+        List<Workload.Kind> slots = new ArrayList<>();
+        mix.forEach((kind, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(kind);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weights");
+        }
+        return slots.toArray(new Workload.Kind[0]);
+    }
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+}
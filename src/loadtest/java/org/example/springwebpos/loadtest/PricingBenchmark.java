@@ -0,0 +1,135 @@
+package org.example.springwebpos.loadtest;
+
+import org.example.springwebpos.pricing.Basket;
+import org.example.springwebpos.pricing.BuyXGetYRule;
+import org.example.springwebpos.pricing.ItemAmountOffRule;
+import org.example.springwebpos.pricing.PercentageOffRule;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.pricing.PromotionRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Prices reused {@link Basket}s of {@code pricingbench.sizes} lines on one thread, with a basket percentage, a
+ * buy-X-get-Y and an amount-off rule active and every item scanned on two lines on average, so the per-item
+ * aggregation is exercised. Appends nanoseconds and bytes allocated per basket to
+ * {@code target/loadtest/pricing-report.csv}. Every result is checked to add up (line totals to the subtotal).
+ */
+public class PricingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(PricingBenchmark.class);
+
+    private static final String HEADER = "timestamp,label,lines,baskets,ns_per_basket,bytes_per_basket\n";
+    private static final int BASKETS = 64;
+
+    public static void main(String[] args) throws IOException {
+        String sizes = System.getProperty("pricingbench.sizes", "1,5,20,100");
+        int seconds = Integer.parseInt(System.getProperty("pricingbench.duration-seconds", "5"));
+        String label = System.getProperty("pricingbench.label", "default");
+        Path reportFile = Paths.get(System.getProperty("pricingbench.report-file",
+                "target/loadtest/pricing-report.csv"));
+
+        List<String> lines = new ArrayList<>();
+        for (String size : sizes.split(",")) {
+            int lineCount = Integer.parseInt(size.trim());
+            PricingEngine engine = new PricingEngine();
+            List<PromotionRule> rules = new ArrayList<>();
+            rules.add(new PercentageOffRule(500));
+            for (int item = 0; item < lineCount; item += 3) {
+                rules.add(new BuyXGetYRule("I" + item, 2, 1));
+                rules.add(new ItemAmountOffRule("I" + (item + 1), 15));
+            }
+            engine.setRules(rules);
+            Basket[] baskets = baskets(lineCount);
+
+            run(engine, baskets, seconds);
+            long[] allocated = new long[1];
+            long[] result = run(engine, baskets, seconds, allocated);
+            double nsPerBasket = (double) result[1] / result[0];
+            double bytesPerBasket = (double) allocated[0] / result[0];
+            logger.info("{} lines: {} baskets, {} ns/basket, {} bytes/basket", lineCount, result[0],
+                    String.format(Locale.ROOT, "%.0f", nsPerBasket),
+                    String.format(Locale.ROOT, "%.2f", bytesPerBasket));
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%.0f,%.2f%n", Instant.now(), label, lineCount,
+                    result[0], nsPerBasket, bytesPerBasket));
+        }
+        writeReport(reportFile, lines);
+    }
+
+    /**
+     * Baskets with {@code lines} lines over about {@code lines / 2} items, at catalog prices.
+     */
+    private static Basket[] baskets(int lines) {
+        Random random = new Random(29);
+        int items = Math.max(1, lines / 2);
+        Basket[] baskets = new Basket[BASKETS];
+        for (int b = 0; b < BASKETS; b++) {
+            baskets[b] = new Basket(lines);
+            for (int line = 0; line < lines; line++) {
+                int item = random.nextInt(items);
+                baskets[b].add("I" + item, 99 + item * 37L, 1 + random.nextInt(4));
+            }
+        }
+        return baskets;
+    }
+
+    private static long[] run(PricingEngine engine, Basket[] baskets, int seconds) {
+        return run(engine, baskets, seconds, new long[1]);
+    }
+
+    /**
+     * @return baskets priced and nanoseconds spent; {@code allocated[0]} receives the bytes allocated meanwhile
+     */
+    private static long[] run(PricingEngine engine, Basket[] baskets, int seconds, long[] allocated) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long priced = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            for (Basket basket : baskets) {
+                engine.price(basket, 250);
+                checksum += basket.getSubTotal();
+            }
+            priced += baskets.length;
+        }
+        long elapsed = System.nanoTime() - started;
+        allocated[0] = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        for (Basket basket : baskets) {
+            long sum = 0;
+            for (int line = 0; line < basket.size(); line++) {
+                sum += basket.getLineTotal(line);
+            }
+            if (sum != basket.getSubTotal() || basket.getTotal() - basket.getDiscount() != sum) {
+                throw new IllegalStateException("Basket does not add up: lines " + sum + ", subtotal "
+                        + basket.getSubTotal());
+            }
+        }
+        logger.debug("Checksum {}", checksum);
+        return new long[]{priced, elapsed};
+    }
+
+    private static void writeReport(Path reportFile, List<String> lines) throws IOException {
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        if (!Files.exists(reportFile)) {
+            Files.writeString(reportFile, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(reportFile, String.join("", lines), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Pricing benchmark appended to {}", reportFile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.springwebpos.loadtest;
+
+import org.example.springwebpos.config.WebAppRootConfig;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.exception.RetriesExhaustedException;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.retry.TransactionRetryExecutor;
+import org.example.springwebpos.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives checkouts of a few hot items from {@code stockbench.threads} threads, first through the row-lock path and
+ * then through the {@link InventoryLedger}, each against a fresh in-memory H2 database. Orders go through
+ * {@link TransactionRetryExecutor} like {@code OrderController} does. After each run the stock left in
+ * {@code items} (with the ledger: after a flush) is checked against the units sold, and a row with throughput,
+ * latency percentiles and failures is appended to {@code target/loadtest/stock-contention-report.csv}.
+ */
+public class StockContentionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(StockContentionBenchmark.class);
+
+    private static final String HEADER = "timestamp,label,mode,threads,hot_items,orders,seconds,orders_per_s,"
+            + "p50_ms,p99_ms,max_ms,failed\n";
+    private static final int STOCK = 10_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(System.getProperty("stockbench.threads", "32"));
+        int hotItems = Integer.parseInt(System.getProperty("stockbench.hot-items", "1"));
+        int seconds = Integer.parseInt(System.getProperty("stockbench.duration-seconds", "20"));
+        int warmupSeconds = Integer.parseInt(System.getProperty("stockbench.warmup-seconds", "5"));
+        String label = System.getProperty("stockbench.label", "default");
+        Path reportFile = Paths.get(System.getProperty("stockbench.report-file",
+                "target/loadtest/stock-contention-report.csv"));
+
+        List<String> lines = new ArrayList<>();
+        for (boolean ledger : new boolean[]{false, true}) {
+            String mode = ledger ? "ledger" : "row-lock";
+            try (AnnotationConfigApplicationContext context = start(mode, ledger, threads)) {
+                List<String> codes = seed(context.getBean(JdbcTemplate.class), hotItems);
+                if (ledger) {
+                    context.getBean(InventoryLedger.class).rebuild();
+                }
+                run(context, codes, threads, warmupSeconds);
+                Result result = run(context, codes, threads, seconds);
+                if (ledger) {
+                    context.getBean(InventoryLedger.class).flush();
+                }
+                verify(context.getBean(JdbcTemplate.class), codes);
+                logger.info("{}: {} orders in {} s ({} orders/s), p50 {} ms, p99 {} ms, max {} ms, {} failed", mode,
+                        result.orders(), seconds,
+                        String.format(Locale.ROOT, "%.0f", result.orders() / (double) seconds),
+                        String.format(Locale.ROOT, "%.2f", result.percentile(0.50)),
+                        String.format(Locale.ROOT, "%.2f", result.percentile(0.99)),
+                        String.format(Locale.ROOT, "%.2f", result.percentile(1.0)), result.failed());
+                lines.add(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%.0f,%.2f,%.2f,%.2f,%d%n", Instant.now(),
+                        label, mode, threads, hotItems, result.orders(), seconds, result.orders() / (double) seconds,
+                        result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.failed()));
+            }
+        }
+        writeReport(reportFile, lines);
+    }
+
+    private static AnnotationConfigApplicationContext start(String mode, boolean ledger, int threads) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("stockbench", Map.of(
+                "pos.datasource.primary.driver", "org.h2.Driver",
+                "pos.datasource.primary.url", "jdbc:h2:mem:stockbench-" + mode
+                        + ";MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;LOCK_TIMEOUT=10000",
+                "pos.datasource.primary.username", "sa",
+                "pos.datasource.primary.password", "",
+                "pos.datasource.primary.pool-size", String.valueOf(threads + 4),
+                "pos.jpa.database-platform", "org.hibernate.dialect.H2Dialect",
+                "pos.inventory.ledger.enabled", String.valueOf(ledger))));
+        context.register(WebAppRootConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static List<String> seed(JdbcTemplate jdbcTemplate, int hotItems) {
+        jdbcTemplate.update("INSERT INTO customers (id, name, address, mobile) VALUES (?, ?, ?, ?)",
+                "C0", "Bench customer", "Address", "0710000000");
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < hotItems; i++) {
+            codes.add("HOT" + i);
+            jdbcTemplate.update("INSERT INTO items (code, description, price, qty) VALUES (?, ?, ?, ?)",
+                    "HOT" + i, "Hot item " + i, 1.25, STOCK);
+        }
+        return codes;
+    }
+
+    private static Result run(AnnotationConfigApplicationContext context, List<String> codes, int threads,
+                              int seconds) throws Exception {
+        OrderService orderService = context.getBean(OrderService.class);
+        TransactionRetryExecutor retryExecutor = context.getBean(TransactionRetryExecutor.class);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong failed = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    String code = codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+                    long started = System.nanoTime();
+                    try {
+                        retryExecutor.execute("placeOrder", () -> orderService.placeOrder(order(code)));
+                    } catch (RetriesExhaustedException e) {
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - started;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+        return new Result(all, failed.get());
+    }
+
+    private static OrderDTO order(String code) {
+        OrderDTO order = new OrderDTO();
+        order.setOrderId(UUID.randomUUID().toString());
+        order.setCustomerId("C0");
+        order.setOrderDate("2026-10-19");
+        order.setCash(100);
+        order.setOrderDetails(new ArrayList<>(List.of(new OrderDetailDTO(code, 0, 1, 0))));
+        return order;
+    }
+
+    /**
+     * Checks that every unit sold, warm-up included, was taken from {@code items.qty} exactly once.
+     */
+    private static void verify(JdbcTemplate jdbcTemplate, List<String> codes) {
+        for (String code : codes) {
+            int sold = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM order_details "
+                    + "WHERE item_code = ?", Integer.class, code);
+            int left = jdbcTemplate.queryForObject("SELECT qty FROM items WHERE code = ?", Integer.class, code);
+            if (left != STOCK - sold) {
+                throw new IllegalStateException(code + " has " + left + " left after selling " + sold + " of "
+                        + STOCK);
+            }
+        }
+    }
+
+    private static void writeReport(Path reportFile, List<String> lines) throws IOException {
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        if (!Files.exists(reportFile)) {
+            Files.writeString(reportFile, HEADER, StandardCharsets.UTF_8);
+        }
+        Files.writeString(reportFile, String.join("", lines), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        logger.info("Stock contention benchmark appended to {}", reportFile.toAbsolutePath());
+    }
+
+    private record Result(long[] latencies, long failed) {
+        long orders() {
+            return latencies.length;
+        }
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[Math.max(0, (int) Math.ceil(p * latencies.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.springwebpos.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.springwebpos.dto.CustomerDTO;
+import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The HTTP calls a till and the back office make, and the seed data they need.
+ * <p>
+ * Customer CRUD covers create, read and update. Deletes are left out: the create endpoint does not return the new
+ * id, and seeded customers are referenced by orders.
+ */
+public class Workload {
+    public enum Kind {ORDERS, CATALOG, CUSTOMERS}
+
+    private static final String JSON = "application/json";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong mobileSequence = new AtomicLong(10_000_000);
+    private final byte[] profilePic;
+    private final ZipfSampler itemSampler;
+
+    private List<String> itemCodes;
+    private List<String> customerIds;
+
+    public Workload(HttpClient client, String baseUrl, LoadTestConfig config) throws IOException {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.profilePic = samplePicture();
+        this.itemSampler = new ZipfSampler(config.getItems(), config.getHotItemSkew());
+    }
+
+    /**
+     * Creates the catalog and customer base through the API. Stock is large enough that checkout never runs out
+     * during a run.
+     */
+    public void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < config.getItems(); i++) {
+            ItemDTO item = new ItemDTO(null, "Item " + i, 1 + (i % 50) * 0.25, 1_000_000_000, 0, null);
+            expectSuccess(send(HttpRequest.newBuilder(uri("/api/v1/items"))
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(item)))));
+        }
+        List<ItemDTO> items = objectMapper.readValue(
+                expectSuccess(send(HttpRequest.newBuilder(uri("/api/v1/items/allitems")).GET())).body(),
+                new TypeReference<>() {
+                });
+        // The sampler's hottest rank is index 0; order by description so hot items are the same on every run
+        items.sort((a, b) -> Integer.compare(itemNumber(a), itemNumber(b)));
+        itemCodes = items.stream().map(ItemDTO::getCode).toList();
+
+        for (int i = 0; i < config.getCustomers(); i++) {
+            expectSuccess(createCustomer());
+        }
+        List<CustomerDTO> customers = objectMapper.readValue(
+                expectSuccess(send(HttpRequest.newBuilder(uri("/api/v1/customers/allcustomers")).GET())).body(),
+                new TypeReference<>() {
+                });
+        customerIds = customers.stream().map(CustomerDTO::getId).toList();
+    }
+
+    /**
+     * Runs one operation of the given kind. Latency is recorded under the operation name when {@code samples} is
+     * not null (i.e. outside warm-up).
+     */
+    public void run(Kind kind, Random random, Map<String, LatencySamples> samples) {
+        switch (kind) {
+            case ORDERS -> timed("order.place", samples, () -> placeOrder(random));
+            case CATALOG -> {
+                if (random.nextInt(4) == 0) {
+                    timed("catalog.list", samples, () ->
+                            send(HttpRequest.newBuilder(uri("/api/v1/items/allitems")).GET()));
+                } else {
+                    String code = itemCodes.get(itemSampler.next(random));
+                    timed("catalog.item", samples, () ->
+                            send(HttpRequest.newBuilder(uri("/api/v1/items/" + code)).GET()));
+                }
+            }
+            case CUSTOMERS -> {
+                int pick = random.nextInt(10);
+                String id = customerIds.get(random.nextInt(customerIds.size()));
+                if (pick < 3) {
+                    timed("customer.create", samples, this::createCustomer);
+                } else if (pick < 8) {
+                    timed("customer.read", samples, () ->
+                            send(HttpRequest.newBuilder(uri("/api/v1/customers/" + id)).GET()));
+                } else {
+                    timed("customer.update", samples, () -> updateCustomer(id));
+                }
+            }
+        }
+    }
+
+    private HttpResponse<byte[]> placeOrder(Random random) throws IOException, InterruptedException {
+        int lines = config.getBasketMin() + random.nextInt(config.getBasketMax() - config.getBasketMin() + 1);
+        Set<String> basket = new LinkedHashSet<>();
+        while (basket.size() < lines) {
+            basket.add(itemCodes.get(itemSampler.next(random)));
+        }
+        List<OrderDetailDTO> details = new ArrayList<>(lines);
+        for (String code : basket) {
+            details.add(new OrderDetailDTO(code, 0, 1 + random.nextInt(3), 0));
+        }
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId(customerIds.get(random.nextInt(customerIds.size())));
+        order.setOrderDate(LocalDate.now().toString());
+        order.setCash(1_000_000);
+        order.setOrderDetails(details);
+        return send(HttpRequest.newBuilder(uri("/api/v1/orders"))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order))));
+    }
+
+    private HttpResponse<byte[]> createCustomer() throws IOException, InterruptedException {
+        Multipart body = new Multipart()
+                .field("name", "Load Customer")
+                .field("address", "1 Main Street")
+                .field("mobile", "07" + mobileSequence.incrementAndGet())
+                .file("profilePic", "pic.png", "image/png", profilePic);
+        return send(body.applyTo(HttpRequest.newBuilder(uri("/api/v1/customers"))));
+    }
+
+    private HttpResponse<byte[]> updateCustomer(String id) throws IOException, InterruptedException {
+        Multipart body = new Multipart()
+                .field("updateName", "Updated Customer")
+                .field("updateAddress", "2 Main Street")
+                .field("updateMobile", "07" + mobileSequence.incrementAndGet())
+                .file("updateProfilePic", "pic.png", "image/png", profilePic);
+        return send(body.applyTo(HttpRequest.newBuilder(uri("/api/v1/customers/" + id)), "PATCH"));
+    }
+
+    private void timed(String operation, Map<String, LatencySamples> samples, Call call) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            int status = call.execute().statusCode();
+            ok = status >= 200 && status < 300;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (samples == null) {
+            return;
+        }
+        LatencySamples operationSamples = samples.computeIfAbsent(operation, key -> new LatencySamples());
+        if (ok) {
+            operationSamples.record(elapsed);
+        } else {
+            operationSamples.recordError();
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static HttpResponse<byte[]> expectSuccess(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seeding failed: " + response.request().method() + " "
+                    + response.uri() + " returned " + response.statusCode() + " "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static int itemNumber(ItemDTO item) {
+        return Integer.parseInt(item.getDescription().substring("Item ".length()));
+    }
+
+    private static byte[] samplePicture() throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<byte[]> execute() throws IOException, InterruptedException;
+    }
+
+    private static final class Multipart {
+        private final String boundary = "----loadtest" + UUID.randomUUID().toString().replace("-", "");
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Multipart field(String name, String value) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n"
+                    + "Content-Type: text/plain; charset=UTF-8\r\n\r\n" + value + "\r\n");
+            return this;
+        }
+
+        Multipart file(String name, String filename, String contentType, byte[] content) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                    + filename + "\"\r\nContent-Type: " + contentType + "\r\n\r\n");
+            body.writeBytes(content);
+            write("\r\n");
+            return this;
+        }
+
+        HttpRequest.Builder applyTo(HttpRequest.Builder request) {
+            return applyTo(request, "POST");
+        }
+
+        HttpRequest.Builder applyTo(HttpRequest.Builder request, String method) {
+            write("--" + boundary + "--\r\n");
+            return request.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+        }
+
+        private void write(String text) {
+            body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.springwebpos.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks indexes {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent}, so index 0 is the
+ * hottest. An exponent of 0 gives a uniform pick.
+ */
+public class ZipfSampler {
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
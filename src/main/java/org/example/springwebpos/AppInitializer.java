@@ -7,6 +7,11 @@ import org.example.springwebpos.config.WebAppRootConfig;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
 public class AppInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+    private static final long MAX_REQUEST_SIZE = 6 * 1024 * 1024;
+    // Spool every part to disk instead of buffering uploads on the heap
+    private static final int FILE_SIZE_THRESHOLD = 0;
+
     @Override
     protected Class<?>[] getRootConfigClasses() {
         return new Class[]{WebAppRootConfig.class};
@@ -25,6 +30,7 @@ public class AppInitializer extends AbstractAnnotationConfigDispatcherServletIni
     @Override
     protected void customizeRegistration(ServletRegistration.Dynamic registration) {
         String tempDir = System.getProperty("java.io.tmpdir");
-        registration.setMultipartConfig(new MultipartConfigElement(tempDir));
+        registration.setMultipartConfig(new MultipartConfigElement(tempDir, MAX_FILE_SIZE, MAX_REQUEST_SIZE,
+                FILE_SIZE_THRESHOLD));
     }
 }
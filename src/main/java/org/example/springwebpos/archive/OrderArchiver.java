@@ -0,0 +1,164 @@
+package org.example.springwebpos.archive;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.shard.ShardRoutingDataSource;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves orders older than {@code pos.archive.after-days} from {@code orders}/{@code order_details} into the archive
+ * tables, oldest first, so the hot tables and their indexes stay small.
+ * <p>
+ * Each batch is one short transaction that locks its orders, copies them and their lines into the archive and
+ * deletes them, so an order is always in exactly one place. Between batches the archiver sleeps long enough to keep
+ * its share of wall-clock time under {@code pos.archive.max-duty-percent}; when the database slows down under
+ * checkout load, batches take longer and the archiver backs off with them.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final String SELECT_BATCH = "SELECT orderId FROM orders WHERE orderDate < ? "
+            + "ORDER BY orderDate LIMIT ? FOR UPDATE";
+    private static final String COPY_ORDERS = "INSERT INTO orders_archive (orderId, storeId, customerId, orderDate, "
+            + "total, discount, subTotal, cash, balance, archivedAt) SELECT orderId, storeId, customerId, orderDate, "
+            + "total, discount, subTotal, cash, balance, ? FROM orders WHERE orderId IN (%s)";
+    private static final String COPY_DETAILS = "INSERT INTO order_details_archive (id, order_id, item_code, quantity, "
+            + "unitPrice, totalPrice) SELECT id, order_id, item_code, quantity, unitPrice, totalPrice "
+            + "FROM order_details WHERE order_id IN (%s)";
+    private static final String DELETE_DETAILS = "DELETE FROM order_details WHERE order_id IN (%s)";
+    private static final String DELETE_ORDERS = "DELETE FROM orders WHERE orderId IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    @Value("${pos.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pos.archive.after-days:365}")
+    private int afterDays;
+
+    @Value("${pos.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pos.archive.max-duty-percent:20}")
+    private int maxDutyPercent;
+
+    @Value("${pos.archive.min-pause-ms:50}")
+    private long minPauseMs;
+
+    @Value("${pos.archive.max-batches-per-run:2000}")
+    private int maxBatchesPerRun;
+
+    private volatile boolean running = true;
+
+    @Scheduled(fixedDelayString = "${pos.archive.interval-ms:3600000}",
+            initialDelayString = "${pos.archive.initial-delay-ms:300000}")
+    public void archiveOldOrders() {
+        if (!enabled) {
+            return;
+        }
+        String cutoff = LocalDate.now().minusDays(afterDays).toString();
+        for (String shard : shardRoutingDataSource.getShardNames()) {
+            if (running) {
+                archiveShard(shard, cutoff);
+            }
+        }
+    }
+
+    /**
+     * Archives orders dated before {@code cutoff} on one shard, up to {@code pos.archive.max-batches-per-run}
+     * batches. A failed batch is rolled back and left for the next run.
+     *
+     * @return the number of orders moved
+     */
+    public int archiveShard(String shard, String cutoff) {
+        long started = System.nanoTime();
+        int moved = 0;
+        int batches = 0;
+        while (running && batches < maxBatchesPerRun) {
+            long batchStarted = System.nanoTime();
+            int count;
+            try {
+                count = StoreContext.callOnShard(shard, () -> transactionTemplate.execute(status -> moveBatch(cutoff)));
+            } catch (RuntimeException e) {
+                logger.warn("Archiving batch failed on shard {}, retrying next run: {}", shard, e.getMessage());
+                break;
+            }
+            if (count == 0) {
+                break;
+            }
+            moved += count;
+            batches++;
+            if (!pause(System.nanoTime() - batchStarted)) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            logger.info("Archived {} orders dated before {} on shard {} in {} batches, {} ms", moved, cutoff, shard,
+                    batches, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return moved;
+    }
+
+    private int moveBatch(String cutoff) {
+        List<String> orderIds = jdbcTemplate.queryForList(SELECT_BATCH, String.class, cutoff, batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        Object[] ids = orderIds.toArray();
+        List<Object> copyArgs = new ArrayList<>(orderIds.size() + 1);
+        copyArgs.add(LocalDateTime.now().toString());
+        copyArgs.addAll(orderIds);
+
+        int copied = jdbcTemplate.update(String.format(COPY_ORDERS, placeholders), copyArgs.toArray());
+        int lines = jdbcTemplate.update(String.format(COPY_DETAILS, placeholders), ids);
+        int deletedLines = jdbcTemplate.update(String.format(DELETE_DETAILS, placeholders), ids);
+        int deleted = jdbcTemplate.update(String.format(DELETE_ORDERS, placeholders), ids);
+        if (copied != orderIds.size() || deleted != orderIds.size() || lines != deletedLines) {
+            throw new IllegalStateException("Archive batch moved " + copied + "/" + deleted + " orders and "
+                    + lines + "/" + deletedLines + " lines for " + orderIds.size() + " selected orders");
+        }
+        logger.debug("Archived {} orders with {} lines", deleted, lines);
+        return deleted;
+    }
+
+    /**
+     * Sleeps so that a batch that took {@code batchNanos} uses at most the configured duty cycle.
+     *
+     * @return {@code false} if interrupted
+     */
+    private boolean pause(long batchNanos) {
+        long batchMs = TimeUnit.NANOSECONDS.toMillis(batchNanos);
+        long pauseMs = Math.max(minPauseMs, batchMs * (100 - maxDutyPercent) / Math.max(1, maxDutyPercent));
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.springwebpos.cart;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.springwebpos.pricing.Basket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A till's open basket. Lines keep the price the item had when it was first scanned; the basket is re-priced in
+ * memory after every change, so totals are always current without going back to the database. Not thread-safe:
+ * callers synchronize on the cart.
+ */
+@Getter
+public class Cart {
+    private final String cartId;
+    private final String storeId;
+    private final Basket basket = new Basket();
+    private final Map<String, String> descriptions = new HashMap<>();
+    @Setter
+    private String customerId;
+    @Setter
+    private double discountPercent;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    public Cart(String cartId, String storeId) {
+        this.cartId = cartId;
+        this.storeId = storeId;
+    }
+
+    /**
+     * @return the basket line holding the item, or {@code -1}
+     */
+    public int lineOf(String itemCode) {
+        for (int line = 0; line < basket.size(); line++) {
+            if (basket.getItemCode(line).equals(itemCode)) {
+                return line;
+            }
+        }
+        return -1;
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Marks the cart as checked out or evicted; a till still holding it gets "not found" from then on.
+     */
+    void close() {
+        closed = true;
+    }
+}
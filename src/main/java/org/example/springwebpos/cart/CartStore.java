@@ -0,0 +1,98 @@
+package org.example.springwebpos.cart;
+
+import org.example.springwebpos.util.AppUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * In-memory store of open carts, bounded by {@code pos.cart.max-carts}.
+ * <p>
+ * Carts are kept in access order, so the least recently used cart is always at the head: the idle sweep stops at
+ * the first cart that is still in use, and when the store is full the cart idle the longest makes room for a new
+ * one. Carts live on the node that created them; a till has to keep talking to the same node until checkout.
+ */
+@Component
+public class CartStore {
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    @Value("${pos.cart.max-carts:10000}")
+    private int maxCarts;
+
+    @Value("${pos.cart.idle-timeout-ms:1800000}")
+    private long idleTimeoutMs;
+
+    private final LinkedHashMap<String, Cart> carts = new LinkedHashMap<>(256, 0.75f, true);
+
+    public Cart create(String storeId) {
+        Cart cart = new Cart(AppUtil.createCartId(), storeId);
+        synchronized (carts) {
+            if (carts.size() >= maxCarts) {
+                Iterator<Cart> eldest = carts.values().iterator();
+                Cart evicted = eldest.next();
+                eldest.remove();
+                evicted.close();
+                logger.warn("Cart store full ({} carts), evicted cart {} idle for {} ms", maxCarts,
+                        evicted.getCartId(), System.currentTimeMillis() - evicted.getLastAccess());
+            }
+            carts.put(cart.getCartId(), cart);
+        }
+        return cart;
+    }
+
+    /**
+     * @return the open cart, or {@code null} if it does not exist, was checked out or was evicted
+     */
+    public Cart get(String cartId) {
+        Cart cart;
+        synchronized (carts) {
+            cart = carts.get(cartId);
+        }
+        if (cart != null) {
+            cart.touch();
+        }
+        return cart;
+    }
+
+    public void remove(String cartId) {
+        Cart cart;
+        synchronized (carts) {
+            cart = carts.remove(cartId);
+        }
+        if (cart != null) {
+            cart.close();
+        }
+    }
+
+    public int size() {
+        synchronized (carts) {
+            return carts.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.cart.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        int evicted = 0;
+        synchronized (carts) {
+            Iterator<Cart> eldest = carts.values().iterator();
+            while (eldest.hasNext()) {
+                Cart cart = eldest.next();
+                if (cart.getLastAccess() > cutoff) {
+                    break;
+                }
+                eldest.remove();
+                cart.close();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle carts", evicted);
+        }
+    }
+}
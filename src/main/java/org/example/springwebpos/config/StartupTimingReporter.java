@@ -0,0 +1,100 @@
+package org.example.springwebpos.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long each application context took to refresh and which beans were slowest to initialize, and
+ * appends one CSV line per refresh to {@code pos.startup.report-file} so boots can be compared across releases.
+ * Child (servlet) context refreshes reach this root-context listener as well; bean timings only cover the context
+ * the reporter is registered in, and the log line names it.
+ */
+@Component
+public class StartupTimingReporter implements BeanPostProcessor, ApplicationListener<ContextRefreshedEvent>,
+        ApplicationContextAware {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    private static final int SLOWEST_BEANS = 10;
+
+    @Value("${pos.startup.report-file:}")
+    private String reportFile;
+
+    private final Map<String, Long> initStarts = new ConcurrentHashMap<>();
+    private final Map<String, Long> initMillis = new ConcurrentHashMap<>();
+    private ApplicationContext timedContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.timedContext = applicationContext;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        initStarts.put(beanName, System.nanoTime());
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long start = initStarts.remove(beanName);
+        if (start != null) {
+            initMillis.put(beanName, (System.nanoTime() - start) / 1_000_000);
+        }
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        long refreshMillis = System.currentTimeMillis() - context.getStartupDate();
+        long jvmUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        String slowest = initMillis.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(SLOWEST_BEANS)
+                .map(entry -> entry.getKey() + "=" + entry.getValue() + "ms")
+                .collect(Collectors.joining(", "));
+        logger.info("Context '{}' refreshed in {} ms ({} beans, JVM up {} ms). Slowest beans of '{}': {}",
+                context.getDisplayName(), refreshMillis, context.getBeanDefinitionCount(), jvmUptimeMillis,
+                timedContext == null ? "?" : timedContext.getDisplayName(), slowest);
+        appendReport(context, refreshMillis, jvmUptimeMillis);
+    }
+
+    private void appendReport(ApplicationContext context, long refreshMillis, long jvmUptimeMillis) {
+        if (reportFile == null || reportFile.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(reportFile);
+        String line = String.join(",", Instant.now().toString(), context.getParent() == null ? "root" : "servlet",
+                Long.toString(refreshMillis), Long.toString(jvmUptimeMillis),
+                Integer.toString(context.getBeanDefinitionCount())) + System.lineSeparator();
+        try {
+            if (Files.notExists(path)) {
+                Files.writeString(path, "timestamp,context,refresh_ms,jvm_uptime_ms,bean_definitions"
+                        + System.lineSeparator(), StandardCharsets.UTF_8);
+            }
+            Files.writeString(path, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.warn("Cannot write startup report to {}: {}", path, e.getMessage());
+        }
+    }
+}
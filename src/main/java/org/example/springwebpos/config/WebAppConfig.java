@@ -1,15 +1,58 @@
 package org.example.springwebpos.config;
 
+import org.example.springwebpos.diagnostics.SqlAccountingInterceptor;
+import org.example.springwebpos.diagnostics.SqlDiagnostics;
+import org.example.springwebpos.shard.StoreContextInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+/**
+ * Servlet context: web layer only. Services, repositories and transactions live in {@link WebAppRootConfig}.
+ */
 @Configuration
-@ComponentScan(basePackages = "org.example.springwebpos")
+@ComponentScan(basePackages = "org.example.springwebpos.controller")
 @EnableWebMvc
-@EnableJpaRepositories(basePackages = "org.example.springwebpos")
-@EnableTransactionManagement
-public class WebAppConfig {
+public class WebAppConfig implements WebMvcConfigurer {
+    @Autowired
+    private SqlDiagnostics sqlDiagnostics;
+
+    @Value("${pos.export.max-concurrent:2}")
+    private int maxConcurrentExports;
+
+    @Value("${pos.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StoreContextInterceptor());
+        registry.addInterceptor(new SqlAccountingInterceptor(sqlDiagnostics));
+    }
+
+    /**
+     * Streaming responses (order exports) run on this small pool rather than an unbounded thread per request, and
+     * get a timeout long enough for months of orders.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor());
+        configurer.setDefaultTimeout(exportTimeoutMs);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentExports);
+        executor.setMaxPoolSize(maxConcurrentExports);
+        executor.setQueueCapacity(maxConcurrentExports * 2);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
 }
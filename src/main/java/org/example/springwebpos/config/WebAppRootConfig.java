@@ -1,53 +1,223 @@
 package org.example.springwebpos.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManagerFactory;
+import org.example.springwebpos.datasource.ReadWriteRoutingDataSource;
+import org.example.springwebpos.datasource.ReplicaLagMonitor;
+import org.example.springwebpos.diagnostics.SqlAccountingAdvice;
+import org.example.springwebpos.diagnostics.SqlDiagnostics;
+import org.example.springwebpos.diagnostics.SqlSessionListener;
+import org.example.springwebpos.diagnostics.SqlStatementInspector;
+import org.example.springwebpos.diagnostics.SqlStatisticsFactory;
+import org.example.springwebpos.retry.ContentionExceptionOverride;
+import org.example.springwebpos.shard.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
 import org.modelmapper.ModelMapper;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ControllerAdvice;
 
 import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 
 @Configuration
-@ComponentScan(basePackages = "org.example.springwebpos")
+@ComponentScan(basePackages = "org.example.springwebpos", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = {Controller.class, ControllerAdvice.class}),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebAppConfig.class)})
 @EnableJpaRepositories(basePackages = "org.example.springwebpos")
 @EnableTransactionManagement
+@EnableScheduling
+@PropertySource("classpath:application.properties")
 public class WebAppRootConfig {
+    @Value("${pos.jpa.database-platform}")
+    private String databasePlatform;
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("pos-scheduler-");
+        return scheduler;
+    }
+
     @Bean
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
 
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource() {
+        return pool("primary", environment.getProperty("pos.datasource.primary.driver"),
+                environment.getProperty("pos.datasource.primary.url"),
+                environment.getProperty("pos.datasource.primary.username"),
+                environment.getProperty("pos.datasource.primary.password"),
+                environment.getProperty("pos.datasource.primary.pool-size", Integer.class, 20));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor() {
+        String replicaUrl = environment.getProperty("pos.datasource.replica.url", "");
+        HikariDataSource replica = replicaUrl.isBlank() ? null : pool("replica",
+                environment.getProperty("pos.datasource.replica.driver"), replicaUrl,
+                environment.getProperty("pos.datasource.replica.username"),
+                environment.getProperty("pos.datasource.replica.password"),
+                environment.getProperty("pos.datasource.replica.pool-size", Integer.class, 20));
+        return new ReplicaLagMonitor(replica,
+                environment.getProperty("pos.datasource.replica.max-lag-seconds", Long.class, 5L));
+    }
+
+    /**
+     * Store shards. The primary database (with its replica) is the {@code primary} shard; each name in
+     * {@code pos.shards.names} adds a database of its own, migrated here before JPA starts.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource shardRoutingDataSource() {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(ShardRoutingDataSource.PRIMARY_SHARD,
+                new ReadWriteRoutingDataSource(primaryDataSource(), replicaLagMonitor()));
+        for (String shard : environment.getProperty("pos.shards.names", String[].class, new String[0])) {
+            String prefix = "pos.shards." + shard + ".";
+            HikariDataSource pool = pool("shard-" + shard,
+                    environment.getProperty(prefix + "driver", environment.getProperty("pos.datasource.primary.driver")),
+                    environment.getRequiredProperty(prefix + "url"),
+                    environment.getProperty(prefix + "username"),
+                    environment.getProperty(prefix + "password"),
+                    environment.getProperty(prefix + "pool-size", Integer.class, 10));
+            migrations(pool).migrate();
+            shards.put(shard, pool);
+        }
+
+        Map<String, String> storeToShard = new HashMap<>();
+        for (String entry : environment.getProperty("pos.shards.store-map", String[].class, new String[0])) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid store mapping: " + entry);
+            }
+            storeToShard.put(parts[0].trim(), parts[1].trim());
+        }
+        return new ShardRoutingDataSource(shards, storeToShard);
+    }
+
+    /**
+     * Routes by store first, then read-only transactions of the primary shard to its replica (when configured and
+     * healthy).
+     */
     @Bean
+    @Primary
     public DataSource dataSource() {
-        var dmds = new DriverManagerDataSource();
-        dmds.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dmds.setUrl("jdbc:mysql://localhost:3306/springwebpos?createDatabaseIfNotExist=true");
-        dmds.setUsername("root");
-        dmds.setPassword("Ijse@1234");
-        return dmds;
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource());
+    }
+
+    private static HikariDataSource pool(String name, String driver, String url, String username, String password,
+                                         int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName(driver);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setExceptionOverrideClassName(ContentionExceptionOverride.class.getName());
+        return new HikariDataSource(config);
+    }
+
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return migrations(primaryDataSource());
+    }
+
+    private static Flyway migrations(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                // Databases created by the old runtime DDL already match V1
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
     }
 
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
-        vendorAdapter.setGenerateDdl(true);
+        vendorAdapter.setGenerateDdl(false);
+        vendorAdapter.setDatabasePlatform(databasePlatform);
+
+        // Schema comes from Flyway, so skip reading JDBC metadata while Hibernate boots
+        Properties jpaProperties = new Properties();
+        jpaProperties.put("hibernate.boot.allow_jdbc_metadata_access", "false");
+        if (environment.getProperty("pos.diagnostics.sql.enabled", Boolean.class, true)) {
+            // Per-request and per-service-method SQL accounting, see SqlDiagnostics
+            jpaProperties.put("hibernate.session_factory.statement_inspector", new SqlStatementInspector());
+            jpaProperties.put("hibernate.session.events.auto", SqlSessionListener.class.getName());
+            jpaProperties.put("hibernate.generate_statistics", "true");
+            jpaProperties.put("hibernate.stats.factory", new SqlStatisticsFactory());
+        }
 
         LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
         factory.setJpaVendorAdapter(vendorAdapter);
         factory.setPackagesToScan("org.example.springwebpos.entity");
         factory.setDataSource(dataSource());
+        factory.setJpaProperties(jpaProperties);
         return factory;
     }
 
+    /**
+     * Opens a SQL accounting scope around every {@code @Service} method. Infrastructure role, so the auto-proxy
+     * creator behind {@code @EnableTransactionManagement} applies it; ordered outside the transaction so statements
+     * flushed at commit are counted.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor sqlAccountingAdvisor(ObjectProvider<SqlDiagnostics> sqlDiagnostics) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(Service.class, true), new SqlAccountingAdvice(sqlDiagnostics));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
 
@@ -55,4 +225,14 @@ public class WebAppRootConfig {
         txManager.setEntityManagerFactory(entityManagerFactory);
         return txManager;
     }
+
+    @Bean
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
 }
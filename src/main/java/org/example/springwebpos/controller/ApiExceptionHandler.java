@@ -0,0 +1,114 @@
+package org.example.springwebpos.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.customObj.ApiErrorResponse;
+import org.example.springwebpos.diagnostics.ErrorDiagnostics;
+import org.example.springwebpos.exception.CartNotFoundException;
+import org.example.springwebpos.exception.CustomerNotFoundException;
+import org.example.springwebpos.exception.DomainException;
+import org.example.springwebpos.exception.DuplicateBarcodeException;
+import org.example.springwebpos.exception.InsufficientCashException;
+import org.example.springwebpos.exception.InsufficientStockException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.exception.JournalUnavailableException;
+import org.example.springwebpos.exception.OrderNotFoundException;
+import org.example.springwebpos.exception.OrderOutcomeUnknownException;
+import org.example.springwebpos.exception.RetriesExhaustedException;
+import org.example.springwebpos.exception.SettlementNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns exceptions escaping the controllers into an {@link ApiErrorResponse} with a proper status, and counts them
+ * by type in {@link ErrorDiagnostics}. Domain failures are expected and stackless, so they are only logged at debug;
+ * anything unexpected, persistence failures included, is logged with its stack trace and answered with a generic
+ * 500.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class ApiExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    private final ErrorDiagnostics errorDiagnostics;
+
+    @ExceptionHandler({ItemNotFound.class, CustomerNotFoundException.class, OrderNotFoundException.class,
+            SettlementNotFoundException.class, CartNotFoundException.class})
+    public ResponseEntity<ApiErrorResponse> handleNotFound(DomainException e) {
+        return domainError(e, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler({InsufficientStockException.class, DuplicateBarcodeException.class})
+    public ResponseEntity<ApiErrorResponse> handleConflict(DomainException e) {
+        return domainError(e, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InsufficientCashException.class)
+    public ResponseEntity<ApiErrorResponse> handleInsufficientCash(InsufficientCashException e) {
+        return domainError(e, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ApiErrorResponse> handleDomain(DomainException e) {
+        return domainError(e, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Request values Spring could not bind. Requests that bind but are invalid throw
+     * {@link org.example.springwebpos.exception.InvalidRequestException}; a bare {@link IllegalArgumentException}
+     * is an internal precondition failing and answers 500 like any other unexpected error.
+     */
+    @ExceptionHandler({TypeMismatchException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<ApiErrorResponse> handleBadRequest(Exception e) {
+        logger.warn("Bad request: {}", e.getMessage());
+        return error(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleJournalUnavailable(JournalUnavailableException e) {
+        logger.error("Order journal unavailable: {}", e.getMessage());
+        return error(e, HttpStatus.SERVICE_UNAVAILABLE, "Service temporarily unavailable");
+    }
+
+    @ExceptionHandler(OrderOutcomeUnknownException.class)
+    public ResponseEntity<ApiErrorResponse> handleOrderOutcomeUnknown(OrderOutcomeUnknownException e) {
+        logger.warn("Order outcome unknown: {}", e.getMessage());
+        return error(e, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    @ExceptionHandler(RetriesExhaustedException.class)
+    public ResponseEntity<ApiErrorResponse> handleRetriesExhausted(RetriesExhaustedException e) {
+        logger.warn("Giving up on contended request: {}", e.getMessage());
+        return error(e, HttpStatus.SERVICE_UNAVAILABLE, "Items are busy, please retry");
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiErrorResponse> handleUnexpected(Exception e) {
+        // Spring MVC's own exceptions (unsupported method, missing part, ...) carry their status
+        if (e instanceof ErrorResponse springError) {
+            logger.debug("Request rejected by Spring MVC: {}", e.getMessage());
+            HttpStatus status = HttpStatus.valueOf(springError.getStatusCode().value());
+            errorDiagnostics.record(e.getClass().getSimpleName(), status.value());
+            return new ResponseEntity<>(new ApiErrorResponse("error", status.getReasonPhrase()),
+                    springError.getHeaders(), status);
+        }
+        logger.error("Unexpected error: {}", e.getMessage(), e);
+        return error(e, HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    private ResponseEntity<ApiErrorResponse> domainError(DomainException e, HttpStatus status) {
+        logger.debug("{}: {}", e.getClass().getSimpleName(), e.getMessage());
+        return error(e, status, e.getMessage());
+    }
+
+    private ResponseEntity<ApiErrorResponse> error(Exception e, HttpStatus status, String message) {
+        errorDiagnostics.record(e.getClass().getSimpleName(), status.value());
+        return new ResponseEntity<>(new ApiErrorResponse("error", message), status);
+    }
+}
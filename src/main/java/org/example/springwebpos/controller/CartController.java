@@ -0,0 +1,88 @@
+package org.example.springwebpos.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.CartCheckoutDTO;
+import org.example.springwebpos.dto.CartDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.service.CartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Carts for tills that price as they scan: create a cart, add and remove lines (each call returns the re-priced
+ * cart), then check out. Carts are held in memory on this node and dropped after {@code pos.cart.idle-timeout-ms}
+ * without activity.
+ */
+@RestController
+@RequestMapping("/api/v1/carts")
+@RequiredArgsConstructor
+public class CartController {
+    private final CartService cartService;
+    private static final Logger logger = LoggerFactory.getLogger(CartController.class);
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CartDTO> createCart(@RequestBody(required = false) CartDTO cartDTO) {
+        CartDTO request = cartDTO != null ? cartDTO : new CartDTO();
+        if (request.getDiscountPercent() < 0 || request.getDiscountPercent() > 100) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(cartService.createCart(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping(value = "/{cartId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CartDTO getCart(@PathVariable("cartId") String cartId) {
+        return cartService.getCart(cartId);
+    }
+
+    /**
+     * Scans an item into the cart; scanning an item already in the cart adds to its quantity.
+     */
+    @PostMapping(value = "/{cartId}/lines", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CartDTO> addLine(@PathVariable("cartId") String cartId,
+                                           @RequestBody OrderDetailDTO line) {
+        if (line.getItemCode() == null || line.getItemCode().isBlank() || line.getQuantity() <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(cartService.addLine(cartId, line), HttpStatus.OK);
+    }
+
+    /**
+     * Takes {@code quantity} units of the item out of the cart, or the whole line if no quantity is given.
+     */
+    @DeleteMapping(value = "/{cartId}/lines/{itemCode}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CartDTO> removeLine(@PathVariable("cartId") String cartId,
+                                              @PathVariable("itemCode") String itemCode,
+                                              @RequestParam(value = "quantity", required = false) Integer quantity) {
+        if (quantity != null && quantity <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(cartService.removeLine(cartId, itemCode, quantity), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/{cartId}/checkout", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderDTO> checkout(@PathVariable("cartId") String cartId,
+                                             @RequestBody CartCheckoutDTO checkoutDTO) {
+        OrderDTO placedOrder = cartService.checkout(cartId, checkoutDTO);
+        logger.info("Cart {} checked out: orderId={} subTotal={}", cartId, placedOrder.getOrderId(),
+                placedOrder.getSubTotal());
+        return new ResponseEntity<>(placedOrder, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<Void> abandonCart(@PathVariable("cartId") String cartId) {
+        cartService.abandonCart(cartId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -4,10 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.example.springwebpos.customObj.CustomerErrorResponse;
 import org.example.springwebpos.customObj.CustomerResponse;
 import org.example.springwebpos.dto.CustomerDTO;
-import org.example.springwebpos.exception.CustomerNotFoundException;
-import org.example.springwebpos.exception.DataPersistFailedException;
 import org.example.springwebpos.service.CustomerService;
-import org.example.springwebpos.util.AppUtil;
+import org.example.springwebpos.util.ProfilePicProcessor;
+import org.example.springwebpos.util.StagedImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +29,9 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private ProfilePicProcessor profilePicProcessor;
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<CustomerErrorResponse> saveCustomer(
             @RequestPart(value = "name", required = false) String name,
@@ -85,18 +87,17 @@ public class CustomerController {
                         "Profile picture is required"), HttpStatus.BAD_REQUEST);
             }
 
-            byte[] imageBytes = profilePic.getBytes();
-            String base64ProfilePic = AppUtil.toBase64ProfilePic(imageBytes);
+            try (StagedImage stagedProfilePic = profilePicProcessor.stage(profilePic)) {
+                // Build the customer object
+                CustomerDTO buildCustomerDTO = new CustomerDTO();
+                buildCustomerDTO.setName(name);
+                buildCustomerDTO.setAddress(address);
+                buildCustomerDTO.setMobile(mobile);
+                buildCustomerDTO.setProfilePic(stagedProfilePic.toBase64());
 
-            // Build the customer object
-            CustomerDTO buildCustomerDTO = new CustomerDTO();
-            buildCustomerDTO.setName(name);
-            buildCustomerDTO.setAddress(address);
-            buildCustomerDTO.setMobile(mobile);
-            buildCustomerDTO.setProfilePic(base64ProfilePic);
-
-            // Send to the service layer
-            customerService.saveCustomer(buildCustomerDTO);
+                // Send to the service layer
+                customerService.saveCustomer(buildCustomerDTO, stagedProfilePic);
+            }
             logger.info("Customer saved successfully: Name={}", name);
             return new ResponseEntity<>(new CustomerErrorResponse("success",
                     "Customer saved successfully"), HttpStatus.CREATED);
@@ -104,17 +105,13 @@ public class CustomerController {
             logger.error("Error processing profile picture: {}", e.getMessage(), e);
             return new ResponseEntity<>(new CustomerErrorResponse("error",
                     "Error processing profile picture"), HttpStatus.INTERNAL_SERVER_ERROR);
-        } catch (DataPersistFailedException e) {
-            logger.error("Failed to save customer: {}", e.getMessage());
-            return new ResponseEntity<>(new CustomerErrorResponse("error",
-                    "Failed to save customer"), HttpStatus.BAD_REQUEST);
-        } catch (Exception e) {
-            logger.error("Unexpected error while saving customer: {}", e.getMessage(), e);
-            return new ResponseEntity<>(new CustomerErrorResponse("error",
-                    "Unexpected error occurred"), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Sparse update: every part is optional and only the parts sent are validated and changed. A re-uploaded
+     * picture identical to the stored one is detected by its hash and not written again.
+     */
     @PatchMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<CustomerErrorResponse> updateCustomer(
             @PathVariable("id") String id,
@@ -124,14 +121,15 @@ public class CustomerController {
             @RequestPart(value = "updateProfilePic", required = false) MultipartFile updateProfilePic
     ) {
         logger.info("Request to update customer: ID={}", id);
+        boolean hasProfilePic = updateProfilePic != null && !updateProfilePic.isEmpty();
+        if (updateName == null && updateAddress == null && updateMobile == null && !hasProfilePic) {
+            logger.error("Nothing to update for customer: ID={}", id);
+            return new ResponseEntity<>(new CustomerErrorResponse("error",
+                    "At least one field to update is required"), HttpStatus.BAD_REQUEST);
+        }
 
         // Validate name
-        if (updateName == null) {
-            logger.error("Name is missing");
-            return new ResponseEntity<>(new CustomerErrorResponse("error", "Name is required"),
-                    HttpStatus.BAD_REQUEST);
-        }
-        if (!updateName.matches("^[a-zA-Z ]{3,20}$")) {
+        if (updateName != null && !updateName.matches("^[a-zA-Z ]{3,20}$")) {
             logger.error("Invalid name: Name must only contain letters and be between 3 and 20 characters long");
             return new ResponseEntity<>(new CustomerErrorResponse("error",
                     "Name must only contain letters and be between 3 and 20 characters long"),
@@ -139,24 +137,14 @@ public class CustomerController {
         }
 
         // Validate mobile
-        if (updateMobile == null) {
-            logger.error("Mobile number is missing");
-            return new ResponseEntity<>(new CustomerErrorResponse("error", "Mobile number is required"),
-                    HttpStatus.BAD_REQUEST);
-        }
-        if (!updateMobile.matches("^0\\d{9}$")) {
+        if (updateMobile != null && !updateMobile.matches("^0\\d{9}$")) {
             logger.error("Invalid mobile number: Mobile must be exactly 10 digits");
             return new ResponseEntity<>(new CustomerErrorResponse("error",
                     "Mobile must be exactly 10 digits"), HttpStatus.BAD_REQUEST);
         }
 
         // Validate address
-        if (updateAddress == null || updateAddress.isEmpty()) {
-            logger.error("Address is missing");
-            return new ResponseEntity<>(new CustomerErrorResponse("error", "Address is required"),
-                    HttpStatus.BAD_REQUEST);
-        }
-        if (!updateAddress.matches("^[a-zA-Z0-9, ]{1,100}$")) {
+        if (updateAddress != null && !updateAddress.matches("^[a-zA-Z0-9, ]{1,100}$")) {
             logger.error("Invalid address: Address can only contain letters, digits, commas, spaces, " +
                     "and must be max 100 characters");
             return new ResponseEntity<>(new CustomerErrorResponse("error",
@@ -164,70 +152,46 @@ public class CustomerController {
                     HttpStatus.BAD_REQUEST);
         }
 
-        try {
-            // Validate profile picture
-            if (updateProfilePic == null || updateProfilePic.isEmpty()) {
-                logger.error("Profile picture is missing");
-                return new ResponseEntity<>(new CustomerErrorResponse("error",
-                        "Profile picture is required"), HttpStatus.BAD_REQUEST);
-            }
-
-            byte[] imageBytes = updateProfilePic.getBytes();
-            String updateBase64ProfilePic = AppUtil.toBase64ProfilePic(imageBytes);
-
-            // Create the CustomerDTO object
-            var updateCustomer = new CustomerDTO();
-            updateCustomer.setId(id);
-            updateCustomer.setName(updateName);
-            updateCustomer.setAddress(updateAddress);
-            updateCustomer.setMobile(updateMobile);
-            updateCustomer.setProfilePic(updateBase64ProfilePic);
+        // Fields left null are kept as they are
+        var updateCustomer = new CustomerDTO();
+        updateCustomer.setId(id);
+        updateCustomer.setName(updateName);
+        updateCustomer.setAddress(updateAddress);
+        updateCustomer.setMobile(updateMobile);
 
+        try (StagedImage stagedProfilePic = hasProfilePic ? profilePicProcessor.stage(updateProfilePic) : null) {
             // Call the service to update the customer
-            customerService.updateCustomer(updateCustomer);
+            customerService.updateCustomer(updateCustomer, stagedProfilePic);
             logger.info("Customer updated successfully: ID={}", id);
             return new ResponseEntity<>(new CustomerErrorResponse("success",
                     "Customer updated successfully"), HttpStatus.NO_CONTENT);
-        } catch (CustomerNotFoundException e) {
-            logger.warn("Customer not found for update: ID={}", id);
-            return new ResponseEntity<>(new CustomerErrorResponse("error", "Customer not found"),
-                    HttpStatus.NOT_FOUND);
         } catch (IOException e) {
             logger.error("Error processing profile picture: {}", e.getMessage(), e);
             return new ResponseEntity<>(new CustomerErrorResponse("error",
                     "Error processing profile picture"), HttpStatus.INTERNAL_SERVER_ERROR);
-        } catch (Exception e) {
-            logger.error("Unexpected error while updating customer: ID={}, Error={}", id, e.getMessage());
-            return new ResponseEntity<>(new CustomerErrorResponse("error", "Unexpected error occurred"),
-                    HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(@PathVariable("id") String customerId) {
         logger.info("Request to delete customer: ID={}", customerId);
-        try {
-            customerService.deleteCustomer(customerId);
-            logger.info("Customer deleted successfully: ID={}", customerId);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } catch (CustomerNotFoundException e) {
-            logger.warn("Customer not found for deletion: ID={}", customerId);
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        } catch (Exception e) {
-            logger.error("Unexpected error while deleting customer: ID={}, Error={}", customerId, e.getMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        customerService.deleteCustomer(customerId);
+        logger.info("Customer deleted successfully: ID={}", customerId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public CustomerResponse getSelectedCustomer(@PathVariable("id") String id) {
+    public CustomerResponse getSelectedCustomer(@PathVariable("id") String id,
+                                                @RequestParam(value = "picture", defaultValue = "thumbnail")
+                                                String picture) {
         logger.info("Request to get customer: ID={}", id);
-        return customerService.getSelectedCustomer(id);
+        return customerService.getSelectedCustomer(id, "full".equalsIgnoreCase(picture));
     }
 
     @GetMapping(value = "allcustomers", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<CustomerDTO> getAllNotes() {
+    public List<CustomerDTO> getAllNotes(@RequestParam(value = "picture", defaultValue = "thumbnail")
+                                         String picture) {
         logger.info("Request to get all customers");
-        return customerService.getAllCustomers();
+        return customerService.getAllCustomers("full".equalsIgnoreCase(picture));
     }
 }
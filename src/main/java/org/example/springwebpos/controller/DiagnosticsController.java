@@ -0,0 +1,67 @@
+package org.example.springwebpos.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.diagnostics.ErrorDiagnostics;
+import org.example.springwebpos.diagnostics.SqlDiagnostics;
+import org.example.springwebpos.outbox.OutboxRelay;
+import org.example.springwebpos.retry.TransactionRetryExecutor;
+import org.example.springwebpos.dto.ErrorStatsDTO;
+import org.example.springwebpos.dto.OutboxStatsDTO;
+import org.example.springwebpos.dto.RetryStatsDTO;
+import org.example.springwebpos.dto.SqlDiagnosticsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+    private final SqlDiagnostics sqlDiagnostics;
+    private final ErrorDiagnostics errorDiagnostics;
+    private final OutboxRelay outboxRelay;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+
+    @GetMapping(value = "sql", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SqlDiagnosticsDTO getSqlDiagnostics() {
+        return sqlDiagnostics.snapshot();
+    }
+
+    @DeleteMapping("sql")
+    public ResponseEntity<Void> resetSqlDiagnostics() {
+        sqlDiagnostics.reset();
+        logger.info("SQL diagnostics reset");
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping(value = "errors", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ErrorStatsDTO> getErrorStats() {
+        return errorDiagnostics.snapshot();
+    }
+
+    @DeleteMapping("errors")
+    public ResponseEntity<Void> resetErrorStats() {
+        errorDiagnostics.reset();
+        logger.info("Error counters reset");
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping(value = "outbox", produces = MediaType.APPLICATION_JSON_VALUE)
+    public OutboxStatsDTO getOutboxStats() {
+        return outboxRelay.snapshot();
+    }
+
+    @GetMapping(value = "retries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public RetryStatsDTO getRetryStats() {
+        return transactionRetryExecutor.snapshot();
+    }
+}
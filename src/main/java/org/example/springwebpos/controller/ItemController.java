@@ -4,15 +4,22 @@ import lombok.RequiredArgsConstructor;
 import org.example.springwebpos.customObj.ItemErrorResponse;
 import org.example.springwebpos.customObj.ItemResponse;
 import org.example.springwebpos.dto.ItemDTO;
-import org.example.springwebpos.exception.DataPersistFailedException;
+import org.example.springwebpos.dto.ItemPatchDTO;
+import org.example.springwebpos.dto.LowStockAlertDTO;
+import org.example.springwebpos.event.ItemChangePublisher;
+import org.example.springwebpos.exception.InvalidRequestException;
 import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.scan.BarcodeIndex;
+import org.example.springwebpos.scan.ItemSnapshot;
 import org.example.springwebpos.service.ItemService;
+import org.example.springwebpos.shard.StoreContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,6 +28,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemChangePublisher itemChangePublisher;
+    private final BarcodeIndex barcodeIndex;
     private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -71,90 +80,78 @@ public class ItemController {
                     "Quantity must be a valid number without letters"), HttpStatus.BAD_REQUEST);
         }
 
-        try {
-            // Save the item
-            itemService.saveItem(item);
-            logger.info("Item created successfully: {}", item);
-            return new ResponseEntity<>(HttpStatus.CREATED);
-        } catch (DataPersistFailedException e) {
-            logger.error("Data persistence failed: {}", e.getMessage());
-            return new ResponseEntity<>(new ItemErrorResponse("error", "Data persistence failed"),
-                    HttpStatus.BAD_REQUEST);
-        } catch (Exception e) {
-            logger.error("Internal server error: {}", e.getMessage());
-            return new ResponseEntity<>(new ItemErrorResponse("error", "Internal server error"),
-                    HttpStatus.INTERNAL_SERVER_ERROR);
+        // Validate Reorder Level
+        if (item.getReorderLevel() < 0) {
+            logger.warn("Invalid reorder level: Reorder level cannot be negative");
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Reorder level cannot be negative"), HttpStatus.BAD_REQUEST);
+        }
+
+        // Validate Barcode
+        if (item.getBarcode() != null && !BarcodeIndex.isValid(item.getBarcode())) {
+            logger.warn("Invalid barcode: {}", item.getBarcode());
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Barcode must be a valid GTIN-8, UPC-A, EAN-13 or GTIN-14"), HttpStatus.BAD_REQUEST);
         }
+
+        // Save the item
+        itemService.saveItem(item);
+        logger.info("Item created successfully: {}", item);
+        return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    /**
+     * Sparse update: only the fields present in the body are validated and changed.
+     */
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PatchMapping(value = "/{code}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ItemErrorResponse> updateItem(
-            @PathVariable("code") String itemCode, @RequestBody ItemDTO item) {
-        try {
-            if (item == null || itemCode == null || itemCode.isEmpty()) {
-                logger.warn("Invalid update request: itemCode={}, item={}", itemCode, item);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Item and itemCode cannot be null or empty"), HttpStatus.BAD_REQUEST);
-            }
-            if (item.getDescription() == null || item.getDescription().isEmpty()) {
-                logger.warn("Item description is missing during update for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Description is required"), HttpStatus.BAD_REQUEST);
-            }
-            if (item.getDescription().length() > 50) {
-                logger.warn("Item description exceeds max length for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Description must be 50 characters or less"), HttpStatus.BAD_REQUEST);
-            }
-            if (item.getPrice() <= 0) {
-                logger.warn("Invalid price: Price must be a positive number for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Price must be a positive number"), HttpStatus.BAD_REQUEST);
-            }
-            if (Double.toString(item.getPrice()).matches(".*[a-zA-Z]+.*")) {
-                logger.warn("Invalid price format: Price should not contain letters for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Price must be a valid number without letters"), HttpStatus.BAD_REQUEST);
-            }
-            if (item.getQty() < 0) {
-                logger.warn("Invalid quantity: Quantity cannot be negative for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Quantity cannot be negative"), HttpStatus.BAD_REQUEST);
-            }
-            if (Integer.toString(item.getQty()).matches(".*[a-zA-Z]+.*")) {
-                logger.warn("Invalid quantity format: Quantity should not contain letters for itemCode: {}", itemCode);
-                return new ResponseEntity<>(new ItemErrorResponse("error",
-                        "Quantity must be a valid number without letters"), HttpStatus.BAD_REQUEST);
-            }
-            itemService.updateItem(itemCode, item);
-            logger.info("Item updated successfully: {}", itemCode);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-
-        } catch (ItemNotFound e) {
-            logger.error("Item not found: {}", itemCode);
+            @PathVariable("code") String itemCode, @RequestBody ItemPatchDTO item) {
+        if (item == null || item.isEmpty() || itemCode == null || itemCode.isEmpty()) {
+            logger.warn("Invalid update request: itemCode={}, item={}", itemCode, item);
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Item code and at least one field to update are required"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getDescription() != null && item.getDescription().isEmpty()) {
+            logger.warn("Item description is empty during update for itemCode: {}", itemCode);
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Description cannot be empty"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getDescription() != null && item.getDescription().length() > 50) {
+            logger.warn("Item description exceeds max length for itemCode: {}", itemCode);
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Description must be 50 characters or less"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getPrice() != null && item.getPrice() <= 0) {
+            logger.warn("Invalid price: Price must be a positive number for itemCode: {}", itemCode);
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Price must be a positive number"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getQty() != null && item.getQty() < 0) {
+            logger.warn("Invalid quantity: Quantity cannot be negative for itemCode: {}", itemCode);
+            return new ResponseEntity<>(new ItemErrorResponse("error",
+                    "Quantity cannot be negative"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getReorderLevel() != null && item.getReorderLevel() < 0) {
+            logger.warn("Invalid reorder level: Reorder level cannot be negative for itemCode: {}", itemCode);
             return new ResponseEntity<>(new ItemErrorResponse("error",
-                    "Item not found"), HttpStatus.NOT_FOUND);
-        } catch (Exception e) {
-            logger.error("Internal server error while updating item: {}", e.getMessage());
+                    "Reorder level cannot be negative"), HttpStatus.BAD_REQUEST);
+        }
+        if (item.getBarcode() != null && !BarcodeIndex.isValid(item.getBarcode())) {
+            logger.warn("Invalid barcode for itemCode: {}", itemCode);
             return new ResponseEntity<>(new ItemErrorResponse("error",
-                    "Internal server error"), HttpStatus.INTERNAL_SERVER_ERROR);
+                    "Barcode must be a valid GTIN-8, UPC-A, EAN-13 or GTIN-14"), HttpStatus.BAD_REQUEST);
         }
+        itemService.updateItem(itemCode, item);
+        logger.info("Item updated successfully: {}", itemCode);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @DeleteMapping(value = "/{code}")
     public ResponseEntity<Void> deleteItem(@PathVariable("code") String itemCode) {
-        try {
-            itemService.deleteItem(itemCode);
-            logger.info("Item with code {} deleted successfully", itemCode);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } catch (ItemNotFound e) {
-            logger.warn("Item with code {} not found", itemCode);
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        } catch (Exception e) {
-            logger.error("An unexpected error occurred while deleting item with code {}", itemCode, e);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        itemService.deleteItem(itemCode);
+        logger.info("Item with code {} deleted successfully", itemCode);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping(value = "/{code}", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -163,9 +160,39 @@ public class ItemController {
         return itemService.getSelectedItem(code);
     }
 
+    /**
+     * Looks a scanned barcode up in the in-memory {@link BarcodeIndex}. Deliberately bypasses the transactional
+     * item service: a scan touches neither the database nor a transaction. Stock is as of the last change this node
+     * has seen; checkout checks it again.
+     */
+    @GetMapping(value = "scan/{barcode}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ItemSnapshot scan(@PathVariable("barcode") String barcode) {
+        long parsed = BarcodeIndex.parse(barcode);
+        if (parsed < 0) {
+            throw new InvalidRequestException("Not a valid barcode: " + barcode);
+        }
+        ItemSnapshot item = barcodeIndex.find(StoreContext.current(), parsed);
+        if (item == null) {
+            throw new ItemNotFound("No item with barcode: " + barcode);
+        }
+        return item;
+    }
+
     @GetMapping(value = "allitems", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<ItemDTO> getAllItems() {
         logger.info("Fetching all items");
         return itemService.getAllItems();
     }
+
+    @GetMapping(value = "lowstock", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<LowStockAlertDTO> getLowStockItems() {
+        logger.info("Fetching low stock alerts");
+        return itemService.getLowStockItems();
+    }
+
+    @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamItemChanges() {
+        logger.info("Opening item change stream");
+        return itemChangePublisher.subscribe();
+    }
 }
@@ -1,34 +1,174 @@
 package org.example.springwebpos.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.BatchOrderResultDTO;
 import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.dto.StoreSalesDTO;
+import org.example.springwebpos.exception.InvalidRequestException;
+import org.example.springwebpos.export.ExportDataset;
+import org.example.springwebpos.export.ExportFormat;
+import org.example.springwebpos.export.OrderExporter;
+import org.example.springwebpos.journal.JournaledOrderService;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.receipt.ReceiptFormat;
+import org.example.springwebpos.retry.TransactionRetryExecutor;
+import org.example.springwebpos.service.BatchOrderService;
 import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.service.ReceiptService;
+import org.example.springwebpos.shard.StoreContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final BatchOrderService batchOrderService;
+    private final JournaledOrderService journaledOrderService;
+    private final OrderExporter orderExporter;
+    private final ReceiptService receiptService;
+    private final TransactionRetryExecutor transactionRetryExecutor;
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
     @PostMapping
     public ResponseEntity<OrderDTO> placeOrder(@RequestBody OrderDTO orderDTO) {
-        logger.info("Received order placement request: {}", orderDTO);
+        PricingEngine.checkManualDiscount(orderDTO.getDiscount());
+        // Tag every log line of this request with the customer instead of dumping the whole order
+        MDC.put("customerId", orderDTO.getCustomerId());
         try {
-            OrderDTO placedOrder = orderService.placeOrder(orderDTO);
-            logger.info("Order placed successfully with ID: {}", placedOrder.getOrderId());
+            logger.debug("Received order placement request: lines={}",
+                    orderDTO.getOrderDetails() == null ? 0 : orderDTO.getOrderDetails().size());
+            // Placing prices the order in place (the discount percentage becomes an amount), so every attempt gets a
+            // fresh copy of the request. The journal falls back to a synchronous placement, which can deadlock too
+            OrderDTO placedOrder = transactionRetryExecutor.execute("placeOrder", () -> journaledOrderService.isEnabled()
+                    ? journaledOrderService.placeOrder(copy(orderDTO))
+                    : orderService.placeOrder(copy(orderDTO)));
+            logger.info("Order placed successfully: orderId={} subTotal={}",
+                    placedOrder.getOrderId(), placedOrder.getSubTotal());
             return new ResponseEntity<>(placedOrder, HttpStatus.CREATED);
-        } catch (Exception e) {
-            logger.error("Failed to place order: {}", e.getMessage());
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            MDC.remove("customerId");
+        }
+    }
+
+    /**
+     * Places orders queued by an offline terminal. Each order gets its own result; the batch as a whole only
+     * fails (400) when it is empty or larger than {@code pos.orders.batch.max-orders}.
+     */
+    @PostMapping("batch")
+    public ResponseEntity<List<BatchOrderResultDTO>> placeOrders(@RequestBody List<OrderDTO> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        logger.info("Received batch of {} orders", orders.size());
+        return new ResponseEntity<>(batchOrderService.placeOrders(orders), HttpStatus.OK);
+    }
+
+    @PostMapping("quote")
+    public ResponseEntity<OrderDTO> quoteOrder(@RequestBody OrderDTO orderDTO) {
+        logger.info("Received order quote request for customer ID: {}", orderDTO.getCustomerId());
+        PricingEngine.checkManualDiscount(orderDTO.getDiscount());
+        return new ResponseEntity<>(orderService.priceOrder(orderDTO), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "stores/sales", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<StoreSalesDTO> getSalesByStore() {
+        logger.info("Fetching sales summary for all stores");
+        return orderService.getSalesByStore();
+    }
+
+    @GetMapping(value = "/{orderId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderDTO> getOrder(@PathVariable("orderId") String orderId) {
+        return new ResponseEntity<>(orderService.getOrder(orderId), HttpStatus.OK);
+    }
+
+    /**
+     * Receipt for (re)printing: raw ESC/POS bytes for the till printer ({@code format=escpos}) or a printable page
+     * ({@code format=html}). Receipts are rendered right after checkout, so this is normally a cache hit.
+     */
+    @GetMapping("/{orderId}/receipt")
+    public ResponseEntity<byte[]> getReceipt(@PathVariable("orderId") String orderId,
+                                             @RequestParam(value = "format", defaultValue = "escpos") String format) {
+        ReceiptFormat receiptFormat;
+        try {
+            receiptFormat = ReceiptFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown receipt format: " + format);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, receiptFormat.getContentType())
+                .body(receiptService.getReceipt(orderId, receiptFormat));
+    }
+
+    /**
+     * Streams the current store's orders ({@code dataset=orders}) or order lines ({@code dataset=details}) dated
+     * {@code from} to {@code to} as CSV or the compact columnar format. Rows go straight from the database cursor
+     * to the response on an MVC async thread.
+     */
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam("from") String from,
+            @RequestParam("to") String to,
+            @RequestParam(value = "dataset", defaultValue = "orders") String dataset,
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        ExportDataset exportDataset;
+        ExportFormat exportFormat;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+            exportDataset = ExportDataset.valueOf(dataset.toUpperCase());
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            logger.warn("Invalid export request: from={} to={} dataset={} format={}", from, to, dataset, format);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (toDate.isBefore(fromDate)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        String storeId = StoreContext.current();
+        String fileName = dataset.toLowerCase() + '-' + fromDate + '_' + toDate + exportFormat.getExtension();
+        logger.info("Exporting {} for store={} {}..{} as {}", exportDataset, storeId, fromDate, toDate, exportFormat);
+        StreamingResponseBody body = out -> StoreContext.callAs(storeId,
+                () -> orderExporter.export(storeId, fromDate, toDate, exportDataset, exportFormat, out));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private static OrderDTO copy(OrderDTO orderDTO) {
+        List<OrderDetailDTO> details = null;
+        if (orderDTO.getOrderDetails() != null) {
+            details = new ArrayList<>(orderDTO.getOrderDetails().size());
+            for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
+                details.add(new OrderDetailDTO(detail.getItemCode(), detail.getUnitPrice(), detail.getQuantity(),
+                        detail.getTotalPrice()));
+            }
         }
+        return new OrderDTO(orderDTO.getOrderId(), orderDTO.getStoreId(), orderDTO.getCustomerId(),
+                orderDTO.getOrderDate(), orderDTO.getTotal(), orderDTO.getDiscount(), orderDTO.getSubTotal(),
+                orderDTO.getCash(), orderDTO.getBalance(), details);
     }
 }
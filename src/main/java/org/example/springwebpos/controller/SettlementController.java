@@ -0,0 +1,44 @@
+package org.example.springwebpos.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.SettlementDTO;
+import org.example.springwebpos.service.SettlementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/settlements")
+@RequiredArgsConstructor
+public class SettlementController {
+    private final SettlementService settlementService;
+    private static final Logger logger = LoggerFactory.getLogger(SettlementController.class);
+
+    /**
+     * Starts settling {@code date} (yesterday by default) in the background; poll the returned location for the
+     * result.
+     */
+    @PostMapping
+    public ResponseEntity<Void> requestSettlement(@RequestParam(value = "date", required = false) String date) {
+        String businessDate = date == null || date.isEmpty() ? LocalDate.now().minusDays(1).toString() : date;
+        logger.info("Settlement requested for {}", businessDate);
+        settlementService.requestSettlement(businessDate);
+        return ResponseEntity.accepted().location(URI.create("/api/v1/settlements/" + businessDate)).build();
+    }
+
+    @GetMapping(value = "/{date}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SettlementDTO> getSettlement(@PathVariable("date") String date) {
+        return new ResponseEntity<>(settlementService.getSettlement(date), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.springwebpos.customObj;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ApiErrorResponse implements Serializable {
+    private String status;
+    private String message;
+}
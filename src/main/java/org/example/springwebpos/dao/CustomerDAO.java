@@ -2,9 +2,46 @@ package org.example.springwebpos.dao;
 
 import org.example.springwebpos.entity.CustomerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CustomerDAO extends JpaRepository<CustomerEntity, String> {
     CustomerEntity getCustomerEntityById(String customerId);
+
+    List<CustomerEntity> findAllByStoreId(String storeId);
+
+    Optional<CustomerEntity> findByIdAndStoreId(String id, String storeId);
+
+    boolean existsByIdAndStoreId(String id, String storeId);
+
+    List<CustomerEntity> findAllByIdInAndStoreId(Collection<String> ids, String storeId);
+
+    /**
+     * Id, name, address, mobile and picture of the store's customers. The picture is the thumbnail, or the full
+     * picture for customers whose thumbnail isn't ready, so the LONGTEXT column is only read for those.
+     */
+    @Query("select c.id, c.name, c.address, c.mobile, coalesce(c.profilePicThumb, c.profilePic) "
+            + "from CustomerEntity c where c.storeId = :storeId")
+    List<Object[]> findRowsByStoreId(@Param("storeId") String storeId);
+
+    /**
+     * Like {@link #findRowsByStoreId}, with the full pictures.
+     */
+    @Query("select c.id, c.name, c.address, c.mobile, c.profilePic from CustomerEntity c where c.storeId = :storeId")
+    List<Object[]> findRowsWithFullPictureByStoreId(@Param("storeId") String storeId);
+
+    /**
+     * Stores the thumbnail only if the picture it was rendered from is still the customer's current one.
+     */
+    @Modifying
+    @Query("update CustomerEntity c set c.profilePicThumb = :thumb where c.id = :id and c.profilePicHash = :hash")
+    int updateProfilePicThumb(@Param("id") String customerId, @Param("hash") String profilePicHash,
+                              @Param("thumb") String thumb);
 }
@@ -1,8 +1,58 @@
 package org.example.springwebpos.dao;
 
+import jakarta.persistence.LockModeType;
 import org.example.springwebpos.entity.ItemEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemDAO extends JpaRepository<ItemEntity, String> {
     ItemEntity getItemEntityByCode(String code);
+
+    List<ItemEntity> findAllByStoreIdAndRetiredFalse(String storeId);
+
+    Optional<ItemEntity> findByCodeAndStoreIdAndRetiredFalse(String code, String storeId);
+
+    // Retired items included: used to record sales that were already acknowledged
+    List<ItemEntity> findAllByStoreIdAndCodeIn(String storeId, Collection<String> codes);
+
+    @Query("select i from ItemEntity i where i.storeId = :storeId and i.code in :codes and i.retired = false")
+    List<ItemEntity> findAllActiveByCodeIn(@Param("storeId") String storeId, @Param("codes") Collection<String> codes);
+
+    boolean existsByStoreIdAndBarcode(String storeId, Long barcode);
+
+    @Query("select i from ItemEntity i where i.retired = false and i.barcode is not null")
+    List<ItemEntity> findAllWithBarcode();
+
+    @Query("select i from ItemEntity i where i.retired = false and i.reorderLevel > 0 and i.qty <= i.reorderLevel")
+    List<ItemEntity> findAllAtOrBelowReorderLevel();
+
+    // Locks in code order, so two batches touching the same items cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from ItemEntity i where i.storeId = :storeId and i.code in :codes and i.retired = false "
+            + "order by i.code")
+    List<ItemEntity> findAllByCodeInForUpdate(@Param("storeId") String storeId,
+                                              @Param("codes") Collection<String> codes);
+
+    // Retired items included, locked in code order: records sales that were already acknowledged
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from ItemEntity i where i.storeId = :storeId and i.code in :codes order by i.code")
+    List<ItemEntity> findAllIncludingRetiredByCodeInForUpdate(@Param("storeId") String storeId,
+                                                              @Param("codes") Collection<String> codes);
+
+    /**
+     * Retires the item with one UPDATE; its order details are neither loaded nor touched. The barcode is released.
+     *
+     * @return 1 if the item was retired, 0 if the store has no such item or it was already retired
+     */
+    @Modifying
+    @Query("update ItemEntity i set i.retired = true, i.barcode = null "
+            + "where i.code = :code and i.storeId = :storeId and i.retired = false")
+    int retire(@Param("storeId") String storeId, @Param("code") String code);
 }
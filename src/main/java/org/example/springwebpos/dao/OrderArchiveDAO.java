@@ -0,0 +1,15 @@
+package org.example.springwebpos.dao;
+
+import org.example.springwebpos.entity.OrderArchiveEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderArchiveDAO extends JpaRepository<OrderArchiveEntity, String> {
+    Optional<OrderArchiveEntity> findByOrderIdAndStoreId(String orderId, String storeId);
+
+    @Query("select o.storeId, count(o), sum(o.subTotal) from OrderArchiveEntity o group by o.storeId")
+    List<Object[]> summarizeSalesByStore();
+}
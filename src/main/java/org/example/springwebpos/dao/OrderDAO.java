@@ -2,6 +2,26 @@ package org.example.springwebpos.dao;
 
 import org.example.springwebpos.entity.OrderEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderDAO extends JpaRepository<OrderEntity, String> {
+    Optional<OrderEntity> findByOrderIdAndStoreId(String orderId, String storeId);
+
+    @Query("select o.storeId, count(o), sum(o.subTotal) from OrderEntity o group by o.storeId")
+    List<Object[]> summarizeSalesByStore();
+
+    @Query("select distinct o.storeId from OrderEntity o where o.orderDate like :day")
+    List<String> findStoreIdsByOrderDateLike(@Param("day") String day);
+
+    @Query("select o.orderId from OrderEntity o where o.orderId in :orderIds")
+    List<String> findExistingIds(@Param("orderIds") Collection<String> orderIds);
+
+    @Query("select distinct o from OrderEntity o left join fetch o.orderDetails "
+            + "where o.customer.storeId = :storeId")
+    List<OrderEntity> findAllWithDetailsByCustomerStoreId(@Param("storeId") String storeId);
 }
@@ -0,0 +1,10 @@
+package org.example.springwebpos.dao;
+
+import org.example.springwebpos.entity.SettlementEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface SettlementDAO extends JpaRepository<SettlementEntity, String> {
+    Optional<SettlementEntity> findByStoreIdAndBusinessDate(String storeId, String businessDate);
+}
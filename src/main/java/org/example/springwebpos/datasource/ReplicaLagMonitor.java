@@ -0,0 +1,91 @@
+package org.example.springwebpos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically checks the replica and takes it out of read routing while it is unreachable or lagging.
+ * On MySQL the lag comes from {@code SHOW REPLICA STATUS}; other databases (e.g. embedded stand-ins) only get a
+ * liveness check.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final HikariDataSource replica;
+    private final long maxLagSeconds;
+    private volatile boolean replicaUsable;
+    private volatile long lastLagSeconds = -1;
+
+    public ReplicaLagMonitor(HikariDataSource replica, long maxLagSeconds) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.replicaUsable = replica != null;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${pos.datasource.replica.lag-check-interval-ms:2000}")
+    public void check() {
+        if (replica == null) {
+            return;
+        }
+        boolean usable;
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(2);
+            if (connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")) {
+                lastLagSeconds = readMySqlLag(statement);
+                usable = lastLagSeconds >= 0 && lastLagSeconds <= maxLagSeconds;
+            } else {
+                statement.execute("SELECT 1");
+                lastLagSeconds = 0;
+                usable = true;
+            }
+        } catch (SQLException e) {
+            logger.debug("Replica check failed: {}", e.getMessage());
+            lastLagSeconds = -1;
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            logger.warn(usable ? "Replica back in read routing (lag {}s)"
+                    : "Replica taken out of read routing (lag {}s, -1 = unknown)", lastLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+
+    /**
+     * @return seconds behind the source, or -1 when replication is stopped or the server is not a replica
+     */
+    private long readMySqlLag(Statement statement) throws SQLException {
+        try (ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return -1;
+            }
+            long lag = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? -1 : lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
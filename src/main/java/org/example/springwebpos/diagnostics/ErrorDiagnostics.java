@@ -0,0 +1,76 @@
+package org.example.springwebpos.diagnostics;
+
+import org.example.springwebpos.dto.ErrorStatsDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts API errors by exception type: a running total plus the number seen in the last minute, kept in a ring of
+ * one-second buckets so recording stays a couple of atomic adds.
+ */
+@Component
+public class ErrorDiagnostics {
+    private static final int WINDOW_SECONDS = 60;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void record(String type, int status) {
+        counters.computeIfAbsent(type, key -> new Counter(status)).increment(System.currentTimeMillis());
+    }
+
+    public List<ErrorStatsDTO> snapshot() {
+        long now = System.currentTimeMillis();
+        List<ErrorStatsDTO> stats = new ArrayList<>();
+        counters.forEach((type, counter) -> stats.add(counter.toDTO(type, now)));
+        stats.sort(Comparator.comparingLong(ErrorStatsDTO::getLastMinute)
+                .thenComparingLong(ErrorStatsDTO::getCount).reversed());
+        return stats;
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+
+    private static final class Counter {
+        private final int status;
+        private final LongAdder total = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_SECONDS);
+        private final AtomicLongArray bucketSeconds = new AtomicLongArray(WINDOW_SECONDS);
+        private volatile long lastSeen;
+
+        Counter(int status) {
+            this.status = status;
+        }
+
+        void increment(long nowMillis) {
+            total.increment();
+            lastSeen = nowMillis;
+            long second = nowMillis / 1000;
+            int slot = (int) (second % WINDOW_SECONDS);
+            long slotSecond = bucketSeconds.get(slot);
+            // First hit in a new second claims the slot and clears what it counted a minute ago
+            if (slotSecond != second && bucketSeconds.compareAndSet(slot, slotSecond, second)) {
+                buckets.set(slot, 0);
+            }
+            buckets.incrementAndGet(slot);
+        }
+
+        ErrorStatsDTO toDTO(String type, long nowMillis) {
+            long second = nowMillis / 1000;
+            long lastMinute = 0;
+            for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+                if (second - bucketSeconds.get(slot) < WINDOW_SECONDS) {
+                    lastMinute += buckets.get(slot);
+                }
+            }
+            return new ErrorStatsDTO(type, status, total.sum(), lastMinute, lastSeen);
+        }
+    }
+}
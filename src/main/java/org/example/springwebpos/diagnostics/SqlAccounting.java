@@ -0,0 +1,73 @@
+package org.example.springwebpos.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * Thread-bound SQL counters fed by the Hibernate hooks in this package. Nothing is recorded on threads without an
+ * open {@link SqlScope}, so background work costs one thread-local lookup per statement.
+ */
+public final class SqlAccounting {
+    private static final ThreadLocal<Deque<SqlScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlAccounting() {
+    }
+
+    public static SqlScope open(String name) {
+        SqlScope scope = new SqlScope(name);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void close(SqlScope scope) {
+        Deque<SqlScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return !SCOPES.get().isEmpty();
+    }
+
+    static void statement(String sql) {
+        Deque<SqlScope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (SqlScope scope : scopes) {
+            scope.statement(shape);
+        }
+    }
+
+    static void rows(long count) {
+        for (SqlScope scope : SCOPES.get()) {
+            scope.rows(count);
+        }
+    }
+
+    static void jdbcTime(long nanos) {
+        for (SqlScope scope : SCOPES.get()) {
+            scope.jdbcTime(nanos);
+        }
+    }
+
+    /**
+     * Reduces a statement to its shape: literals become {@code ?} and IN lists of any length look the same, so
+     * per-row lookups with different keys group together.
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.springwebpos.diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Opens a {@link SqlScope} around each service method, named {@code ItemServiceIMPL.getAllItems} and so on.
+ */
+public class SqlAccountingAdvice implements MethodInterceptor {
+    // Looked up lazily: the advice is created with the auto-proxy infrastructure, before regular beans
+    private final ObjectProvider<SqlDiagnostics> sqlDiagnostics;
+
+    public SqlAccountingAdvice(ObjectProvider<SqlDiagnostics> sqlDiagnostics) {
+        this.sqlDiagnostics = sqlDiagnostics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        SqlDiagnostics diagnostics = sqlDiagnostics.getObject();
+        if (!diagnostics.isEnabled()) {
+            return invocation.proceed();
+        }
+        Class<?> target = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        SqlScope scope = diagnostics.open(target.getSimpleName() + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            diagnostics.closeServiceMethod(scope);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.springwebpos.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Opens a {@link SqlScope} per request, named after the HTTP method and the matched route (e.g.
+ * {@code GET /api/v1/customers/{id}}) so requests for different ids add up under one name.
+ */
+public class SqlAccountingInterceptor implements AsyncHandlerInterceptor {
+    private static final String SCOPE_ATTRIBUTE = SqlAccountingInterceptor.class.getName() + ".scope";
+
+    private final SqlDiagnostics sqlDiagnostics;
+
+    public SqlAccountingInterceptor(SqlDiagnostics sqlDiagnostics) {
+        this.sqlDiagnostics = sqlDiagnostics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (sqlDiagnostics.isEnabled()) {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String name = request.getMethod() + " " + (route != null ? route : request.getRequestURI());
+            request.setAttribute(SCOPE_ATTRIBUTE, sqlDiagnostics.open(name));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        closeScope(request);
+    }
+
+    // Streaming responses continue on another thread; count what ran on the request thread
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        closeScope(request);
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        Object scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            sqlDiagnostics.closeRequest((SqlScope) scope);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.springwebpos.diagnostics;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Fails with an {@link AssertionError} when the checked code issues more SQL than allowed, for tests and the
+ * load harness:
+ * <pre>
+ * OrderDTO placed = SqlBudget.of("checkout").maxStatements(12).maxRepeats(2)
+ *         .check(() -&gt; orderService.placeOrder(order));
+ * </pre>
+ * Counting relies on the Hibernate hooks installed when {@code pos.diagnostics.sql.enabled} is true, and only
+ * covers SQL run on the calling thread.
+ */
+public final class SqlBudget {
+    private final String name;
+    private int maxStatements = Integer.MAX_VALUE;
+    private int maxRepeats = Integer.MAX_VALUE;
+    private long maxRows = Long.MAX_VALUE;
+    private SqlScope scope;
+
+    private SqlBudget(String name) {
+        this.name = name;
+    }
+
+    public static SqlBudget of(String name) {
+        return new SqlBudget(name);
+    }
+
+    public SqlBudget maxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+        return this;
+    }
+
+    /**
+     * Upper bound on how often any single statement shape may run; 1 forbids repeated lookups entirely.
+     */
+    public SqlBudget maxRepeats(int maxRepeats) {
+        this.maxRepeats = maxRepeats;
+        return this;
+    }
+
+    public SqlBudget maxRows(long maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * Runs {@code work}, then checks the SQL it issued against the budget.
+     *
+     * @return what {@code work} returned
+     * @throws AssertionError if the budget was exceeded
+     */
+    public <T> T check(Supplier<T> work) {
+        T result;
+        try (SqlScope checked = SqlAccounting.open("budget " + name)) {
+            scope = checked;
+            result = work.get();
+        }
+        verify();
+        return result;
+    }
+
+    public void check(Runnable work) {
+        check(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * The statements counted by the last {@link #check}, for assertions the budget cannot express.
+     */
+    public SqlScope getScope() {
+        return scope;
+    }
+
+    private void verify() {
+        StringBuilder failures = new StringBuilder();
+        if (scope.getStatements() > maxStatements) {
+            failures.append(String.format("%n  %d statements, budget %d", scope.getStatements(), maxStatements));
+        }
+        if (scope.getRows() > maxRows) {
+            failures.append(String.format("%n  %d rows, budget %d", scope.getRows(), maxRows));
+        }
+        if (scope.getMaxRepeats() > maxRepeats) {
+            for (Map.Entry<String, Integer> shape : scope.getRepeatedShapes(maxRepeats + 1).entrySet()) {
+                failures.append(String.format("%n  %dx (budget %d) %s", shape.getValue(), maxRepeats,
+                        shape.getKey()));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("SQL budget exceeded in " + scope.getName() + ":" + failures);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.springwebpos.diagnostics;
+
+import org.example.springwebpos.dto.SqlDiagnosticsDTO;
+import org.example.springwebpos.dto.SqlStatsDTO;
+import org.example.springwebpos.dto.SqlSuspectDTO;
+import org.example.springwebpos.util.LogSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects closed {@link SqlScope}s into per-endpoint and per-service-method totals, and keeps the most recent N+1
+ * suspects: statement shapes that ran {@code pos.diagnostics.sql.repeat-threshold} times or more in one request.
+ */
+@Component
+public class SqlDiagnostics {
+    private static final Logger logger = LoggerFactory.getLogger(SqlDiagnostics.class);
+    private static final int MAX_SUSPECTS = 100;
+    // The same N+1 fires on every request of an endpoint; the endpoint lists them all
+    private static final LogSampler SUSPECT_LOG_SAMPLER = LogSampler.perSecond(1);
+
+    @Value("${pos.diagnostics.sql.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pos.diagnostics.sql.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    private final Map<String, Totals> requests = new ConcurrentHashMap<>();
+    private final Map<String, Totals> serviceMethods = new ConcurrentHashMap<>();
+    private final Deque<SqlSuspectDTO> suspects = new ArrayDeque<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SqlScope open(String name) {
+        return SqlAccounting.open(name);
+    }
+
+    public void closeRequest(SqlScope scope) {
+        close(scope, requests);
+    }
+
+    public void closeServiceMethod(SqlScope scope) {
+        close(scope, serviceMethods);
+    }
+
+    private void close(SqlScope scope, Map<String, Totals> totals) {
+        scope.close();
+        Map<String, Integer> repeated = scope.getRepeatedShapes(repeatThreshold);
+        totals.computeIfAbsent(scope.getName(), key -> new Totals()).add(scope, !repeated.isEmpty());
+        // Only the outermost scope reports suspects, so a request and the service method under it don't both log
+        if (repeated.isEmpty() || SqlAccounting.isActive()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        repeated.forEach((shape, count) -> {
+            if (SUSPECT_LOG_SAMPLER.tryAcquire()) {
+                logger.warn("Possible N+1 in {}: {} executions of {} (suppressed since last: {})",
+                        scope.getName(), count, shape, SUSPECT_LOG_SAMPLER.drainSuppressed());
+            }
+            synchronized (suspects) {
+                if (suspects.size() == MAX_SUSPECTS) {
+                    suspects.removeLast();
+                }
+                suspects.addFirst(new SqlSuspectDTO(scope.getName(), shape, count, now));
+            }
+        });
+    }
+
+    public SqlDiagnosticsDTO snapshot() {
+        List<SqlSuspectDTO> recentSuspects;
+        synchronized (suspects) {
+            recentSuspects = new ArrayList<>(suspects);
+        }
+        return new SqlDiagnosticsDTO(enabled, repeatThreshold, toDTOs(requests), toDTOs(serviceMethods),
+                recentSuspects);
+    }
+
+    public void reset() {
+        requests.clear();
+        serviceMethods.clear();
+        synchronized (suspects) {
+            suspects.clear();
+        }
+    }
+
+    private static List<SqlStatsDTO> toDTOs(Map<String, Totals> totals) {
+        List<SqlStatsDTO> stats = new ArrayList<>();
+        totals.forEach((name, total) -> stats.add(total.toDTO(name)));
+        stats.sort(Comparator.comparingLong(SqlStatsDTO::getStatements).reversed());
+        return stats;
+    }
+
+    private static final class Totals {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder jdbcNanos = new LongAdder();
+        private final LongAdder repeatedShapeCalls = new LongAdder();
+
+        void add(SqlScope scope, boolean repeatedShapes) {
+            calls.increment();
+            statements.add(scope.getStatements());
+            maxStatements.accumulate(scope.getStatements());
+            rows.add(scope.getRows());
+            jdbcNanos.add(scope.getJdbcNanos());
+            if (repeatedShapes) {
+                repeatedShapeCalls.increment();
+            }
+        }
+
+        SqlStatsDTO toDTO(String name) {
+            long callCount = calls.sum();
+            long statementCount = statements.sum();
+            return new SqlStatsDTO(name, callCount, statementCount,
+                    callCount == 0 ? 0 : (double) statementCount / callCount, maxStatements.get(), rows.sum(),
+                    jdbcNanos.sum() / 1_000_000.0, repeatedShapeCalls.sum());
+        }
+    }
+}
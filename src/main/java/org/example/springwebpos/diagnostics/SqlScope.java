@@ -0,0 +1,80 @@
+package org.example.springwebpos.diagnostics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL issued on one thread between {@link SqlAccounting#open} and {@link #close()}: statement count, entity rows
+ * hydrated, JDBC execution time and how often each statement shape ran. Scopes nest (request, then service
+ * methods); a statement counts towards every scope open at the time.
+ */
+public class SqlScope implements AutoCloseable {
+    private final String name;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private boolean closed;
+
+    SqlScope(String name) {
+        this.name = name;
+    }
+
+    void statement(String shape) {
+        statements++;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    void rows(long count) {
+        rows += count;
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * Statement shapes that ran at least {@code threshold} times in this scope, the usual sign of an N+1.
+     */
+    public Map<String, Integer> getRepeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    public int getMaxRepeats() {
+        int max = 0;
+        for (int count : shapes.values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            SqlAccounting.close(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.springwebpos.diagnostics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times JDBC execution. Hibernate creates one instance per session, and a session is used by one thread at a time.
+ */
+public class SqlSessionListener extends BaseSessionEventListener {
+    private long executeStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlAccounting.jdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlAccounting.jdbcTime(System.nanoTime() - executeStart);
+    }
+}
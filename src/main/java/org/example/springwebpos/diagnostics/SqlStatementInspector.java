@@ -0,0 +1,14 @@
+package org.example.springwebpos.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares; the SQL itself is passed through untouched.
+ */
+public class SqlStatementInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        SqlAccounting.statement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.springwebpos.diagnostics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hooks Hibernate's statistics to count rows per scope: every entity hydrated from a result set, whether it came
+ * from a query, a lookup by id or a lazy association, counts as one row.
+ */
+public class SqlStatisticsFactory implements StatisticsFactory {
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new StatisticsImpl(sessionFactory) {
+            @Override
+            public void loadEntity(String entityName) {
+                super.loadEntity(entityName);
+                SqlAccounting.rows(1);
+            }
+        };
+    }
+}
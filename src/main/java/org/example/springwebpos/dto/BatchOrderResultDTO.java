@@ -0,0 +1,19 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchOrderResultDTO implements SuperDTO {
+    public enum Status {CREATED, DUPLICATE, FAILED}
+
+    // Position of the order in the submitted batch
+    private int index;
+    private String orderId;
+    private Status status;
+    private String message;
+    private OrderDTO order;
+}
@@ -0,0 +1,13 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CartCheckoutDTO implements SuperDTO {
+    private String customerId;
+    private double cash;
+}
@@ -0,0 +1,21 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CartDTO implements SuperDTO {
+    private String cartId;
+    private String storeId;
+    private String customerId;
+    private double discountPercent;
+    private double total;
+    private double discount;
+    private double subTotal;
+    private List<CartLineDTO> lines;
+}
@@ -0,0 +1,16 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CartLineDTO implements SuperDTO {
+    private String itemCode;
+    private String description;
+    private double unitPrice;
+    private int quantity;
+    private double totalPrice;
+}
@@ -0,0 +1,16 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ErrorStatsDTO implements SuperDTO {
+    private String type;
+    private int status;
+    private long count;
+    private long lastMinute;
+    private long lastSeen;
+}
@@ -13,4 +13,6 @@ public class ItemDTO implements SuperDTO, ItemResponse {
     private String description;
     private double price;
     private int qty;
+    private int reorderLevel;
+    private Long barcode;
 }
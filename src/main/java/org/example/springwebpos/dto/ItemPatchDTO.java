@@ -0,0 +1,23 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of {@code PATCH /api/v1/items/{code}}. Fields left out (null) keep their current value.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ItemPatchDTO implements SuperDTO {
+    private String description;
+    private Double price;
+    private Integer qty;
+    private Integer reorderLevel;
+    private Long barcode;
+
+    public boolean isEmpty() {
+        return description == null && price == null && qty == null && reorderLevel == null && barcode == null;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class LowStockAlertDTO implements SuperDTO {
+    private String itemCode;
+    private String storeId;
+    private String description;
+    private int qty;
+    private int reorderLevel;
+    private String raisedAt;
+}
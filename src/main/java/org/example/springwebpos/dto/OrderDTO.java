@@ -12,6 +12,7 @@ import java.util.List;
 @Data
 public class OrderDTO implements SuperDTO {
     private String orderId;
+    private String storeId;
     private String customerId;
     private String orderDate;
     private double total;
@@ -0,0 +1,20 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class OutboxStatsDTO implements SuperDTO {
+    private String sink;
+    private long pending;
+    private long oldestPendingAgeMs;
+    private long delivered;
+    private long failedBatches;
+    private long lastDeliveryLagMs;
+    private long maxDeliveryLagMs;
+    private long lastDeliveredAt;
+    private String lastError;
+}
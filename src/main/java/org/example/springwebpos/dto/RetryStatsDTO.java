@@ -0,0 +1,17 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RetryStatsDTO implements SuperDTO {
+    private long calls;
+    private long deadlocks;
+    private long lockTimeouts;
+    private long retries;
+    private long recovered;
+    private long gaveUp;
+}
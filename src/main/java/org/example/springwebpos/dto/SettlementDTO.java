@@ -0,0 +1,24 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SettlementDTO implements SuperDTO {
+    private String settlementId;
+    private String storeId;
+    private String businessDate;
+    private long orderCount;
+    private double grossSales;
+    private double discounts;
+    private double netSales;
+    private double cashCollected;
+    private double changeGiven;
+    private String settledAt;
+    private List<SettlementItemDTO> items;
+}
@@ -0,0 +1,14 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SettlementItemDTO implements SuperDTO {
+    private String itemCode;
+    private long units;
+    private double sales;
+}
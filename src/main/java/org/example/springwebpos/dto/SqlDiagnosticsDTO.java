@@ -0,0 +1,18 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SqlDiagnosticsDTO implements SuperDTO {
+    private boolean enabled;
+    private int repeatThreshold;
+    private List<SqlStatsDTO> requests;
+    private List<SqlStatsDTO> serviceMethods;
+    private List<SqlSuspectDTO> suspects;
+}
@@ -0,0 +1,19 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SqlStatsDTO implements SuperDTO {
+    private String name;
+    private long calls;
+    private long statements;
+    private double avgStatements;
+    private long maxStatements;
+    private long rows;
+    private double jdbcMillis;
+    private long repeatedShapeCalls;
+}
@@ -0,0 +1,15 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SqlSuspectDTO implements SuperDTO {
+    private String scope;
+    private String shape;
+    private int executions;
+    private long timestamp;
+}
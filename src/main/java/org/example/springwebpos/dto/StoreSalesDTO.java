@@ -0,0 +1,15 @@
+package org.example.springwebpos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class StoreSalesDTO implements SuperDTO {
+    private String storeId;
+    private String shard;
+    private long orderCount;
+    private double revenue;
+}
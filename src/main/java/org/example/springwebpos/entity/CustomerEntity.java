@@ -2,6 +2,7 @@ package org.example.springwebpos.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,15 +14,22 @@ import java.util.List;
 @ToString(exclude = "orders")
 @Entity
 @Table(name = "customers")
+@DynamicUpdate
 public class CustomerEntity implements SuperEntity {
     @Id
     private String id;
+    @Column(nullable = false, length = 32)
+    private String storeId;
     private String name;
     private String address;
     @Column(unique = true)
     private String mobile;
     @Column(columnDefinition = "LONGTEXT")
     private String profilePic;
+    @Column(columnDefinition = "CHAR(64)")
+    private String profilePicHash;
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String profilePicThumb;
     @OneToMany(mappedBy = "customer")
     private List<OrderEntity> orders = new ArrayList<>();
 }
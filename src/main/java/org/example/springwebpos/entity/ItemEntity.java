@@ -2,6 +2,7 @@ package org.example.springwebpos.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,12 +14,19 @@ import java.util.List;
 @ToString(exclude = "orderDetails")
 @Entity
 @Table(name = "items")
+@DynamicUpdate
 public class ItemEntity implements SuperEntity {
     @Id
     private String code;
+    @Column(nullable = false, length = 32)
+    private String storeId;
     private String description;
     private double price;
     private int qty;
-    @OneToMany(mappedBy = "item", cascade = CascadeType.ALL, orphanRemoval = true)
+    private int reorderLevel;
+    private Long barcode;
+    // Retired items are kept for order history but are no longer listed or sold
+    private boolean retired;
+    @OneToMany(mappedBy = "item")
     private List<OrderDetailEntity> orderDetails = new ArrayList<>();
 }
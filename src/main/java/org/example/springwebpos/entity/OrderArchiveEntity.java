@@ -0,0 +1,35 @@
+package org.example.springwebpos.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An order moved out of the hot tables by the archiver. Written with plain SQL only, so it is read-only here.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "orderDetails")
+@Immutable
+@Table(name = "orders_archive")
+@Entity
+public class OrderArchiveEntity implements SuperEntity {
+    @Id
+    private String orderId;
+    private String storeId;
+    private String customerId;
+    private String orderDate;
+    private double total;
+    private double discount;
+    private double subTotal;
+    private double cash;
+    private double balance;
+    private String archivedAt;
+    @OneToMany(mappedBy = "order")
+    private List<OrderDetailArchiveEntity> orderDetails = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package org.example.springwebpos.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "order")
+@Immutable
+@Entity
+@Table(name = "order_details_archive")
+public class OrderDetailArchiveEntity implements SuperEntity {
+    @Id
+    private Long id;
+    @ManyToOne
+    @JoinColumn(name = "order_id", nullable = false)
+    private OrderArchiveEntity order;
+    @Column(name = "item_code", nullable = false)
+    private String itemCode;
+    private int quantity;
+    private double unitPrice;
+    private double totalPrice;
+}
@@ -16,6 +16,8 @@ import java.util.List;
 public class OrderEntity implements SuperEntity {
     @Id
     private String orderId;
+    @Column(nullable = false, length = 32)
+    private String storeId;
     @ManyToOne
     @JoinColumn(name = "customerId", nullable = false)
     private CustomerEntity customer;
@@ -0,0 +1,32 @@
+package org.example.springwebpos.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "items")
+@Entity
+@Table(name = "settlements")
+public class SettlementEntity implements SuperEntity {
+    @Id
+    private String settlementId;
+    @Column(nullable = false, length = 32)
+    private String storeId;
+    @Column(nullable = false)
+    private String businessDate;
+    private long orderCount;
+    private double grossSales;
+    private double discounts;
+    private double netSales;
+    private double cashCollected;
+    private double changeGiven;
+    private String settledAt;
+    @OneToMany(mappedBy = "settlement", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<SettlementItemEntity> items = new ArrayList<>();
+}
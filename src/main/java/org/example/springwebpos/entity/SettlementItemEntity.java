@@ -0,0 +1,24 @@
+package org.example.springwebpos.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "settlement")
+@Entity
+@Table(name = "settlement_items")
+public class SettlementItemEntity implements SuperEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne
+    @JoinColumn(name = "settlement_id", nullable = false)
+    private SettlementEntity settlement;
+    @Column(nullable = false)
+    private String itemCode;
+    private long units;
+    private double sales;
+}
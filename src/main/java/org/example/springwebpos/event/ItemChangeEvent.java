@@ -0,0 +1,34 @@
+package org.example.springwebpos.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.springwebpos.entity.ItemEntity;
+
+import java.io.Serializable;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ItemChangeEvent implements Serializable {
+    public enum Type {SAVED, UPDATED, STOCK, DELETED}
+
+    private Type type;
+    private String code;
+    private double price;
+    private int qty;
+    private long timestamp;
+    private String storeId;
+    // Only set on SAVED and UPDATED, which carry the whole item
+    private String description;
+    private Long barcode;
+
+    public static ItemChangeEvent of(Type type, String storeId, String code, double price, int qty) {
+        return new ItemChangeEvent(type, code, price, qty, System.currentTimeMillis(), storeId, null, null);
+    }
+
+    public static ItemChangeEvent of(Type type, ItemEntity item) {
+        return new ItemChangeEvent(type, item.getCode(), item.getPrice(), item.getQty(), System.currentTimeMillis(),
+                item.getStoreId(), item.getDescription(), item.getBarcode());
+    }
+}
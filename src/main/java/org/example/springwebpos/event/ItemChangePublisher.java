@@ -0,0 +1,226 @@
+package org.example.springwebpos.event;
+
+import jakarta.annotation.PreDestroy;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fans item price/qty changes out to SSE subscribers and in-process listeners.
+ * A subscriber only receives changes to the items of the store it subscribed for.
+ * Each subscriber has a small pending buffer keyed by item code, so a slow
+ * client only ever receives the latest state of an item instead of every change.
+ * Sends run on a fixed pool one batch at a time; a subscriber that overflows its
+ * buffer or stalls in a send for longer than the send timeout is closed, so one
+ * slow client cannot hold the stream up for everyone else.
+ * Listeners are called synchronously on the publishing thread and must be quick.
+ */
+@Component
+public class ItemChangePublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ItemChangePublisher.class);
+
+    private static final int SUBSCRIBER_BUFFER_SIZE = 256;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int DISPATCHER_THREADS = 4;
+    static final long SEND_TIMEOUT_MS = 5_000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<ItemChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = newDispatcher();
+    // Event ids for Last-Event-ID: strictly increasing, unlike wall-clock timestamps
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Subscribes to the changes of the current store's items.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(StoreContext.current(), new SseEmitter(EMITTER_TIMEOUT_MS));
+    }
+
+    SseEmitter subscribe(String storeId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(storeId, emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        logger.info("SSE subscriber added, active subscribers: {}", subscribers.size());
+        return emitter;
+    }
+
+    public void addListener(Consumer<ItemChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publishes the event once the surrounding transaction commits.
+     * Events raised outside a transaction are published immediately; rolled back changes are never published.
+     */
+    public void publishAfterCommit(ItemChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    public void publish(ItemChangeEvent event) {
+        for (Consumer<ItemChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Item change listener failed for item {}: {}", event.getCode(), e.getMessage());
+            }
+        }
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.storeId.equals(event.getStoreId())) {
+                subscriber.offer(id, event);
+            }
+        }
+    }
+
+    /**
+     * Closes subscribers whose current send has been blocked for longer than the send timeout.
+     * Completing the emitter aborts the connection, which fails the stuck write and frees its dispatcher thread.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void closeStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MS)) {
+                subscriber.close(new IOException("SSE send blocked for more than " + SEND_TIMEOUT_MS + " ms"));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static ExecutorService newDispatcher() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(DISPATCHER_THREADS,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "item-sse-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private final class Subscriber {
+        private final String storeId;
+        private final SseEmitter emitter;
+        private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the in-flight send started, 0 while idle
+        private volatile long sendingSince;
+
+        private Subscriber(String storeId, SseEmitter emitter) {
+            this.storeId = storeId;
+            this.emitter = emitter;
+        }
+
+        private void offer(long id, ItemChangeEvent event) {
+            synchronized (pending) {
+                // Coalesce: a newer event for the same item replaces the queued one
+                if (pending.remove(event.getCode()) == null && pending.size() >= SUBSCRIBER_BUFFER_SIZE) {
+                    // Behind on this many distinct items: the client is better off reconnecting and reloading
+                    pending.clear();
+                    close(new IOException("SSE subscriber fell " + SUBSCRIBER_BUFFER_SIZE + " items behind"));
+                    return;
+                }
+                pending.put(event.getCode(), new Pending(id, event));
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends one batch and yields the thread, so subscribers take turns on the pool.
+         */
+        private void drain() {
+            try {
+                for (Pending next : takePending()) {
+                    if (closed.get()) {
+                        return;
+                    }
+                    sendingSince = System.nanoTime();
+                    emitter.send(SseEmitter.event()
+                            .name("item-" + next.event.getType().name().toLowerCase())
+                            .id(Long.toString(next.id))
+                            .data(next.event));
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+                return;
+            } finally {
+                sendingSince = 0;
+                scheduled.set(false);
+            }
+            // More may have been offered while sending, or between taking the batch and releasing the flag
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private List<Pending> takePending() {
+            synchronized (pending) {
+                List<Pending> batch = new ArrayList<>(pending.values());
+                pending.clear();
+                return batch;
+            }
+        }
+
+        private void close(Exception reason) {
+            if (closed.compareAndSet(false, true)) {
+                logger.debug("Dropping SSE subscriber: {}", reason.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(reason);
+            }
+        }
+    }
+
+    private record Pending(long id, ItemChangeEvent event) {
+    }
+}
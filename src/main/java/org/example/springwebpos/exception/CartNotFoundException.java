@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class CartNotFoundException extends DomainException {
+    public CartNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.springwebpos.exception;
 
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends DomainException {
+    public static final CustomerNotFoundException INSTANCE = new CustomerNotFoundException("Customer not found");
+
     public CustomerNotFoundException(String message) {
+        super(message);
     }
 }
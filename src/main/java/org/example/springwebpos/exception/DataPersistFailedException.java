@@ -2,5 +2,6 @@ package org.example.springwebpos.exception;
 
 public class DataPersistFailedException extends RuntimeException {
     public DataPersistFailedException(String message) {
+        super(message);
     }
 }
@@ -0,0 +1,14 @@
+package org.example.springwebpos.exception;
+
+/**
+ * Base of the expected, client-caused failures (unknown item, short stock, not enough cash, ...).
+ * <p>
+ * These are thrown on hot paths such as invalid barcode scans, so no stack trace is captured and suppression is
+ * off; the message says everything a caller needs. That also makes a single instance safe to throw again and again,
+ * which is what the preallocated {@code INSTANCE} constants are for. The web layer maps each type to its HTTP status.
+ */
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
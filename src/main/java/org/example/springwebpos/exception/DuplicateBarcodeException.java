@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class DuplicateBarcodeException extends DomainException {
+    public DuplicateBarcodeException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,10 @@
 package org.example.springwebpos.exception;
 
-public class InsufficientCashException extends RuntimeException {
+public class InsufficientCashException extends DomainException {
+    public static final InsufficientCashException INSTANCE =
+            new InsufficientCashException("Insufficient cash for the order");
+
     public InsufficientCashException(String message) {
+        super(message);
     }
 }
@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class InsufficientStockException extends DomainException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class InvalidDiscountException extends DomainException {
+    public InvalidDiscountException(String message) {
+        super(message);
+    }
+}
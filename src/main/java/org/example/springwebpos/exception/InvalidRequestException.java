@@ -0,0 +1,11 @@
+package org.example.springwebpos.exception;
+
+/**
+ * The request itself is malformed or not allowed (unknown format, oversized batch, empty cart, ...), as opposed to
+ * an internal precondition failing, which surfaces as a 500.
+ */
+public class InvalidRequestException extends DomainException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,31 @@
 package org.example.springwebpos.exception;
 
-public class ItemNotFound extends RuntimeException {
+public class ItemNotFound extends DomainException {
+    /**
+     * For lookups where no item code is known. Anything that looked up a code reports it with {@link #withCode}, so
+     * a till scanning a basket can tell which scan failed; being stackless, that costs one small allocation.
+     */
+    public static final ItemNotFound INSTANCE = new ItemNotFound("Item not found");
+
+    private final String itemCode;
+
     public ItemNotFound(String message) {
+        this(message, null);
+    }
+
+    private ItemNotFound(String message, String itemCode) {
+        super(message);
+        this.itemCode = itemCode;
+    }
+
+    public static ItemNotFound withCode(String itemCode) {
+        return new ItemNotFound("Item not found with code: " + itemCode, itemCode);
+    }
 
+    /**
+     * The code that was looked up, or {@code null} when none is known.
+     */
+    public String getItemCode() {
+        return itemCode;
     }
 }
@@ -0,0 +1,11 @@
+package org.example.springwebpos.exception;
+
+public class JournalUnavailableException extends RuntimeException {
+    public JournalUnavailableException(String message) {
+        super(message);
+    }
+
+    public JournalUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.springwebpos.exception;
+
+/**
+ * An order was handed to the journal but could not be confirmed on disk in time. It may still be written and
+ * replayed, so it must not be treated as failed or placed again another way; the till retries with the same order id.
+ */
+public class OrderOutcomeUnknownException extends RuntimeException {
+    public OrderOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
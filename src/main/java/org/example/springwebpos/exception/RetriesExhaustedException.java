@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class RetriesExhaustedException extends RuntimeException {
+    public RetriesExhaustedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
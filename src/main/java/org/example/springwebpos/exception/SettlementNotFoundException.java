@@ -0,0 +1,7 @@
+package org.example.springwebpos.exception;
+
+public class SettlementNotFoundException extends DomainException {
+    public SettlementNotFoundException(String message) {
+        super(message);
+    }
+}
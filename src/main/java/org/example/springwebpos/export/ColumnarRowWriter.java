@@ -0,0 +1,163 @@
+package org.example.springwebpos.export;
+
+import org.example.springwebpos.pricing.PricingEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact columnar export ({@code .poscol}). Rows are cut into row groups; within a group every column is stored
+ * contiguously, so repetitive columns compress to almost nothing and a reader can skip the columns it doesn't need.
+ * <pre>
+ * file     := "POSCOL1\n" varint(columnCount) (string(name) byte(type))* group* varint(0) varint(totalRows)
+ * group    := varint(rowCount) (varint(byteLength) chunk)*          one chunk per column, in column order
+ * STRING   := varint(dictSize) string(entry)* varint(index)*        index 0 is null, n is entry n-1
+ * INT/MONEY:= zigzag-varint(value - previous)*                      previous starts at 0 in every group
+ * string   := varint(utf8Length) utf8
+ * </pre>
+ * Types are the {@link ExportDataset.ColumnType} ordinals; money is in cents. Only one row group is held in memory.
+ */
+final class ColumnarRowWriter implements RowWriter {
+    static final byte[] MAGIC = "POSCOL1\n".getBytes(StandardCharsets.US_ASCII);
+    static final int ROWS_PER_GROUP = 64 * 1024;
+
+    private final OutputStream out;
+    private final ExportDataset dataset;
+    private final ColumnBuffer[] columns;
+    private int groupRows;
+    private long totalRows;
+
+    ColumnarRowWriter(OutputStream out, ExportDataset dataset) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.dataset = dataset;
+        this.columns = new ColumnBuffer[dataset.columnCount()];
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = dataset.column(column).type() == ExportDataset.ColumnType.STRING
+                    ? new StringColumn() : new LongColumn();
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        out.write(MAGIC);
+        writeVarint(out, dataset.columnCount());
+        for (int column = 0; column < dataset.columnCount(); column++) {
+            writeString(out, dataset.column(column).name());
+            out.write(dataset.column(column).type().ordinal());
+        }
+    }
+
+    @Override
+    public void write(ResultSet row) throws SQLException, IOException {
+        for (int column = 0; column < columns.length; column++) {
+            switch (dataset.column(column).type()) {
+                case STRING -> ((StringColumn) columns[column]).add(row.getString(column + 1));
+                case INT -> ((LongColumn) columns[column]).add(row.getInt(column + 1));
+                case MONEY -> ((LongColumn) columns[column]).add(PricingEngine.toMinor(row.getDouble(column + 1)));
+            }
+        }
+        totalRows++;
+        if (++groupRows == ROWS_PER_GROUP) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushGroup();
+        writeVarint(out, 0);
+        writeVarint(out, totalRows);
+        out.flush();
+    }
+
+    private void flushGroup() throws IOException {
+        if (groupRows == 0) {
+            return;
+        }
+        writeVarint(out, groupRows);
+        for (ColumnBuffer column : columns) {
+            column.writeTo(out);
+        }
+        groupRows = 0;
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private interface ColumnBuffer {
+        /**
+         * Writes the group's chunk with its length prefix and resets the buffer for the next group.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static final class LongColumn implements ColumnBuffer {
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        private long previous;
+
+        void add(long value) throws IOException {
+            long delta = value - previous;
+            writeVarint(values, (delta << 1) ^ (delta >> 63));
+            previous = value;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            writeVarint(out, values.size());
+            values.writeTo(out);
+            values.reset();
+            previous = 0;
+        }
+    }
+
+    private static final class StringColumn implements ColumnBuffer {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream indexes = new ByteArrayOutputStream();
+
+        void add(String value) throws IOException {
+            if (value == null) {
+                writeVarint(indexes, 0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = dictionary.size() + 1;
+                dictionary.put(value, index);
+                writeString(entries, value);
+            }
+            writeVarint(indexes, index);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            ByteArrayOutputStream header = new ByteArrayOutputStream(5);
+            writeVarint(header, dictionary.size());
+            writeVarint(out, header.size() + entries.size() + indexes.size());
+            header.writeTo(out);
+            entries.writeTo(out);
+            indexes.writeTo(out);
+            dictionary.clear();
+            entries.reset();
+            indexes.reset();
+        }
+    }
+}
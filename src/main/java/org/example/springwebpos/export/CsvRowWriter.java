@@ -0,0 +1,90 @@
+package org.example.springwebpos.export;
+
+import org.example.springwebpos.pricing.PricingEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * RFC 4180 CSV with a header line. Money is written with two decimals from the cent value.
+ */
+final class CsvRowWriter implements RowWriter {
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final Writer writer;
+    private final ExportDataset dataset;
+
+    CsvRowWriter(OutputStream out, ExportDataset dataset) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        this.dataset = dataset;
+    }
+
+    @Override
+    public void start() throws IOException {
+        for (int column = 0; column < dataset.columnCount(); column++) {
+            if (column > 0) {
+                writer.write(',');
+            }
+            writer.write(dataset.column(column).name());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(ResultSet row) throws SQLException, IOException {
+        for (int column = 0; column < dataset.columnCount(); column++) {
+            if (column > 0) {
+                writer.write(',');
+            }
+            switch (dataset.column(column).type()) {
+                case STRING -> writeText(row.getString(column + 1));
+                case INT -> writer.write(Integer.toString(row.getInt(column + 1)));
+                case MONEY -> writeMoney(PricingEngine.toMinor(row.getDouble(column + 1)));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeMoney(long cents) throws IOException {
+        if (cents < 0) {
+            writer.write('-');
+            cents = -cents;
+        }
+        writer.write(Long.toString(cents / 100));
+        writer.write('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            writer.write('0');
+        }
+        writer.write(Long.toString(fraction));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.springwebpos.export;
+
+/**
+ * What can be exported, as plain JDBC queries over one store and a half-open {@code orderDate} range. Each dataset
+ * is read from the archive tables and then from the hot tables, each part in order date order via the
+ * {@code (storeId, orderDate)} indexes.
+ */
+public enum ExportDataset {
+    ORDERS("SELECT o.orderId, o.storeId, o.customerId, o.orderDate, o.total, o.discount, o.subTotal, o.cash, "
+            + "o.balance FROM %s o WHERE o.storeId = ? AND o.orderDate >= ? AND o.orderDate < ? "
+            + "ORDER BY o.orderDate",
+            new Column("orderId", ColumnType.STRING),
+            new Column("storeId", ColumnType.STRING),
+            new Column("customerId", ColumnType.STRING),
+            new Column("orderDate", ColumnType.STRING),
+            new Column("total", ColumnType.MONEY),
+            new Column("discount", ColumnType.MONEY),
+            new Column("subTotal", ColumnType.MONEY),
+            new Column("cash", ColumnType.MONEY),
+            new Column("balance", ColumnType.MONEY)),
+    DETAILS("SELECT d.order_id, o.orderDate, d.item_code, d.quantity, d.unitPrice, d.totalPrice "
+            + "FROM %s o JOIN %s d ON d.order_id = o.orderId "
+            + "WHERE o.storeId = ? AND o.orderDate >= ? AND o.orderDate < ? ORDER BY o.orderDate",
+            new Column("orderId", ColumnType.STRING),
+            new Column("orderDate", ColumnType.STRING),
+            new Column("itemCode", ColumnType.STRING),
+            new Column("quantity", ColumnType.INT),
+            new Column("unitPrice", ColumnType.MONEY),
+            new Column("totalPrice", ColumnType.MONEY));
+
+    private final String sql;
+    private final Column[] columns;
+
+    ExportDataset(String sql, Column... columns) {
+        this.sql = sql;
+        this.columns = columns;
+    }
+
+    String getSql(boolean archived) {
+        return archived
+                ? String.format(sql, "orders_archive", "order_details_archive")
+                : String.format(sql, "orders", "order_details");
+    }
+
+    public Column[] getColumns() {
+        return columns.clone();
+    }
+
+    int columnCount() {
+        return columns.length;
+    }
+
+    Column column(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Money is exported in cents, so it round-trips exactly in both formats.
+     */
+    public enum ColumnType {
+        STRING, INT, MONEY
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+}
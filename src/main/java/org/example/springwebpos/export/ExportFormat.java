@@ -0,0 +1,28 @@
+package org.example.springwebpos.export;
+
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv", ".csv"),
+    COLUMNAR("application/octet-stream", ".poscol");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    RowWriter open(OutputStream out, ExportDataset dataset) {
+        return this == CSV ? new CsvRowWriter(out, dataset) : new ColumnarRowWriter(out, dataset);
+    }
+}
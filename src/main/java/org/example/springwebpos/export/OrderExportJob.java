@@ -0,0 +1,87 @@
+package org.example.springwebpos.export;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.OrderDAO;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Offline export to disk: {@code <pos.export.dir>/<storeId>/<dataset>-<from>_<to>.<ext>}. Files are written under
+ * a {@code .part} name and moved into place when complete, so a reader never picks up a half-written export.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderExportJob {
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportJob.class);
+
+    private final OrderExporter orderExporter;
+    private final OrderDAO orderDAO;
+    private final ShardFanOut shardFanOut;
+
+    @Value("${pos.export.dir}")
+    private String exportDir;
+
+    @Value("${pos.export.format:CSV}")
+    private ExportFormat scheduledFormat;
+
+    public Path exportToFile(String storeId, LocalDate from, LocalDate to, ExportDataset dataset,
+                             ExportFormat format) {
+        Path dir = Paths.get(exportDir, storeId);
+        Path target = dir.resolve(dataset.name().toLowerCase() + '-' + from + '_' + to + format.getExtension());
+        Path part = dir.resolve(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(dir);
+            try (OutputStream out = Files.newOutputStream(part)) {
+                StoreContext.callAs(storeId, () -> orderExporter.export(storeId, from, to, dataset, format, out));
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export to " + target + " failed", e);
+        } finally {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                logger.warn("Could not remove partial export {}: {}", part, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Exports yesterday's orders and order lines for every store that sold something. Off unless
+     * {@code pos.export.cron} is set.
+     */
+    @Scheduled(cron = "${pos.export.cron:-}")
+    public void exportYesterday() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        Collection<String> stores = new TreeSet<>();
+        shardFanOut.readEveryShard(() -> orderDAO.findStoreIdsByOrderDateLike(day + "%"))
+                .values().forEach(stores::addAll);
+        for (String storeId : stores) {
+            for (ExportDataset dataset : ExportDataset.values()) {
+                try {
+                    logger.info("Exported {}", exportToFile(storeId, day, day, dataset, scheduledFormat));
+                } catch (RuntimeException e) {
+                    logger.error("Export of {} for store={} date={} failed: {}", dataset, storeId, day,
+                            e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
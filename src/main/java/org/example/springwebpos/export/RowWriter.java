@@ -0,0 +1,20 @@
+package org.example.springwebpos.export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the current row of a result set in one export format. Implementations buffer at most a bounded amount
+ * of rows before passing them on to the underlying stream.
+ */
+interface RowWriter {
+    void start() throws IOException;
+
+    void write(ResultSet row) throws SQLException, IOException;
+
+    /**
+     * Writes out anything still buffered plus the format's trailer and flushes, without closing the stream.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,402 @@
+package org.example.springwebpos.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.example.springwebpos.shard.ShardRoutingDataSource;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process stock ledger keyed by item code.
+ * <p>
+ * Reservations are lock-free CAS decrements on a per-item counter, so hot items don't serialize checkouts on the
+ * {@code items} row lock. Each counter packs the units available and the units reserved by transactions still in
+ * flight into one word, so a commit, a rollback or an admin stock update never races a reservation. A transaction's
+ * reservations are written to {@code stock_movements} in one batch just before it commits, and {@link #flush()}
+ * folds committed movements into {@code items.qty}; stock on hand is always {@code items.qty} minus the movements
+ * not folded yet, which is also what the ledger is rebuilt from at startup.
+ * <p>
+ * Item codes are unique across stores, so one ledger covers every shard; movements are written to the shard of the
+ * transaction that reserved the stock and folded there. Only one instance may run the ledger against a database:
+ * startup waits for the {@code inventory_ledger_lease} of every shard and fails if another instance keeps renewing it.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryLedger {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String STOCK_LEVELS_SQL = "SELECT i.code, i.qty - COALESCE(SUM(m.qty), 0) FROM items i "
+            + "LEFT JOIN stock_movements m ON m.code = i.code WHERE i.retired = FALSE GROUP BY i.code, i.qty";
+    private static final String STOCK_LEVEL_SQL = "SELECT i.qty - COALESCE((SELECT SUM(m.qty) FROM stock_movements m "
+            + "WHERE m.code = i.code), 0) FROM items i WHERE i.code = ?";
+    private static final String INSERT_MOVEMENT_SQL = "INSERT INTO stock_movements (code, qty) VALUES (?, ?)";
+    private static final String LOCK_MOVEMENTS_SQL = "SELECT id, code, qty FROM stock_movements ORDER BY id "
+            + "LIMIT ? FOR UPDATE";
+    private static final String FOLD_SQL = "UPDATE items SET qty = qty - ? WHERE code = ?";
+    private static final String DELETE_FOLDED_SQL = "DELETE FROM stock_movements WHERE id = ?";
+    private static final String DELETE_ITEM_MOVEMENTS_SQL = "DELETE FROM stock_movements WHERE code = ?";
+    private static final String ACQUIRE_LEASE_SQL = "UPDATE inventory_ledger_lease SET owner = ?, "
+            + "renewedAt = CURRENT_TIMESTAMP(3) WHERE id = 1 AND (owner IS NULL OR owner = ? "
+            + "OR renewedAt < TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)))";
+    private static final String RENEW_LEASE_SQL = "UPDATE inventory_ledger_lease SET renewedAt = CURRENT_TIMESTAMP(3) "
+            + "WHERE id = 1 AND owner = ?";
+    private static final String RELEASE_LEASE_SQL = "UPDATE inventory_ledger_lease SET owner = NULL "
+            + "WHERE id = 1 AND owner = ?";
+    private static final String LEASE_OWNER_SQL = "SELECT owner FROM inventory_ledger_lease WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardFanOut shardFanOut;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    @Value("${pos.inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pos.inventory.ledger.lease-seconds:30}")
+    private int leaseSeconds;
+
+    @Value("${pos.inventory.flush-batch-size:10000}")
+    private int flushBatchSize;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    // Shards with committed movements that have not been folded yet
+    private final Set<String> dirtyShards = ConcurrentHashMap.newKeySet();
+    // Held shared by transactions from writing their movements until their counters are settled
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        acquireLeases();
+        counters.clear();
+        for (List<Object[]> rows : shardFanOut.executeOnEveryShard(() -> jdbcTemplate.query(STOCK_LEVELS_SQL,
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getInt(2)})).values()) {
+            for (Object[] row : rows) {
+                counters.put((String) row[0], new Counter((Integer) row[1]));
+            }
+        }
+        // Movements left over from before a restart still have to be folded
+        dirtyShards.addAll(shardRoutingDataSource.getShardNames());
+        logger.info("Inventory ledger rebuilt with {} items", counters.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getAvailable(String code) {
+        return available(counter(code).state.get());
+    }
+
+    /**
+     * Reserves {@code qty} units of the item for the current transaction. The units are recorded as a stock
+     * movement when the transaction commits and handed back if it rolls back.
+     *
+     * @return the remaining quantity, or {@code -1} if there is not enough stock
+     */
+    public int reserve(String code, int qty) {
+        Counter counter = counter(code);
+        long current;
+        do {
+            current = counter.state.get();
+            if (available(current) < qty) {
+                return -1;
+            }
+        } while (!counter.state.compareAndSet(current, pack(available(current) - qty, inFlight(current) + qty)));
+        record(code, counter, qty);
+        return available(current) - qty;
+    }
+
+    /**
+     * Takes stock unconditionally, for sales that have already been acknowledged (journal replay).
+     */
+    public int consume(String code, int qty) {
+        Counter counter = counter(code);
+        long updated = counter.state.updateAndGet(state -> pack(available(state) - qty, inFlight(state) + qty));
+        record(code, counter, qty);
+        return available(updated);
+    }
+
+    /**
+     * For a stock count the current transaction writes to the item row: movements not folded yet are deleted in the
+     * same transaction, since the new absolute value supersedes them, and the counter is reloaded once it commits.
+     * Reservations still in flight keep their units and are recorded against the new value when they commit.
+     */
+    public void refreshAfterCommit(String code) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_ITEM_MOVEMENTS_SQL, code);
+        afterCommit(() -> {
+            // With no transaction between writing its movements and settling its counters, every movement in the
+            // table is already reflected in the counter's in-flight units or has left them
+            commitLock.writeLock().lock();
+            try {
+                int onHand = onHand(code);
+                counters.computeIfAbsent(code, key -> new Counter(onHand)).state
+                        .updateAndGet(state -> pack(onHand - inFlight(state), inFlight(state)));
+            } finally {
+                commitLock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void forgetAfterCommit(String code) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_ITEM_MOVEMENTS_SQL, code);
+        afterCommit(() -> counters.remove(code));
+    }
+
+    /**
+     * Renews the lease on every shard and folds committed movements into {@code items.qty}, at most
+     * {@code pos.inventory.flush-batch-size} of them per shard and transaction.
+     */
+    @Scheduled(fixedDelayString = "${pos.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        renewLeases();
+        for (String shard : new ArrayList<>(dirtyShards)) {
+            dirtyShards.remove(shard);
+            try {
+                int folded;
+                do {
+                    folded = StoreContext.callOnShard(shard, () -> transactionTemplate.execute(status -> fold()));
+                } while (folded == flushBatchSize);
+            } catch (RuntimeException e) {
+                // The movements stay in the table; try again on the next flush
+                dirtyShards.add(shard);
+                logger.warn("Stock movement flush failed on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Folds the oldest movements into {@code items.qty} in the current transaction. The movements are read with
+     * {@code FOR UPDATE} and deleted by id, so exactly the rows that were added up go, whatever commits meanwhile.
+     *
+     * @return the number of movements folded
+     */
+    private int fold() {
+        Map<String, Integer> units = new LinkedHashMap<>();
+        List<Object[]> ids = new ArrayList<>();
+        jdbcTemplate.query(LOCK_MOVEMENTS_SQL, rs -> {
+            ids.add(new Object[]{rs.getLong(1)});
+            units.merge(rs.getString(2), rs.getInt(3), Integer::sum);
+        }, flushBatchSize);
+        if (units.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> updates = new ArrayList<>(units.size());
+        units.forEach((code, qty) -> updates.add(new Object[]{qty, code}));
+        jdbcTemplate.batchUpdate(FOLD_SQL, updates);
+        jdbcTemplate.batchUpdate(DELETE_FOLDED_SQL, ids);
+        logger.debug("Folded {} stock movements into {} items", ids.size(), units.size());
+        return ids.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        shardFanOut.executeOnEveryShard(() -> jdbcTemplate.update(RELEASE_LEASE_SQL, owner));
+    }
+
+    private void acquireLeases() {
+        long deadline = System.nanoTime() + (leaseSeconds + 1) * 1_000_000_000L;
+        List<String> missing = new ArrayList<>(shardRoutingDataSource.getShardNames());
+        while (true) {
+            missing.removeIf(shard -> StoreContext.callOnShard(shard, () -> transactionTemplate.execute(status ->
+                    jdbcTemplate.update(ACQUIRE_LEASE_SQL, owner, owner, -leaseSeconds))) == 1);
+            if (missing.isEmpty()) {
+                logger.info("Inventory ledger lease acquired by {}", owner);
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                String holder = StoreContext.callOnShard(missing.get(0), () ->
+                        jdbcTemplate.queryForObject(LEASE_OWNER_SQL, String.class));
+                throw new IllegalStateException("Inventory ledger on shard " + missing.get(0) + " is owned by "
+                        + holder + "; only one instance may run with pos.inventory.ledger.enabled=true");
+            }
+            logger.info("Waiting for the inventory ledger lease on {} to expire", missing);
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the inventory ledger lease", e);
+            }
+        }
+    }
+
+    private void renewLeases() {
+        Map<String, Integer> renewed = shardFanOut.executeOnEveryShard(() ->
+                jdbcTemplate.update(RENEW_LEASE_SQL, owner));
+        renewed.forEach((shard, rows) -> {
+            if (rows == 0) {
+                // Another instance took over while this one stalled: its counters are authoritative now
+                logger.error("Inventory ledger lease on shard {} was taken over, disabling the ledger here", shard);
+                enabled = false;
+            }
+        });
+    }
+
+    private Counter counter(String code) {
+        Counter counter = counters.get(code);
+        if (counter != null) {
+            return counter;
+        }
+        // Items created since the last rebuild; load outside the map so the bin isn't held
+        Counter loaded = new Counter(onHand(code));
+        Counter existing = counters.putIfAbsent(code, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private int onHand(String code) {
+        List<Integer> levels = jdbcTemplate.queryForList(STOCK_LEVEL_SQL, Integer.class, code);
+        return levels.isEmpty() ? 0 : levels.get(0);
+    }
+
+    /**
+     * Adds the reservation to the current transaction's movements, or writes it right away outside a transaction.
+     */
+    private void record(String code, Counter counter, int qty) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitLock.readLock().lock();
+            try {
+                jdbcTemplate.update(INSERT_MOVEMENT_SQL, code, qty);
+                complete(counter, qty, true);
+            } catch (RuntimeException e) {
+                complete(counter, qty, false);
+                throw e;
+            } finally {
+                commitLock.readLock().unlock();
+            }
+            dirtyShards.add(shardRoutingDataSource.currentShard());
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Movements movements && movements.ledger() == this) {
+                movements.add(code, qty);
+                return;
+            }
+        }
+        Movements movements = new Movements(shardRoutingDataSource.currentShard());
+        movements.add(code, qty);
+        TransactionSynchronizationManager.registerSynchronization(movements);
+    }
+
+    private void complete(Counter counter, int qty, boolean committed) {
+        counter.state.updateAndGet(state -> pack(available(state) + (committed ? 0 : qty), inFlight(state) - qty));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static long pack(int available, int inFlight) {
+        return ((long) available << 32) | (inFlight & 0xFFFFFFFFL);
+    }
+
+    static int available(long state) {
+        return (int) (state >> 32);
+    }
+
+    static int inFlight(long state) {
+        return (int) state;
+    }
+
+    private static final class Counter {
+        // High half: units available; low half: units reserved by transactions that have not completed
+        private final AtomicLong state;
+
+        private Counter(int available) {
+            this.state = new AtomicLong(pack(available, 0));
+        }
+    }
+
+    /**
+     * The units one transaction reserved, per item. Written as one batch before the commit and settled against the
+     * counters after it.
+     */
+    private final class Movements implements TransactionSynchronization {
+        private final String shard;
+        private final Map<String, Integer> units = new LinkedHashMap<>();
+        private boolean locked;
+
+        private Movements(String shard) {
+            this.shard = shard;
+        }
+
+        private InventoryLedger ledger() {
+            return InventoryLedger.this;
+        }
+
+        private void add(String code, int qty) {
+            units.merge(code, qty, Integer::sum);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitLock.readLock().lock();
+            locked = true;
+            List<Object[]> rows = new ArrayList<>(units.size());
+            units.forEach((code, qty) -> rows.add(new Object[]{code, qty}));
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            boolean committed = status == STATUS_COMMITTED;
+            units.forEach((code, qty) -> {
+                Counter counter = counters.get(code);
+                if (counter != null) {
+                    complete(counter, qty, committed);
+                }
+            });
+            if (locked) {
+                commitLock.readLock().unlock();
+            }
+            if (committed) {
+                dirtyShards.add(shard);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.springwebpos.inventory;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.dto.LowStockAlertDTO;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reorder alerts raised while stock is taken at checkout, so nobody has to scan {@code items} for low stock.
+ * <p>
+ * A sale that takes an item from above its reorder level to at or below it raises an alert once the order commits.
+ * There is at most one alert per item: later sales only refresh its quantity. Restocking above the level or
+ * deleting the item clears it. The buffer is rebuilt with a single query at startup, since alerts are kept in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class LowStockAlerts {
+    private static final Logger logger = LoggerFactory.getLogger(LowStockAlerts.class);
+
+    private final ItemDAO itemDAO;
+    private final ShardFanOut shardFanOut;
+
+    @Value("${pos.inventory.low-stock.max-alerts:10000}")
+    private int maxAlerts;
+
+    private final Map<String, LowStockAlertDTO> alerts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        alerts.clear();
+        for (List<ItemEntity> items : shardFanOut.readEveryShard(itemDAO::findAllAtOrBelowReorderLevel).values()) {
+            items.forEach(item -> raise(alertFor(item, item.getQty())));
+        }
+        logger.info("Low stock alerts rebuilt with {} items", alerts.size());
+    }
+
+    /**
+     * Checks a sale that took the item from {@code before} to {@code after} units.
+     */
+    public void checkSale(ItemEntity item, int before, int after) {
+        int level = item.getReorderLevel();
+        if (level <= 0 || after > level) {
+            return;
+        }
+        LowStockAlertDTO alert = alertFor(item, after);
+        if (before > level) {
+            afterCommit(() -> raise(alert));
+        } else if (alerts.containsKey(item.getCode())) {
+            afterCommit(() -> alerts.computeIfPresent(alert.getItemCode(),
+                    (code, existing) -> refresh(existing, alert)));
+        }
+    }
+
+    /**
+     * Re-evaluates an item whose quantity or reorder level was set directly, e.g. on restock.
+     */
+    public void checkLevel(ItemEntity item) {
+        if (item.getReorderLevel() > 0 && item.getQty() <= item.getReorderLevel()) {
+            LowStockAlertDTO alert = alertFor(item, item.getQty());
+            afterCommit(() -> raise(alert));
+        } else {
+            clearAfterCommit(item.getCode());
+        }
+    }
+
+    public void clearAfterCommit(String code) {
+        afterCommit(() -> alerts.remove(code));
+    }
+
+    public List<LowStockAlertDTO> getAlerts(String storeId) {
+        return alerts.values().stream()
+                .filter(alert -> alert.getStoreId().equals(storeId))
+                .sorted(Comparator.comparing(LowStockAlertDTO::getRaisedAt))
+                .toList();
+    }
+
+    private LowStockAlertDTO alertFor(ItemEntity item, int qty) {
+        return new LowStockAlertDTO(item.getCode(), item.getStoreId(), item.getDescription(), qty,
+                item.getReorderLevel(), LocalDateTime.now().toString());
+    }
+
+    private void raise(LowStockAlertDTO alert) {
+        alerts.compute(alert.getItemCode(), (code, existing) -> {
+            if (existing != null) {
+                return refresh(existing, alert);
+            }
+            if (alerts.size() >= maxAlerts) {
+                logger.warn("Low stock alert buffer full ({}), dropping alert for item {}", maxAlerts, code);
+                return null;
+            }
+            logger.info("Low stock: item={} qty={} reorderLevel={}", code, alert.getQty(), alert.getReorderLevel());
+            return alert;
+        });
+    }
+
+    // Alerts are replaced rather than mutated, so readers never see a half-updated one
+    private static LowStockAlertDTO refresh(LowStockAlertDTO existing, LowStockAlertDTO latest) {
+        return new LowStockAlertDTO(existing.getItemCode(), existing.getStoreId(), latest.getDescription(),
+                latest.getQty(), latest.getReorderLevel(), existing.getRaisedAt());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.springwebpos.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class JournalRecord {
+    private final long seq;
+    private final byte[] payload;
+    private final int endPosition;
+}
@@ -0,0 +1,138 @@
+package org.example.springwebpos.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.exception.JournalUnavailableException;
+import org.example.springwebpos.exception.OrderOutcomeUnknownException;
+import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.util.AppUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Write-behind checkout: prices the order, journals it and acknowledges the till without waiting for MySQL writes.
+ * <p>
+ * The order id is the idempotency key: a retried order that is still pending replay, or already in MySQL, is
+ * answered with what was stored the first time. Only when the journal refuses the order before writing anything
+ * does checkout fall back to the normal synchronous path; once the record is in the journal, a sync that cannot be
+ * confirmed is reported as {@link OrderOutcomeUnknownException} so the till retries with the same id.
+ * <p>
+ * Stock is held in {@link PendingOrders} before the order is journaled, against availability read from the primary.
+ * Synchronous sales are tracked there for the length of their transaction, and a hold is refused and re-read while
+ * one is in flight or after one ended, so journaled sales cannot oversell each other or the synchronous paths while
+ * they wait for replay. A hold that keeps losing to sales falls back to the synchronous path.
+ */
+@Component
+@RequiredArgsConstructor
+public class JournaledOrderService {
+    private static final Logger logger = LoggerFactory.getLogger(JournaledOrderService.class);
+    private static final int MAX_HOLD_ATTEMPTS = 3;
+
+    private final OrderJournal orderJournal;
+    private final OrderService orderService;
+    private final PendingOrders pendingOrders;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Rebuilds the pending orders from the records the journal still has to replay.
+     */
+    @PostConstruct
+    public void recover() {
+        if (!orderJournal.isEnabled()) {
+            return;
+        }
+        for (JournalRecord record : orderJournal.readPending(Integer.MAX_VALUE)) {
+            try {
+                pendingOrders.restore(record.getSeq(), objectMapper.readValue(record.getPayload(), OrderDTO.class));
+            } catch (IOException e) {
+                // The drainer dead-letters it
+                logger.warn("Unreadable journal record at seq {}: {}", record.getSeq(), e.getMessage());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return orderJournal.isEnabled();
+    }
+
+    public OrderDTO placeOrder(OrderDTO orderDTO) {
+        String orderId = orderDTO.getOrderId();
+        if (orderId == null || orderId.isEmpty()) {
+            orderDTO.setOrderId(AppUtil.createOrderId());
+        } else {
+            OrderDTO earlier = findEarlierAttempt(orderId);
+            if (earlier != null) {
+                return earlier;
+            }
+        }
+
+        // Price a copy so the untouched request can still go through the synchronous path
+        OrderDTO pricedOrder = orderService.priceOrder(copy(orderDTO));
+        long seq;
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(pricedOrder);
+            holdStock(pricedOrder);
+            seq = orderJournal.write(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order " + pricedOrder.getOrderId(), e);
+        } catch (JournalUnavailableException e) {
+            logger.warn("Order journal unavailable ({}), placing order {} synchronously",
+                    e.getMessage(), pricedOrder.getOrderId());
+            pendingOrders.release(pricedOrder.getOrderId());
+            return orderService.placeOrder(orderDTO);
+        }
+        pendingOrders.add(seq, pricedOrder);
+        awaitDurable(pricedOrder.getOrderId(), seq);
+        logger.info("Journaled order {} at seq {}", pricedOrder.getOrderId(), seq);
+        return copy(pricedOrder);
+    }
+
+    private void holdStock(OrderDTO order) {
+        Map<String, Integer> requested = PendingOrders.quantities(order);
+        for (int attempt = 0; attempt < MAX_HOLD_ATTEMPTS; attempt++) {
+            long epoch = pendingOrders.getStockEpoch();
+            if (pendingOrders.hold(epoch, order.getOrderId(), requested,
+                    orderService.getAvailableStock(requested.keySet()))) {
+                return;
+            }
+        }
+        throw new JournalUnavailableException("Stock of order " + order.getOrderId() + " kept changing while held");
+    }
+
+    private OrderDTO findEarlierAttempt(String orderId) {
+        PendingOrders.Acknowledged acknowledged = pendingOrders.find(orderId);
+        if (acknowledged != null) {
+            // The first attempt may have timed out waiting for the sync, so confirm the record is on disk now
+            awaitDurable(orderId, acknowledged.seq());
+            logger.info("Order {} is already journaled at seq {}", orderId, acknowledged.seq());
+            return copy(acknowledged.order());
+        }
+        // Read from the primary: the replica may not have the order the drainer just committed
+        OrderDTO stored = orderService.findPlacedOrder(orderId).orElse(null);
+        if (stored != null) {
+            logger.info("Order {} is already placed", orderId);
+        }
+        return stored;
+    }
+
+    private void awaitDurable(String orderId, long seq) {
+        try {
+            orderJournal.awaitDurable(seq);
+        } catch (OrderOutcomeUnknownException e) {
+            logger.warn("Order {} journaled at seq {} but not confirmed on disk: {}", orderId, seq, e.getMessage());
+            throw new OrderOutcomeUnknownException("Order " + orderId
+                    + " is not confirmed yet, retry with the same orderId", e);
+        }
+    }
+
+    private OrderDTO copy(OrderDTO orderDTO) {
+        return objectMapper.convertValue(orderDTO, OrderDTO.class);
+    }
+}
@@ -0,0 +1,413 @@
+package org.example.springwebpos.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.springwebpos.exception.JournalUnavailableException;
+import org.example.springwebpos.exception.OrderOutcomeUnknownException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped order journal with group commit.
+ * <p>
+ * Record layout: {@code [int length][long seq][int crc32][payload]}. A zero length marks the end of the log.
+ * Appenders write into the mapping and wait for a shared sync thread, which forces the mapping once per
+ * batch. The sequence of the last order replayed into MySQL is kept in a separate checkpoint file.
+ */
+@Component
+public class OrderJournal {
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final String JOURNAL_FILE = "orders.journal";
+    private static final String CHECKPOINT_FILE = "orders.checkpoint";
+    private static final String DEAD_LETTER_FILE = "orders.deadletter";
+
+    @Value("${pos.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pos.journal.dir}")
+    private String journalDir;
+
+    @Value("${pos.journal.capacity-bytes:67108864}")
+    private int capacity;
+
+    @Value("${pos.journal.sync-interval-ms:2}")
+    private long syncIntervalMs;
+
+    @Value("${pos.journal.sync-batch-size:64}")
+    private int syncBatchSize;
+
+    @Value("${pos.journal.ack-timeout-ms:2000}")
+    private long ackTimeoutMs;
+
+    private FileChannel journalChannel;
+    private FileChannel checkpointChannel;
+    private FileLock fileLock;
+    private MappedByteBuffer mapped;
+
+    private final Object writeLock = new Object();
+    private final Object syncMonitor = new Object();
+    private List<PendingSync> waiting = new ArrayList<>();
+    private Thread syncThread;
+    private volatile boolean running;
+
+    // Guarded by writeLock
+    private int writePosition;
+    private long lastSeq;
+
+    private volatile int durablePosition;
+    private volatile long durableSeq;
+    private volatile int readPosition;
+    private volatile long appliedSeq;
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path dir = Paths.get(journalDir);
+            Files.createDirectories(dir);
+            journalChannel = FileChannel.open(dir.resolve(JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileLock = journalChannel.tryLock();
+            if (fileLock == null) {
+                logger.warn("Order journal {} is locked by another instance, journal mode disabled here", dir);
+                journalChannel.close();
+                enabled = false;
+                return;
+            }
+            checkpointChannel = FileChannel.open(dir.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapped = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            recover();
+        } catch (IOException e) {
+            throw new JournalUnavailableException("Cannot open order journal in " + journalDir, e);
+        }
+        running = true;
+        syncThread = new Thread(this::syncLoop, "order-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Rebuilds the write and replay positions from the mapped file. Scanning stops at the first record that is
+     * empty, torn (bad CRC) or out of sequence; anything after it was never acknowledged and is overwritten.
+     */
+    private void recover() throws IOException {
+        appliedSeq = readCheckpoint();
+        int position = 0;
+        int replayFrom = -1;
+        long seq = -1;
+        int pendingCount = 0;
+        while (position + HEADER_BYTES <= capacity) {
+            int length = mapped.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > capacity) {
+                break;
+            }
+            long recordSeq = mapped.getLong(position + Integer.BYTES);
+            if (seq != -1 && recordSeq != seq + 1) {
+                break;
+            }
+            if (checksum(position + HEADER_BYTES, length) != mapped.getInt(position + Integer.BYTES + Long.BYTES)) {
+                logger.warn("Discarding torn journal record at offset {}", position);
+                break;
+            }
+            if (recordSeq > appliedSeq) {
+                pendingCount++;
+                if (replayFrom == -1) {
+                    replayFrom = position;
+                }
+            }
+            seq = recordSeq;
+            position += HEADER_BYTES + length;
+        }
+        if (position + Integer.BYTES <= capacity) {
+            mapped.putInt(position, 0);
+        }
+        writePosition = position;
+        durablePosition = position;
+        readPosition = replayFrom == -1 ? position : replayFrom;
+        lastSeq = Math.max(seq, appliedSeq);
+        durableSeq = lastSeq;
+        logger.info("Order journal recovered: {} bytes, last seq {}, applied seq {}, {} orders pending replay",
+                position, lastSeq, appliedSeq, pendingCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the payload and blocks until it is on disk, sharing the fsync with concurrent appenders.
+     *
+     * @return the sequence number assigned to the record
+     * @throws JournalUnavailableException if nothing was written
+     * @throws OrderOutcomeUnknownException if the record was written but not confirmed on disk
+     */
+    public long append(byte[] payload) {
+        PendingSync pending = writeRecord(payload);
+        await(pending);
+        return pending.seq;
+    }
+
+    /**
+     * Writes the payload into the mapping and queues it for the next sync without waiting for it.
+     *
+     * @return the sequence number assigned to the record
+     * @throws JournalUnavailableException if nothing was written
+     */
+    public long write(byte[] payload) {
+        return writeRecord(payload).seq;
+    }
+
+    /**
+     * Blocks until every record up to {@code seq} is on disk, forcing the mapping again if an earlier sync failed.
+     *
+     * @throws OrderOutcomeUnknownException if that cannot be confirmed within the ack timeout
+     */
+    public void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        PendingSync pending;
+        synchronized (writeLock) {
+            pending = new PendingSync(lastSeq, writePosition);
+            enqueue(pending);
+        }
+        await(pending);
+    }
+
+    private PendingSync writeRecord(byte[] payload) {
+        if (!enabled || !running) {
+            throw new JournalUnavailableException("Order journal is not open");
+        }
+        synchronized (writeLock) {
+            int recordBytes = HEADER_BYTES + payload.length;
+            if (writePosition + recordBytes + Integer.BYTES > capacity) {
+                throw new JournalUnavailableException("Order journal is full");
+            }
+            long seq = lastSeq + 1;
+            int position = writePosition;
+            ByteBuffer slice = mapped.duplicate();
+            slice.position(position + HEADER_BYTES);
+            slice.put(payload);
+            // Terminator first, then the header, so a reader never sees a length without its payload
+            mapped.putInt(position + recordBytes, 0);
+            mapped.putLong(position + Integer.BYTES, seq);
+            mapped.putInt(position + Integer.BYTES + Long.BYTES, checksum(position + HEADER_BYTES, payload.length));
+            mapped.putInt(position, payload.length);
+            lastSeq = seq;
+            writePosition = position + recordBytes;
+            PendingSync pending = new PendingSync(seq, writePosition);
+            enqueue(pending);
+            return pending;
+        }
+    }
+
+    private void enqueue(PendingSync pending) {
+        synchronized (syncMonitor) {
+            waiting.add(pending);
+            if (waiting.size() == 1 || waiting.size() >= syncBatchSize) {
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void await(PendingSync pending) {
+        // The record is already in the mapping: from here on a failure means "not confirmed", never "not written"
+        try {
+            pending.future.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderOutcomeUnknownException("Interrupted waiting for journal seq " + pending.seq, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new OrderOutcomeUnknownException("Journal seq " + pending.seq + " not confirmed on disk", e);
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            List<PendingSync> batch;
+            synchronized (syncMonitor) {
+                try {
+                    while (running && waiting.isEmpty()) {
+                        syncMonitor.wait();
+                    }
+                    if (waiting.size() < syncBatchSize) {
+                        // Linger briefly so concurrent tills share one fsync
+                        syncMonitor.wait(syncIntervalMs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                batch = waiting;
+                waiting = new ArrayList<>();
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                mapped.force();
+                PendingSync last = batch.get(batch.size() - 1);
+                // A re-sync of records that were already durable must not move the position back past a rewind
+                if (last.seq > durableSeq) {
+                    durablePosition = last.endPosition;
+                    durableSeq = last.seq;
+                }
+                batch.forEach(pending -> pending.future.complete(pending.seq));
+            } catch (RuntimeException e) {
+                logger.error("Order journal sync failed: {}", e.getMessage(), e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code max} durable records that have not been replayed yet, oldest first.
+     */
+    public List<JournalRecord> readPending(int max) {
+        List<JournalRecord> records = new ArrayList<>();
+        if (!enabled) {
+            return records;
+        }
+        int position = readPosition;
+        int limit = durablePosition;
+        while (records.size() < max && position + HEADER_BYTES <= limit) {
+            int length = mapped.getInt(position);
+            long seq = mapped.getLong(position + Integer.BYTES);
+            byte[] payload = new byte[length];
+            mapped.get(position + HEADER_BYTES, payload);
+            position += HEADER_BYTES + length;
+            if (seq > appliedSeq) {
+                records.add(new JournalRecord(seq, payload, position));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Records that everything up to and including {@code record} is in MySQL. Once the whole journal has been
+     * replayed the file is rewound so it never needs to grow.
+     */
+    public void markApplied(JournalRecord record) {
+        try {
+            writeCheckpoint(record.getSeq());
+        } catch (IOException e) {
+            throw new JournalUnavailableException("Cannot write journal checkpoint", e);
+        }
+        appliedSeq = record.getSeq();
+        readPosition = record.getEndPosition();
+        synchronized (writeLock) {
+            if (appliedSeq == lastSeq && writePosition == durablePosition && writePosition > 0) {
+                // Fully drained: wipe the used region so stale records can never be replayed
+                ByteBuffer region = mapped.duplicate();
+                byte[] zeros = new byte[8192];
+                region.position(0);
+                while (region.position() < writePosition) {
+                    region.put(zeros, 0, Math.min(zeros.length, writePosition - region.position()));
+                }
+                mapped.force();
+                writePosition = 0;
+                durablePosition = 0;
+                readPosition = 0;
+            }
+        }
+    }
+
+    /**
+     * Sets a record that can never be replayed aside, so the checkpoint can move past it. Each dead letter is one
+     * line {@code seq<TAB>reason<TAB>base64(payload)} in {@code orders.deadletter}, forced to disk before returning.
+     */
+    public void deadLetter(JournalRecord record, String reason) {
+        String line = record.getSeq() + "\t" + reason.replaceAll("\\s+", " ") + "\t"
+                + Base64.getEncoder().encodeToString(record.getPayload()) + "\n";
+        try (FileChannel channel = FileChannel.open(Paths.get(journalDir).resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        } catch (IOException e) {
+            throw new JournalUnavailableException("Cannot write journal dead letter", e);
+        }
+    }
+
+    public long getPendingCount() {
+        return enabled ? lastSeq - appliedSeq : 0;
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (checkpointChannel.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return buffer.flip().getLong();
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(seq).flip();
+        checkpointChannel.write(buffer, 0);
+        checkpointChannel.force(false);
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(mapped.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+        }
+        try {
+            syncThread.join(1000);
+            mapped.force();
+            fileLock.release();
+            journalChannel.close();
+            checkpointChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Error closing order journal: {}", e.getMessage());
+        }
+    }
+
+    private static final class PendingSync {
+        private final long seq;
+        private final int endPosition;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingSync(long seq, int endPosition) {
+            this.seq = seq;
+            this.endPosition = endPosition;
+        }
+    }
+}
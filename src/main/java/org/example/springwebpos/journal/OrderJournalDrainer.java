@@ -0,0 +1,178 @@
+package org.example.springwebpos.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.exception.DomainException;
+import org.example.springwebpos.retry.ContentionFailure;
+import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays journaled orders into MySQL in batches, one transaction per store within a batch.
+ * The checkpoint only moves after a batch commits; orders that were committed but not yet
+ * checkpointed are skipped by {@link OrderService#replayOrders} on the next attempt.
+ * <p>
+ * When a store's batch fails because the database is unreachable or busy, the records stay put and the next tick
+ * tries again. Any other failure replays that store's orders one by one: an order that can never be replayed
+ * (unknown customer or item, constraint violation, unreadable record), or that keeps failing for
+ * {@code pos.journal.max-replay-attempts} ticks, is dead-lettered so it does not hold up the orders behind it.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderJournalDrainer {
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournalDrainer.class);
+
+    private final OrderJournal orderJournal;
+    private final OrderService orderService;
+    private final PendingOrders pendingOrders;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Consecutive failures of records whose cause could not be classified, by seq; only touched by drain()
+    private final Map<Long, Integer> failures = new HashMap<>();
+
+    @Value("${pos.journal.drain-batch-size:100}")
+    private int batchSize;
+
+    @Value("${pos.journal.max-replay-attempts:5}")
+    private int maxReplayAttempts;
+
+    @Scheduled(fixedDelayString = "${pos.journal.drain-interval-ms:500}")
+    public void drain() {
+        if (!orderJournal.isEnabled()) {
+            return;
+        }
+        List<JournalRecord> records;
+        while (!(records = orderJournal.readPending(batchSize)).isEmpty()) {
+            // Stores may live on different shards, so each store's orders are replayed in a transaction of its own
+            Map<String, List<Replay>> replaysByStore = new LinkedHashMap<>();
+            for (JournalRecord record : records) {
+                OrderDTO order;
+                try {
+                    order = objectMapper.readValue(record.getPayload(), OrderDTO.class);
+                } catch (IOException e) {
+                    deadLetter(record, null, "Unreadable record: " + e.getMessage());
+                    continue;
+                }
+                String storeId = order.getStoreId() != null ? order.getStoreId() : StoreContext.DEFAULT_STORE;
+                replaysByStore.computeIfAbsent(storeId, key -> new ArrayList<>()).add(new Replay(record, order));
+            }
+            for (Map.Entry<String, List<Replay>> store : replaysByStore.entrySet()) {
+                if (!replayStore(store.getKey(), store.getValue())) {
+                    return;
+                }
+            }
+            orderJournal.markApplied(records.get(records.size() - 1));
+        }
+    }
+
+    /**
+     * @return whether every order of the store is now either in MySQL or dead-lettered
+     */
+    private boolean replayStore(String storeId, List<Replay> replays) {
+        try {
+            replay(storeId, replays.stream().map(Replay::order).toList());
+            return true;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                logger.warn("Journal replay failed, {} orders pending: {}", orderJournal.getPendingCount(),
+                        e.getMessage());
+                return false;
+            }
+            logger.warn("Journal replay of {} orders for store {} failed, replaying them one by one: {}",
+                    replays.size(), storeId, e.getMessage());
+        }
+        for (Replay replay : replays) {
+            long seq = replay.record().getSeq();
+            try {
+                replay(storeId, List.of(replay.order()));
+                failures.remove(seq);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    logger.warn("Journal replay failed at seq {}: {}", seq, e.getMessage());
+                    return false;
+                }
+                if (!isPermanent(e) && failures.merge(seq, 1, Integer::sum) < maxReplayAttempts) {
+                    logger.warn("Journal replay failed at seq {} ({} of {} attempts): {}", seq,
+                            failures.get(seq), maxReplayAttempts, e.getMessage());
+                    return false;
+                }
+                failures.remove(seq);
+                deadLetter(replay.record(), replay.order(), e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void replay(String storeId, List<OrderDTO> orders) {
+        StoreContext.callAs(storeId, () -> orderService.replayOrders(orders));
+        orders.forEach(order -> pendingOrders.remove(order.getOrderId()));
+    }
+
+    private void deadLetter(JournalRecord record, OrderDTO order, String reason) {
+        logger.error("Dead-lettering journaled order {} at seq {}: {}",
+                order != null ? order.getOrderId() : "?", record.getSeq(), reason);
+        orderJournal.deadLetter(record, reason);
+        if (order != null) {
+            pendingOrders.remove(order.getOrderId());
+        }
+    }
+
+    /**
+     * The database could not be reached or the work lost a lock conflict; the same replay should succeed later.
+     */
+    static boolean isTransient(Throwable failure) {
+        if (ContentionFailure.of(failure) != null) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof NonTransientDataAccessResourceException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The order itself cannot be stored, e.g. its customer or item no longer exists; retrying will not help.
+     */
+    static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DomainException
+                    || cause instanceof EntityNotFoundException
+                    || cause instanceof ObjectRetrievalFailureException
+                    || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Replay(JournalRecord record, OrderDTO order) {
+    }
+}
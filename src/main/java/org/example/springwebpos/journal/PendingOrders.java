@@ -0,0 +1,151 @@
+package org.example.springwebpos.journal;
+
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.exception.InsufficientStockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders acknowledged from the journal that are not in MySQL yet, keyed by order id. A till that retries an order
+ * (same order id) gets the original acknowledgement back instead of a second sale.
+ * <p>
+ * Each pending order also holds the stock it sold until its replay commits, because neither {@code items.qty} nor
+ * the inventory ledger reflects it before then. Every checkout path subtracts {@link #getHeld} from what it sees as
+ * available. Holds are checked against availability read after {@link #getStockEpoch}. The epoch moves whenever
+ * stock is released or a synchronous sale ends, and {@link #hold} refuses while a sale is still in flight
+ * ({@link #trackSale}): either may mean the read missed a change, so the caller reads again. A sale that checked
+ * {@link #getHeld} before a hold was taken is therefore always seen by that hold.
+ */
+@Component
+public class PendingOrders {
+    private final Map<String, Acknowledged> orders = new ConcurrentHashMap<>();
+    // Guarded by this; heldByItem is also read without the lock
+    private final Map<String, Map<String, Integer>> holds = new HashMap<>();
+    private final Map<String, Integer> heldByItem = new ConcurrentHashMap<>();
+    // Guarded by this
+    private int salesInFlight;
+    private volatile long stockEpoch;
+
+    public Acknowledged find(String orderId) {
+        return orders.get(orderId);
+    }
+
+    public void add(long seq, OrderDTO order) {
+        orders.put(order.getOrderId(), new Acknowledged(seq, order));
+    }
+
+    /**
+     * Re-establishes an order found in the journal on startup, stock hold included. Nothing is checked: the order
+     * was acknowledged before the restart.
+     */
+    public synchronized void restore(long seq, OrderDTO order) {
+        add(seq, order);
+        if (!holds.containsKey(order.getOrderId())) {
+            addHold(order.getOrderId(), quantities(order));
+        }
+    }
+
+    public int getHeld(String itemCode) {
+        return heldByItem.getOrDefault(itemCode, 0);
+    }
+
+    public long getStockEpoch() {
+        return stockEpoch;
+    }
+
+    /**
+     * Marks a synchronous sale in the current transaction, before it checks {@link #getHeld}, until the transaction
+     * completes. Holds are refused meanwhile, since the availability they were checked against may not include it.
+     */
+    public void trackSale() {
+        synchronized (this) {
+            salesInFlight++;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            endSale();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                endSale();
+            }
+        });
+    }
+
+    /**
+     * Holds {@code requested} units per item for the order if {@code available}, less what other pending orders
+     * hold, covers them.
+     *
+     * @param epoch     {@link #getStockEpoch} read before {@code available}
+     * @param available units per item as read from the ledger or the items table
+     * @return false if stock was released or sold since {@code epoch}, or a sale is in flight, in which case
+     * {@code available} may be stale
+     * @throws InsufficientStockException if an item is short
+     */
+    public synchronized boolean hold(long epoch, String orderId, Map<String, Integer> requested,
+                                     Map<String, Integer> available) {
+        if (epoch != stockEpoch || salesInFlight > 0) {
+            return false;
+        }
+        requested.forEach((code, quantity) -> {
+            if (available.getOrDefault(code, 0) - getHeld(code) < quantity) {
+                throw new InsufficientStockException("Insufficient quantity for item: " + code);
+            }
+        });
+        addHold(orderId, requested);
+        return true;
+    }
+
+    /**
+     * Drops the order's stock hold, e.g. because it was never journaled.
+     */
+    public synchronized void release(String orderId) {
+        Map<String, Integer> held = holds.remove(orderId);
+        if (held == null) {
+            return;
+        }
+        held.forEach((code, quantity) ->
+                heldByItem.computeIfPresent(code, (key, total) -> total > quantity ? total - quantity : null));
+        stockEpoch++;
+    }
+
+    /**
+     * Forgets an order and releases its stock once its replay has committed.
+     */
+    public synchronized void remove(String orderId) {
+        orders.remove(orderId);
+        release(orderId);
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    public static Map<String, Integer> quantities(OrderDTO order) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (OrderDetailDTO detail : order.getOrderDetails()) {
+            quantities.merge(detail.getItemCode(), detail.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private synchronized void endSale() {
+        salesInFlight--;
+        stockEpoch++;
+    }
+
+    private void addHold(String orderId, Map<String, Integer> requested) {
+        holds.put(orderId, requested);
+        requested.forEach((code, quantity) -> heldByItem.merge(code, quantity, Integer::sum));
+    }
+
+    public record Acknowledged(long seq, OrderDTO order) {
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.springwebpos.outbox;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Default sink: appends each event as one JSON line to {@code order-events-<date>.jsonl} under
+ * {@code pos.outbox.file-sink.dir}, for downstream systems that pick up files. Each batch is written with a single
+ * append and forced to disk before the relay deletes it from the outbox.
+ */
+@Component(FileOutboxSink.NAME)
+public class FileOutboxSink implements OutboxSink {
+    public static final String NAME = "fileOutboxSink";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Value("${pos.outbox.file-sink.dir}")
+    private String dir;
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 512);
+        try (JsonGenerator json = jsonFactory.createGenerator(buffer)) {
+            json.setRootValueSeparator(null);
+            for (OutboxEvent event : events) {
+                json.writeStartObject();
+                json.writeStringField("id", event.getId());
+                json.writeStringField("eventType", event.getEventType());
+                json.writeStringField("storeId", event.getStoreId());
+                json.writeStringField("orderId", event.getOrderId());
+                json.writeNumberField("createdAt", event.getCreatedAt());
+                // Already JSON; copied as is instead of being parsed and written again
+                json.writeFieldName("order");
+                json.writeRawValue(event.getPayload());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+        Path target = Paths.get(dir);
+        Files.createDirectories(target);
+        try (FileChannel channel = FileChannel.open(target.resolve("order-events-" + LocalDate.now() + ".jsonl"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
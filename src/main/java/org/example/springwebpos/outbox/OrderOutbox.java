@@ -0,0 +1,69 @@
+package org.example.springwebpos.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes order events into {@code order_outbox} on the caller's connection, so an event commits or rolls back
+ * together with its order. Delivery happens later in {@link OutboxRelay}; checkout never waits for downstream
+ * systems.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+
+    private static final String INSERT_SQL = "INSERT INTO order_outbox (id, storeId, orderId, eventType, payload) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${pos.outbox.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records that the order was placed. Must run inside the transaction that saves the order.
+     */
+    public void orderPlaced(OrderDTO order) {
+        if (enabled) {
+            jdbcTemplate.update(INSERT_SQL, row(order));
+        }
+    }
+
+    /**
+     * Records several placed orders in one JDBC batch.
+     */
+    public void ordersPlaced(List<OrderDTO> orders) {
+        if (!enabled || orders.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (OrderDTO order : orders) {
+            rows.add(row(order));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private Object[] row(OrderDTO order) {
+        try {
+            return new Object[]{IdGenerator.toBytes(IdGenerator.next()), order.getStoreId(), order.getOrderId(),
+                    ORDER_PLACED, objectMapper.writeValueAsString(order)};
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order " + order.getOrderId() + " for the outbox", e);
+        }
+    }
+}
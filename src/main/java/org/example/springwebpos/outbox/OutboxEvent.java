@@ -0,0 +1,18 @@
+package org.example.springwebpos.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One row of {@code order_outbox} as handed to an {@link OutboxSink}. The payload is the order as JSON.
+ */
+@AllArgsConstructor
+@Getter
+public class OutboxEvent {
+    private final String id;
+    private final String storeId;
+    private final String orderId;
+    private final String eventType;
+    private final long createdAt;
+    private final String payload;
+}
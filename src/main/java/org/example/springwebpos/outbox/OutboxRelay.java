@@ -0,0 +1,177 @@
+package org.example.springwebpos.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.OutboxStatsDTO;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.example.springwebpos.shard.ShardRoutingDataSource;
+import org.example.springwebpos.shard.StoreContext;
+import org.example.springwebpos.util.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers {@code order_outbox} rows to the configured {@link OutboxSink}, oldest first, and deletes them once the
+ * sink has accepted them.
+ * <p>
+ * Each batch is one transaction on one shard: it locks up to {@code pos.outbox.batch-size} rows with
+ * {@code FOR UPDATE SKIP LOCKED}, delivers them and deletes them. Rows locked by a relay on another node are skipped
+ * rather than waited for, so several nodes can drain the same shard without handing out an event twice, and
+ * checkouts inserting new rows are never blocked. A failed delivery rolls the batch back and the shard is retried
+ * after {@code pos.outbox.retry-delay-ms}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String SELECT_BATCH = "SELECT id, storeId, orderId, eventType, payload FROM order_outbox "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_BATCH = "DELETE FROM order_outbox WHERE id IN (%s)";
+    private static final String PENDING_SQL = "SELECT COUNT(*), MIN(id) FROM order_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardFanOut shardFanOut;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final Map<String, OutboxSink> sinks;
+
+    @Value("${pos.outbox.relay.enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${pos.outbox.sink:" + FileOutboxSink.NAME + "}")
+    private String sinkName;
+
+    @Value("${pos.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${pos.outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${pos.outbox.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    private OutboxSink sink;
+    private volatile boolean running = true;
+    private volatile long retryAt;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicLong maxDeliveryLagMs = new AtomicLong();
+    private volatile long lastDeliveryLagMs;
+    private volatile long lastDeliveredAt;
+    private volatile String lastError;
+
+    @PostConstruct
+    public void start() {
+        sink = sinks.get(sinkName);
+        if (sink == null) {
+            throw new IllegalStateException("Unknown outbox sink '" + sinkName + "', available: " + sinks.keySet());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        if (!relayEnabled || System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        for (String shard : shardRoutingDataSource.getShardNames()) {
+            if (running && !relayShard(shard)) {
+                retryAt = System.currentTimeMillis() + retryDelayMs;
+            }
+        }
+    }
+
+    /**
+     * Drains up to {@code pos.outbox.max-batches-per-run} batches from one shard.
+     *
+     * @return false if a batch failed and was left in the outbox
+     */
+    public boolean relayShard(String shard) {
+        int batches = 0;
+        while (running && batches < maxBatchesPerRun) {
+            int count;
+            try {
+                count = StoreContext.callOnShard(shard, () -> transactionTemplate.execute(status -> relayBatch()));
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                lastError = e.getMessage();
+                logger.warn("Outbox delivery failed on shard {}, retrying in {} ms: {}", shard, retryDelayMs,
+                        e.getMessage());
+                return false;
+            }
+            if (count < batchSize) {
+                break;
+            }
+            batches++;
+        }
+        return true;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> {
+            String id = IdGenerator.fromBytes(rs.getBytes(1));
+            return new OutboxEvent(id, rs.getString(2), rs.getString(3), rs.getString(4),
+                    IdGenerator.timestampOf(id), rs.getString(5));
+        }, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            sink.deliver(events);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Object> ids = new ArrayList<>(events.size());
+        events.forEach(event -> ids.add(IdGenerator.toBytes(event.getId())));
+        jdbcTemplate.update(String.format(DELETE_BATCH, String.join(",", Collections.nCopies(ids.size(), "?"))),
+                ids.toArray());
+
+        long now = System.currentTimeMillis();
+        long lag = now - events.get(0).getCreatedAt();
+        lastDeliveryLagMs = lag;
+        lastDeliveredAt = now;
+        maxDeliveryLagMs.accumulateAndGet(lag, Math::max);
+        delivered.add(events.size());
+        logger.debug("Relayed {} outbox events, oldest {} ms old", events.size(), lag);
+        return events.size();
+    }
+
+    /**
+     * Delivery counters plus the current backlog, counted on every shard primary.
+     */
+    public OutboxStatsDTO snapshot() {
+        long pending = 0;
+        long oldest = Long.MAX_VALUE;
+        for (Object[] row : shardFanOut.executeOnEveryShard(() -> jdbcTemplate.queryForObject(PENDING_SQL,
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getBytes(2)})).values()) {
+            pending += (Long) row[0];
+            if (row[1] != null) {
+                oldest = Math.min(oldest, IdGenerator.timestampOf(IdGenerator.fromBytes((byte[]) row[1])));
+            }
+        }
+        long oldestAge = oldest == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+        return new OutboxStatsDTO(sinkName, pending, oldestAge, delivered.sum(), failedBatches.sum(),
+                lastDeliveryLagMs, maxDeliveryLagMs.get(), lastDeliveredAt, lastError);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.springwebpos.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for order events relayed from the outbox. The relay picks the sink bean named by
+ * {@code pos.outbox.sink}; register another implementation as a bean to send events elsewhere.
+ * <p>
+ * Delivery is at least once: a batch is only removed from the outbox after {@link #deliver} returns, so a crash in
+ * between hands the same events over again. Receivers should de-duplicate on {@link OutboxEvent#getId()}.
+ */
+public interface OutboxSink {
+    /**
+     * Delivers the batch, oldest event first. Throwing leaves the whole batch in the outbox for a later attempt.
+     */
+    void deliver(List<OutboxEvent> events) throws IOException;
+}
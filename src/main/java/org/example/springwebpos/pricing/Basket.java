@@ -0,0 +1,117 @@
+package org.example.springwebpos.pricing;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, array-backed basket for the {@link PricingEngine}. All amounts are in minor units (cents).
+ * Line results are written back into the basket so pricing does not allocate per line.
+ */
+public final class Basket {
+    private String[] itemCodes;
+    private long[] unitPrices;
+    private int[] quantities;
+    private long[] lineTotals;
+    private int size;
+
+    long total;
+    long discount;
+    long subTotal;
+
+    public Basket() {
+        this(8);
+    }
+
+    public Basket(int expectedLines) {
+        int capacity = Math.max(expectedLines, 1);
+        itemCodes = new String[capacity];
+        unitPrices = new long[capacity];
+        quantities = new int[capacity];
+        lineTotals = new long[capacity];
+    }
+
+    public int add(String itemCode, long unitPriceMinor, int quantity) {
+        if (size == itemCodes.length) {
+            int capacity = size * 2;
+            itemCodes = Arrays.copyOf(itemCodes, capacity);
+            unitPrices = Arrays.copyOf(unitPrices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            lineTotals = Arrays.copyOf(lineTotals, capacity);
+        }
+        itemCodes[size] = itemCode;
+        unitPrices[size] = unitPriceMinor;
+        quantities[size] = quantity;
+        return size++;
+    }
+
+    public void setQuantity(int line, int quantity) {
+        quantities[checkLine(line)] = quantity;
+    }
+
+    public void remove(int line) {
+        checkLine(line);
+        int moved = size - line - 1;
+        System.arraycopy(itemCodes, line + 1, itemCodes, line, moved);
+        System.arraycopy(unitPrices, line + 1, unitPrices, line, moved);
+        System.arraycopy(quantities, line + 1, quantities, line, moved);
+        System.arraycopy(lineTotals, line + 1, lineTotals, line, moved);
+        itemCodes[--size] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(itemCodes, 0, size, null);
+        size = 0;
+        total = discount = subTotal = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getItemCode(int line) {
+        return itemCodes[checkLine(line)];
+    }
+
+    public long getUnitPrice(int line) {
+        return unitPrices[checkLine(line)];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[checkLine(line)];
+    }
+
+    /**
+     * Line total after item promotions and its share of the basket discount.
+     */
+    public long getLineTotal(int line) {
+        return lineTotals[checkLine(line)];
+    }
+
+    /**
+     * Sum of list prices before any discount.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getDiscount() {
+        return discount;
+    }
+
+    /**
+     * Amount payable: total minus all discounts. Always equals the sum of the line totals.
+     */
+    public long getSubTotal() {
+        return subTotal;
+    }
+
+    void setLineTotal(int line, long lineTotal) {
+        lineTotals[line] = lineTotal;
+    }
+
+    private int checkLine(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + size);
+        }
+        return line;
+    }
+}
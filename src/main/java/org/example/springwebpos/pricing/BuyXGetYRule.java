@@ -0,0 +1,17 @@
+package org.example.springwebpos.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * For every {@code buy} units of the item, {@code free} more units are free.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class BuyXGetYRule implements PromotionRule {
+    private final String itemCode;
+    private final int buy;
+    private final int free;
+}
@@ -0,0 +1,16 @@
+package org.example.springwebpos.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Fixed markdown per unit of one item, in minor units.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ItemAmountOffRule implements PromotionRule {
+    private final String itemCode;
+    private final long amountOffMinor;
+}
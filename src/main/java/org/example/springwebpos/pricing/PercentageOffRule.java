@@ -0,0 +1,15 @@
+package org.example.springwebpos.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Basket-wide percentage off, in basis points (1050 = 10.5%).
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class PercentageOffRule implements PromotionRule {
+    private final int basisPoints;
+}
@@ -0,0 +1,209 @@
+package org.example.springwebpos.pricing;
+
+import jakarta.annotation.PostConstruct;
+import org.example.springwebpos.exception.InvalidDiscountException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prices baskets in long minor units against the compiled {@link PromotionBook}.
+ * <p>
+ * Item-level promotions are applied per item, over all lines of that item, and its free units are split over
+ * those lines by quantity. Then the basket percentage (configured promotions plus the cashier's manual discount) is
+ * taken off the discounted sum and split over the lines so that line totals always add up exactly to the amount
+ * payable. Rounding is half-up.
+ */
+@Component
+public class PricingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private static final int FULL_BASIS_POINTS = 10_000;
+
+    @Value("${pos.promotions.basket-percentage-bp:0}")
+    private int basketBasisPoints;
+
+    @Value("${pos.promotions.buy-x-get-y:}")
+    private String buyXGetY;
+
+    @Value("${pos.promotions.item-amount-off:}")
+    private String itemAmountOff;
+
+    private volatile List<PromotionRule> rules = List.of();
+    private volatile PromotionBook promotionBook = PromotionBook.EMPTY;
+
+    @PostConstruct
+    public void loadConfiguredRules() {
+        List<PromotionRule> configured = new ArrayList<>();
+        if (basketBasisPoints > 0) {
+            configured.add(new PercentageOffRule(basketBasisPoints));
+        }
+        // itemCode:buy:free,...
+        for (String[] parts : split(buyXGetY, 3)) {
+            configured.add(new BuyXGetYRule(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+        }
+        // itemCode:amountOffMinor,...
+        for (String[] parts : split(itemAmountOff, 2)) {
+            configured.add(new ItemAmountOffRule(parts[0], Long.parseLong(parts[1])));
+        }
+        setRules(configured);
+    }
+
+    public void setRules(List<? extends PromotionRule> newRules) {
+        PromotionBook compiled = PromotionBook.compile(newRules);
+        rules = List.copyOf(newRules);
+        promotionBook = compiled;
+        logger.info("Loaded {} promotion rules", compiled.size());
+    }
+
+    public List<PromotionRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Prices the basket in place.
+     *
+     * @param manualBasisPoints cashier discount on top of the configured basket promotions, see
+     *                          {@link #toManualBasisPoints(double)}
+     */
+    public Basket price(Basket basket, int manualBasisPoints) {
+        PromotionBook promotions = promotionBook;
+        int lines = basket.size();
+
+        long total = 0;
+        for (int line = 0; line < lines; line++) {
+            long gross = Math.multiplyExact(basket.getUnitPrice(line), (long) basket.getQuantity(line));
+            basket.setLineTotal(line, gross);
+            total += gross;
+        }
+        for (int line = 0; line < lines; line++) {
+            PromotionBook.ItemPromotion promotion = promotions.forItem(basket.getItemCode(line));
+            if (promotion != null && isFirstLineOfItem(basket, line)) {
+                applyItemPromotion(basket, line, promotion);
+            }
+        }
+        long net = 0;
+        for (int line = 0; line < lines; line++) {
+            net += basket.getLineTotal(line);
+        }
+
+        int basisPoints = Math.min(FULL_BASIS_POINTS, promotions.getBasketBasisPoints() + manualBasisPoints);
+        long basketDiscount = divideHalfUp(Math.multiplyExact(net, (long) basisPoints), FULL_BASIS_POINTS);
+        if (basketDiscount > 0) {
+            // Cumulative allocation: each line gets round(D * running net / net) minus what is already handed out,
+            // so the shares sum to D exactly without sorting remainders
+            long runningNet = 0;
+            long allocated = 0;
+            for (int line = 0; line < lines; line++) {
+                long lineNet = basket.getLineTotal(line);
+                runningNet += lineNet;
+                long allocatedSoFar = divideHalfUp(Math.multiplyExact(basketDiscount, runningNet), net);
+                basket.setLineTotal(line, lineNet - (allocatedSoFar - allocated));
+                allocated = allocatedSoFar;
+            }
+        }
+
+        basket.total = total;
+        basket.discount = total - net + basketDiscount;
+        basket.subTotal = net - basketDiscount;
+        return basket;
+    }
+
+    /**
+     * Counts the free units over the item's total quantity, so splitting an item over several lines (scanning it
+     * twice) doesn't lose them, and hands them out over the item's lines by running quantity. Each line is then
+     * discounted by its own free units and unit price, so the split needs no rounding of money.
+     */
+    private static void applyItemPromotion(Basket basket, int firstLine, PromotionBook.ItemPromotion promotion) {
+        String itemCode = basket.getItemCode(firstLine);
+        int lines = basket.size();
+        int quantity = 0;
+        for (int line = firstLine; line < lines; line++) {
+            if (sameItem(itemCode, basket.getItemCode(line))) {
+                quantity += basket.getQuantity(line);
+            }
+        }
+        if (quantity == 0) {
+            return;
+        }
+        int freeUnits = promotion.freeUnits(quantity);
+        int runningQuantity = 0;
+        int handedOut = 0;
+        for (int line = firstLine; line < lines; line++) {
+            if (sameItem(itemCode, basket.getItemCode(line))) {
+                runningQuantity += basket.getQuantity(line);
+                int handedOutSoFar = (int) divideHalfUp((long) freeUnits * runningQuantity, quantity);
+                basket.setLineTotal(line, basket.getLineTotal(line) - promotion.discount(basket.getUnitPrice(line),
+                        basket.getQuantity(line), handedOutSoFar - handedOut));
+                handedOut = handedOutSoFar;
+            }
+        }
+    }
+
+    private static boolean isFirstLineOfItem(Basket basket, int line) {
+        String itemCode = basket.getItemCode(line);
+        for (int earlier = 0; earlier < line; earlier++) {
+            if (sameItem(itemCode, basket.getItemCode(earlier))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // String hashes are cached, so most lines of other items are told apart without comparing characters
+    private static boolean sameItem(String itemCode, String other) {
+        return itemCode.hashCode() == other.hashCode() && itemCode.equals(other);
+    }
+
+    /**
+     * Converts the cashier's discount percentage to basis points, rejecting anything outside 0..100 % (or NaN)
+     * instead of letting it raise the price or be clamped silently.
+     */
+    public static int toManualBasisPoints(double percent) {
+        checkManualDiscount(percent);
+        return toBasisPoints(percent);
+    }
+
+    public static void checkManualDiscount(double percent) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new InvalidDiscountException("Discount must be between 0 and 100 percent, got " + percent);
+        }
+    }
+
+    public static long toMinor(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toMajor(long minor) {
+        return minor / 100.0;
+    }
+
+    public static int toBasisPoints(double percent) {
+        return BigDecimal.valueOf(percent).movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        return (dividend + divisor / 2) / divisor;
+    }
+
+    private static List<String[]> split(String spec, int fields) {
+        List<String[]> result = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != fields) {
+                throw new IllegalArgumentException("Invalid promotion entry: " + entry);
+            }
+            result.add(parts);
+        }
+        return result;
+    }
+}
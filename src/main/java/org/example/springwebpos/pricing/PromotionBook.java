@@ -0,0 +1,95 @@
+package org.example.springwebpos.pricing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-compiled form of the active promotions: one lookup per item code gives every item-level rule,
+ * and all basket-wide percentages are folded into a single basis-point figure. Rules that could not be applied as
+ * written (a second buy-X-get-Y for an item, a negative markdown, basket percentages outside 0..100 %) are rejected
+ * here rather than silently overridden or clamped.
+ */
+public final class PromotionBook {
+    public static final PromotionBook EMPTY = compile(List.of());
+
+    private final Map<String, ItemPromotion> itemPromotions;
+    private final int basketBasisPoints;
+
+    private PromotionBook(Map<String, ItemPromotion> itemPromotions, int basketBasisPoints) {
+        this.itemPromotions = itemPromotions;
+        this.basketBasisPoints = basketBasisPoints;
+    }
+
+    public static PromotionBook compile(List<? extends PromotionRule> rules) {
+        Map<String, ItemPromotion> itemPromotions = new HashMap<>();
+        int basketBasisPoints = 0;
+        for (PromotionRule rule : rules) {
+            if (rule instanceof PercentageOffRule percentage) {
+                if (percentage.getBasisPoints() < 0) {
+                    throw new IllegalArgumentException("Invalid percentage-off rule: " + rule);
+                }
+                basketBasisPoints += percentage.getBasisPoints();
+                if (basketBasisPoints > 10_000) {
+                    throw new IllegalArgumentException("Basket percentages add up to more than 100%: "
+                            + basketBasisPoints + " basis points");
+                }
+            } else if (rule instanceof BuyXGetYRule buyXGetY) {
+                if (buyXGetY.getBuy() <= 0 || buyXGetY.getFree() <= 0) {
+                    throw new IllegalArgumentException("Invalid buy-X-get-Y rule: " + rule);
+                }
+                ItemPromotion promotion = itemPromotions.computeIfAbsent(buyXGetY.getItemCode(),
+                        code -> new ItemPromotion());
+                if (promotion.groupSize != 0) {
+                    throw new IllegalArgumentException("More than one buy-X-get-Y rule for item "
+                            + buyXGetY.getItemCode());
+                }
+                promotion.groupSize = buyXGetY.getBuy() + buyXGetY.getFree();
+                promotion.freePerGroup = buyXGetY.getFree();
+            } else if (rule instanceof ItemAmountOffRule amountOff) {
+                if (amountOff.getAmountOffMinor() < 0) {
+                    throw new IllegalArgumentException("Invalid amount-off rule: " + rule);
+                }
+                itemPromotions.computeIfAbsent(amountOff.getItemCode(), code -> new ItemPromotion())
+                        .amountOffMinor += amountOff.getAmountOffMinor();
+            } else {
+                throw new IllegalArgumentException("Unsupported promotion rule: " + rule);
+            }
+        }
+        return new PromotionBook(Map.copyOf(itemPromotions), basketBasisPoints);
+    }
+
+    ItemPromotion forItem(String itemCode) {
+        return itemPromotions.get(itemCode);
+    }
+
+    int getBasketBasisPoints() {
+        return basketBasisPoints;
+    }
+
+    public int size() {
+        return itemPromotions.size() + (basketBasisPoints > 0 ? 1 : 0);
+    }
+
+    static final class ItemPromotion {
+        private long amountOffMinor;
+        private int groupSize;
+        private int freePerGroup;
+
+        /**
+         * Units free of charge when {@code quantity} units of the item are bought.
+         */
+        int freeUnits(int quantity) {
+            return groupSize == 0 ? 0 : (quantity / groupSize) * freePerGroup;
+        }
+
+        /**
+         * Item-level discount for one line: the free units it was given, then the per-unit markdown on the units
+         * paid for.
+         */
+        long discount(long unitPriceMinor, int quantity, int freeUnits) {
+            long markdown = Math.min(amountOffMinor, unitPriceMinor) * (quantity - freeUnits);
+            return freeUnits * unitPriceMinor + markdown;
+        }
+    }
+}
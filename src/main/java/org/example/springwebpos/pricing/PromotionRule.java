@@ -0,0 +1,7 @@
+package org.example.springwebpos.pricing;
+
+/**
+ * A promotion as configured. Rules are compiled into a {@link PromotionBook} before they are used for pricing.
+ */
+public interface PromotionRule {
+}
@@ -0,0 +1,81 @@
+package org.example.springwebpos.receipt;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public enum ReceiptFormat {
+    // Code page 437 is what ESC/POS printers use unless told otherwise
+    ESCPOS("application/octet-stream", "receipts/receipt-escpos.txt", Charset.forName("IBM437"),
+            UnaryOperator.identity(), Map.of(
+                    "init", new byte[]{0x1B, '@'},
+                    "center", new byte[]{0x1B, 'a', 1},
+                    "left", new byte[]{0x1B, 'a', 0},
+                    "bold", new byte[]{0x1B, 'E', 1},
+                    "normal", new byte[]{0x1B, 'E', 0},
+                    "feed", new byte[]{0x1B, 'd', 4},
+                    "cut", new byte[]{0x1D, 'V', 'B', 0})),
+    HTML("text/html;charset=UTF-8", "receipts/receipt.html", StandardCharsets.UTF_8,
+            ReceiptFormat::escapeHtml, Map.of());
+
+    private final String contentType;
+    private final String templateResource;
+    private final Charset charset;
+    private final UnaryOperator<String> escaper;
+    private final Map<String, byte[]> controls;
+
+    ReceiptFormat(String contentType, String templateResource, Charset charset, UnaryOperator<String> escaper,
+                  Map<String, byte[]> controls) {
+        this.contentType = contentType;
+        this.templateResource = templateResource;
+        this.charset = charset;
+        this.escaper = escaper;
+        this.controls = controls;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    String getTemplateResource() {
+        return templateResource;
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    UnaryOperator<String> getEscaper() {
+        return escaper;
+    }
+
+    Map<String, byte[]> getControls() {
+        return controls;
+    }
+
+    private static String escapeHtml(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement = switch (value.charAt(i)) {
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '&' -> "&amp;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(value.charAt(i));
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.springwebpos.receipt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders receipts (ESC/POS bytes for the till printer and a printable HTML page) from templates compiled at
+ * startup, and keeps the results in an LRU cache bounded by {@code pos.receipt.cache-max-bytes} so reprints are a
+ * map lookup.
+ * <p>
+ * Placed orders are rendered on a small bounded executor once their transaction commits, so checkout never waits
+ * for it. If the queue is full the render is skipped and the receipt is built on its first request instead.
+ */
+@Component
+public class ReceiptRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptRenderer.class);
+
+    @Value("${pos.receipt.header:Spring Web POS}")
+    private String header;
+
+    @Value("${pos.receipt.threads:1}")
+    private int threads;
+
+    @Value("${pos.receipt.queue:1000}")
+    private int queueSize;
+
+    @Value("${pos.receipt.cache-max-bytes:16777216}")
+    private long cacheMaxBytes;
+
+    private final Map<ReceiptFormat, ReceiptTemplate> templates = new EnumMap<>(ReceiptFormat.class);
+    private final LinkedHashMap<String, RenderedReceipt> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        for (ReceiptFormat format : ReceiptFormat.values()) {
+            templates.put(format, ReceiptTemplate.compile(loadTemplate(format), format));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "receipt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the order's receipt for rendering once the current transaction commits. {@code itemNames} maps item
+     * codes to the descriptions printed on the receipt; codes without one are printed as is.
+     */
+    public void renderAfterCommit(OrderDTO order, Map<String, String> itemNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(order, itemNames);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(order, itemNames);
+            }
+        });
+    }
+
+    private void submit(OrderDTO order, Map<String, String> itemNames) {
+        try {
+            executor.execute(() -> {
+                try {
+                    render(order, itemNames);
+                } catch (RuntimeException e) {
+                    logger.warn("Receipt rendering failed for order {}: {}", order.getOrderId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Receipt queue full, order {} will be rendered on first request", order.getOrderId());
+        }
+    }
+
+    public byte[] getCached(String storeId, String orderId, ReceiptFormat format) {
+        RenderedReceipt receipt;
+        synchronized (cache) {
+            receipt = cache.get(key(storeId, orderId));
+        }
+        return receipt == null ? null : receipt.get(format);
+    }
+
+    /**
+     * Renders every format of the order's receipt, caches them and returns the one asked for.
+     */
+    public byte[] render(OrderDTO order, Map<String, String> itemNames, ReceiptFormat format) {
+        return render(order, itemNames).get(format);
+    }
+
+    private RenderedReceipt render(OrderDTO order, Map<String, String> itemNames) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("header", header);
+        fields.put("storeId", text(order.getStoreId()));
+        fields.put("orderId", text(order.getOrderId()));
+        fields.put("orderDate", text(order.getOrderDate()));
+        fields.put("customerId", text(order.getCustomerId()));
+        fields.put("total", money(order.getTotal()));
+        fields.put("discount", money(order.getDiscount()));
+        fields.put("subTotal", money(order.getSubTotal()));
+        fields.put("cash", money(order.getCash()));
+        fields.put("balance", money(order.getBalance()));
+        List<Map<String, String>> lines = new ArrayList<>(order.getOrderDetails().size());
+        for (OrderDetailDTO detail : order.getOrderDetails()) {
+            lines.add(Map.of(
+                    "description", itemNames.getOrDefault(detail.getItemCode(), detail.getItemCode()),
+                    "itemCode", detail.getItemCode(),
+                    "quantity", Integer.toString(detail.getQuantity()),
+                    "unitPrice", money(detail.getUnitPrice()),
+                    "totalPrice", money(detail.getTotalPrice())));
+        }
+
+        Map<ReceiptFormat, byte[]> rendered = new EnumMap<>(ReceiptFormat.class);
+        templates.forEach((format, template) -> rendered.put(format, template.render(fields, lines)));
+        RenderedReceipt receipt = new RenderedReceipt(rendered);
+        cache(key(order.getStoreId(), order.getOrderId()), receipt);
+        logger.debug("Rendered receipt for order {} ({} bytes)", order.getOrderId(), receipt.size());
+        return receipt;
+    }
+
+    private void cache(String key, RenderedReceipt receipt) {
+        synchronized (cache) {
+            RenderedReceipt previous = cache.put(key, receipt);
+            cachedBytes += receipt.size() - (previous == null ? 0 : previous.size());
+            Iterator<RenderedReceipt> eldest = cache.values().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    // Receipts are only ever served to the store that made the sale
+    private static String key(String storeId, String orderId) {
+        return storeId + '/' + orderId;
+    }
+
+    private static String text(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String loadTemplate(ReceiptFormat format) {
+        try (InputStream in = new ClassPathResource(format.getTemplateResource()).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load receipt template " + format.getTemplateResource(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record RenderedReceipt(Map<ReceiptFormat, byte[]> formats) {
+        byte[] get(ReceiptFormat format) {
+            return formats.get(format);
+        }
+
+        long size() {
+            long size = 0;
+            for (byte[] bytes : formats.values()) {
+                size += bytes.length;
+            }
+            return size;
+        }
+    }
+}
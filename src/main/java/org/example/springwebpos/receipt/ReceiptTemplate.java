@@ -0,0 +1,137 @@
+package org.example.springwebpos.receipt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * A receipt template compiled once into literal byte runs and field slots, so rendering is a single pass of array
+ * copies and map lookups with no parsing.
+ * <p>
+ * Syntax: {@code {{field}}} inserts a value; {@code {{field:-20}}} left-aligns it in 20 columns and
+ * {@code {{field:10}}} right-aligns it in 10, truncating longer values; {@code {{@name}}} inserts the format's
+ * control sequence (ESC/POS commands); {@code {{#lines}}...{{/lines}}} repeats its body once per order line.
+ */
+final class ReceiptTemplate {
+    private static final String LINES_START = "#lines";
+    private static final String LINES_END = "/lines";
+
+    private final Segment[] segments;
+    private final Charset charset;
+    private final UnaryOperator<String> escaper;
+
+    private ReceiptTemplate(Segment[] segments, Charset charset, UnaryOperator<String> escaper) {
+        this.segments = segments;
+        this.charset = charset;
+        this.escaper = escaper;
+    }
+
+    static ReceiptTemplate compile(String source, ReceiptFormat format) {
+        List<Segment> top = new ArrayList<>();
+        List<Segment> current = top;
+        List<Segment> lines = null;
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                current.add(new Literal(source.substring(position).getBytes(format.getCharset())));
+                break;
+            }
+            if (open > position) {
+                current.add(new Literal(source.substring(position, open).getBytes(format.getCharset())));
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed {{ at offset " + open);
+            }
+            String tag = source.substring(open + 2, close).trim();
+            position = close + 2;
+            if (tag.equals(LINES_START)) {
+                if (lines != null) {
+                    throw new IllegalArgumentException("Nested {{#lines}} at offset " + open);
+                }
+                lines = new ArrayList<>();
+                current = lines;
+            } else if (tag.equals(LINES_END)) {
+                if (lines == null) {
+                    throw new IllegalArgumentException("{{/lines}} without {{#lines}} at offset " + open);
+                }
+                top.add(new Lines(lines.toArray(Segment[]::new)));
+                lines = null;
+                current = top;
+            } else if (tag.startsWith("@")) {
+                byte[] control = format.getControls().get(tag.substring(1));
+                if (control == null) {
+                    throw new IllegalArgumentException("Unknown control " + tag + " for " + format);
+                }
+                current.add(new Literal(control));
+            } else {
+                current.add(Field.parse(tag));
+            }
+        }
+        if (lines != null) {
+            throw new IllegalArgumentException("Unclosed {{#lines}}");
+        }
+        return new ReceiptTemplate(top.toArray(Segment[]::new), format.getCharset(), format.getEscaper());
+    }
+
+    byte[] render(Map<String, String> fields, List<Map<String, String>> lines) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        for (Segment segment : segments) {
+            if (segment instanceof Lines section) {
+                for (Map<String, String> line : lines) {
+                    for (Segment lineSegment : section.body) {
+                        write(lineSegment, line, out);
+                    }
+                }
+            } else {
+                write(segment, fields, out);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private void write(Segment segment, Map<String, String> values, ByteArrayOutputStream out) {
+        if (segment instanceof Literal literal) {
+            out.writeBytes(literal.bytes);
+        } else {
+            Field field = (Field) segment;
+            String value = field.fit(values.getOrDefault(field.name, ""));
+            out.writeBytes(escaper.apply(value).getBytes(charset));
+        }
+    }
+
+    private sealed interface Segment permits Literal, Field, Lines {
+    }
+
+    private record Literal(byte[] bytes) implements Segment {
+    }
+
+    private record Lines(Segment[] body) implements Segment {
+    }
+
+    private record Field(String name, int width, boolean leftAligned) implements Segment {
+        static Field parse(String tag) {
+            int colon = tag.indexOf(':');
+            if (colon < 0) {
+                return new Field(tag, 0, true);
+            }
+            int width = Integer.parseInt(tag.substring(colon + 1));
+            return new Field(tag.substring(0, colon), Math.abs(width), width < 0);
+        }
+
+        String fit(String value) {
+            if (width == 0) {
+                return value;
+            }
+            if (value.length() >= width) {
+                return value.substring(0, width);
+            }
+            String padding = " ".repeat(width - value.length());
+            return leftAligned ? value + padding : padding + value;
+        }
+    }
+}
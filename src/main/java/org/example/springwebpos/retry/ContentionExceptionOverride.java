@@ -0,0 +1,18 @@
+package org.example.springwebpos.retry;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps pooled connections that only lost a lock conflict. Some drivers (H2 among them) report a lock-wait timeout
+ * as an {@link java.sql.SQLTimeoutException}, which HikariCP takes for a dead connection and closes. The rollback
+ * then fails with "Connection is closed", that failure replaces the lock timeout, and
+ * {@link TransactionRetryExecutor} never gets to retry.
+ */
+public class ContentionExceptionOverride implements SQLExceptionOverride {
+    @java.lang.Override
+    public Override adjudicate(SQLException e) {
+        return ContentionFailure.of(e) != null ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
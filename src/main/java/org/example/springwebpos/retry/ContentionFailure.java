@@ -0,0 +1,54 @@
+package org.example.springwebpos.retry;
+
+import java.sql.SQLException;
+
+/**
+ * Lock conflicts that are worth retrying in a new transaction: the database rolled the attempt back (deadlock) or
+ * gave up waiting for a row lock, and the same work is likely to succeed once the other transaction is done.
+ */
+public enum ContentionFailure {
+    DEADLOCK,
+    LOCK_TIMEOUT;
+
+    // MySQL: ER_LOCK_DEADLOCK and ER_LOCK_WAIT_TIMEOUT; H2: LOCK_TIMEOUT_1
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int H2_LOCK_TIMEOUT = 50200;
+
+    /**
+     * Classifies the first {@link SQLException} in the cause chain by vendor error code, falling back to the
+     * standard SQL state ({@code 40001} serialization failure, {@code 40P01} deadlock, {@code HYT00} and
+     * {@code 55P03} lock timeouts).
+     *
+     * @return the kind of conflict, or {@code null} if the failure is not retryable
+     */
+    public static ContentionFailure of(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return of(sqlException);
+            }
+        }
+        return null;
+    }
+
+    private static ContentionFailure of(SQLException e) {
+        switch (e.getErrorCode()) {
+            case MYSQL_DEADLOCK:
+                return DEADLOCK;
+            case MYSQL_LOCK_WAIT_TIMEOUT:
+            case H2_LOCK_TIMEOUT:
+                return LOCK_TIMEOUT;
+            default:
+                break;
+        }
+        String state = e.getSQLState();
+        if (state == null) {
+            return null;
+        }
+        return switch (state) {
+            case "40001", "40P01" -> DEADLOCK;
+            case "HYT00", "55P03" -> LOCK_TIMEOUT;
+            default -> null;
+        };
+    }
+}
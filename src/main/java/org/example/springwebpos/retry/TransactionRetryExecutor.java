@@ -0,0 +1,105 @@
+package org.example.springwebpos.retry;
+
+import org.example.springwebpos.dto.RetryStatsDTO;
+import org.example.springwebpos.exception.RetriesExhaustedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs transactional work that lost a lock conflict ({@link ContentionFailure}): deadlock victims and lock-wait
+ * timeouts. Anything else is rethrown at once.
+ * <p>
+ * The work must open its own transaction, typically by calling a {@code @Transactional} service through its proxy,
+ * so every attempt starts from a clean rollback. Called inside an existing transaction the work runs once: that
+ * transaction is already marked rollback-only and cannot be retried from here.
+ * <p>
+ * Between attempts the caller sleeps a random time between zero and an exponentially growing ceiling ("full
+ * jitter"). Tills that collided on the same items therefore spread out instead of colliding again in lockstep.
+ * Retrying stops after {@code pos.retry.max-attempts} attempts, or when the next sleep would overrun
+ * {@code pos.retry.deadline-ms}. The last failure is then raised as {@link RetriesExhaustedException}.
+ */
+@Component
+public class TransactionRetryExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRetryExecutor.class);
+
+    @Value("${pos.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pos.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${pos.retry.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${pos.retry.max-backoff-ms:250}")
+    private long maxBackoffMs;
+
+    @Value("${pos.retry.deadline-ms:3000}")
+    private long deadlineMs;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder lockTimeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder gaveUp = new LongAdder();
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        calls.increment();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = work.get();
+                if (attempt > 1) {
+                    recovered.increment();
+                    logger.info("{} succeeded on attempt {}", operation, attempt);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                ContentionFailure failure = ContentionFailure.of(e);
+                if (failure == null) {
+                    throw e;
+                }
+                (failure == ContentionFailure.DEADLOCK ? deadlocks : lockTimeouts).increment();
+                long backoffNanos = backoffNanos(attempt);
+                if (attempt >= maxAttempts || System.nanoTime() + backoffNanos > deadline) {
+                    gaveUp.increment();
+                    logger.warn("{} gave up after {} attempts, last failure {}: {}", operation, attempt, failure,
+                            e.getMessage());
+                    throw new RetriesExhaustedException(operation + " failed after " + attempt + " attempts ("
+                            + failure + ")", e);
+                }
+                retries.increment();
+                logger.debug("{} hit {} on attempt {}, retrying in {} us", operation, failure, attempt,
+                        TimeUnit.NANOSECONDS.toMicros(backoffNanos));
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public RetryStatsDTO snapshot() {
+        return new RetryStatsDTO(calls.sum(), deadlocks.sum(), lockTimeouts.sum(), retries.sum(), recovered.sum(),
+                gaveUp.sum());
+    }
+
+    private long backoffNanos(int attempt) {
+        long ceilingMs = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(ceilingMs) + 1);
+    }
+}
@@ -0,0 +1,313 @@
+package org.example.springwebpos.scan;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.event.ItemChangeEvent;
+import org.example.springwebpos.event.ItemChangePublisher;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory barcode lookup for the scan endpoint: per store, an open-addressing table from the barcode (a
+ * {@code long}, no boxing) to an immutable {@link ItemSnapshot}. A lookup is a few array reads with no locking,
+ * no allocation and no database access.
+ * <p>
+ * The tables are built from the database at startup and kept current from {@link ItemChangePublisher} events after
+ * each commit. Changes made by other nodes are picked up by the periodic rebuild ({@code
+ * pos.barcode.rebuild-interval-ms}). Writers are serialized on the index; readers never block.
+ * <p>
+ * Slots use linear probing at a load factor of at most one half. Keys are never moved or cleared in place: removing
+ * a barcode only clears its value, and the slot is dropped when the table is next resized. A reader therefore never
+ * misses a key because a writer is moving it. Values are published with release stores before their keys, so a
+ * reader that sees a key also sees its value.
+ */
+@Component
+@RequiredArgsConstructor
+public class BarcodeIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BarcodeIndex.class);
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(ItemSnapshot[].class);
+    private static final int MIN_CAPACITY = 16;
+    private static final long MAX_GTIN = 99_999_999_999_999L;
+
+    private final ItemDAO itemDAO;
+    private final ItemChangePublisher itemChangePublisher;
+    private final InventoryLedger inventoryLedger;
+    private final ShardFanOut shardFanOut;
+
+    // Replaced as a whole when a store is added, a table is resized or the index is rebuilt
+    private volatile Map<String, Table> tables = Map.of();
+
+    // Writer state, guarded by this
+    private final Map<String, Located> byCode = new HashMap<>();
+    private List<ItemChangeEvent> missedDuringRebuild;
+    // Tables being filled by a rebuild; readers keep using the old ones until they are swapped in
+    private Map<String, Table> staged;
+
+    @PostConstruct
+    public void start() {
+        itemChangePublisher.addListener(this::apply);
+        rebuild();
+    }
+
+    /**
+     * @return the item carrying the barcode in the store, or {@code null}
+     */
+    public ItemSnapshot find(String storeId, long barcode) {
+        Table table = tables.get(storeId);
+        if (table == null || barcode <= 0) {
+            return null;
+        }
+        long[] keys = table.keys;
+        int mask = keys.length - 1;
+        for (int slot = hash(barcode) & mask; ; slot = (slot + 1) & mask) {
+            long key = (long) KEYS.getAcquire(keys, slot);
+            if (key == barcode) {
+                return (ItemSnapshot) VALUES.getAcquire(table.values, slot);
+            }
+            if (key == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reloads every store's barcodes from the shard primaries. Changes published while the query runs are applied
+     * again on top of the new tables, so none are lost to the swap.
+     */
+    @Scheduled(fixedDelayString = "${pos.barcode.rebuild-interval-ms:300000}",
+            initialDelayString = "${pos.barcode.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (this) {
+            missedDuringRebuild = new ArrayList<>();
+        }
+        List<ItemEntity> items = new ArrayList<>();
+        try {
+            shardFanOut.executeOnEveryShard(itemDAO::findAllWithBarcode).values().forEach(items::addAll);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                missedDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            staged = new HashMap<>();
+            byCode.clear();
+            for (ItemEntity item : items) {
+                int qty = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(item.getCode()) : item.getQty();
+                put(item.getStoreId(), new ItemSnapshot(item.getCode(), item.getBarcode(), item.getDescription(),
+                        item.getPrice(), qty));
+            }
+            List<ItemChangeEvent> missed = missedDuringRebuild;
+            missedDuringRebuild = null;
+            missed.forEach(this::applyLocked);
+            tables = staged;
+            staged = null;
+            logger.info("Barcode index rebuilt with {} items in {} stores", byCode.size(), tables.size());
+        }
+    }
+
+    public synchronized int size() {
+        return byCode.size();
+    }
+
+    private synchronized void apply(ItemChangeEvent event) {
+        if (missedDuringRebuild != null) {
+            missedDuringRebuild.add(event);
+        }
+        applyLocked(event);
+    }
+
+    private void applyLocked(ItemChangeEvent event) {
+        Located current = byCode.get(event.getCode());
+        switch (event.getType()) {
+            case SAVED, UPDATED -> {
+                if (current != null && (!current.storeId.equals(event.getStoreId())
+                        || event.getBarcode() == null || current.snapshot.getBarcode() != event.getBarcode())) {
+                    remove(current);
+                }
+                if (event.getBarcode() != null) {
+                    put(event.getStoreId(), new ItemSnapshot(event.getCode(), event.getBarcode(),
+                            event.getDescription(), event.getPrice(), event.getQty()));
+                }
+            }
+            case STOCK -> {
+                if (current != null) {
+                    ItemSnapshot previous = current.snapshot;
+                    put(current.storeId, new ItemSnapshot(previous.getCode(), previous.getBarcode(),
+                            previous.getDescription(), event.getPrice(), event.getQty()));
+                }
+            }
+            case DELETED -> {
+                if (current != null) {
+                    remove(current);
+                }
+            }
+        }
+    }
+
+    private void put(String storeId, ItemSnapshot snapshot) {
+        long barcode = snapshot.getBarcode();
+        Table table = tableOf(storeId);
+        if (table == null) {
+            table = publish(storeId, new Table(MIN_CAPACITY));
+        }
+        int slot = table.slotFor(barcode);
+        if (table.keys[slot] == 0) {
+            if ((table.used + 1) * 2 > table.keys.length) {
+                table = publish(storeId, table.resize(table.live + 1));
+                slot = table.slotFor(barcode);
+            }
+            table.used++;
+        }
+        if (table.values[slot] == null) {
+            table.live++;
+        }
+        VALUES.setRelease(table.values, slot, snapshot);
+        KEYS.setRelease(table.keys, slot, barcode);
+        byCode.put(snapshot.getCode(), new Located(storeId, snapshot));
+    }
+
+    private void remove(Located located) {
+        byCode.remove(located.snapshot.getCode());
+        Table table = tableOf(located.storeId);
+        long barcode = located.snapshot.getBarcode();
+        int slot = table.slotFor(barcode);
+        // Another item may have taken the barcode over since; only clear the slot if it is still ours
+        if (table.keys[slot] == barcode && table.values[slot] == located.snapshot) {
+            VALUES.setRelease(table.values, slot, null);
+            table.live--;
+        }
+    }
+
+    private Table tableOf(String storeId) {
+        return staged != null ? staged.get(storeId) : tables.get(storeId);
+    }
+
+    private Table publish(String storeId, Table table) {
+        if (staged != null) {
+            staged.put(storeId, table);
+            return table;
+        }
+        Map<String, Table> copy = new HashMap<>(tables);
+        copy.put(storeId, table);
+        tables = copy;
+        return table;
+    }
+
+    private static int hash(long barcode) {
+        // Barcodes share long prefixes (country and manufacturer), so mix all bits before masking
+        long h = barcode * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Parses a scanned GTIN-8, UPC-A (GTIN-12), EAN-13 or GTIN-14 and checks its check digit.
+     *
+     * @return the barcode as a number, or {@code -1} if the input is not a valid GTIN
+     */
+    public static long parse(String digits) {
+        int length = digits.length();
+        if (length != 8 && length != 12 && length != 13 && length != 14) {
+            return -1;
+        }
+        long barcode = 0;
+        for (int i = 0; i < length; i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            barcode = barcode * 10 + (c - '0');
+        }
+        return isValid(barcode) ? barcode : -1;
+    }
+
+    /**
+     * GTIN check: from the right, digits alternate weights 1 and 3 (the check digit has weight 1) and the weighted
+     * sum is a multiple of ten. Leading zeros don't change the sum, so every GTIN length is checked the same way.
+     */
+    public static boolean isValid(long barcode) {
+        if (barcode <= 0 || barcode > MAX_GTIN) {
+            return false;
+        }
+        int sum = 0;
+        boolean triple = false;
+        for (long rest = barcode; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            sum += triple ? digit * 3 : digit;
+            triple = !triple;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final ItemSnapshot[] values;
+        // Slots with a key (including cleared ones) and slots with a value, guarded by the index
+        private int used;
+        private int live;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new ItemSnapshot[capacity];
+        }
+
+        /**
+         * @return the slot holding the barcode, or the empty slot where it would go
+         */
+        private int slotFor(long barcode) {
+            int mask = keys.length - 1;
+            int slot = hash(barcode) & mask;
+            while (keys[slot] != 0 && keys[slot] != barcode) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Copies the live entries into a table sized for {@code entries} at a load factor of one quarter, dropping
+         * cleared slots.
+         */
+        private Table resize(int entries) {
+            int capacity = MIN_CAPACITY;
+            while (capacity < entries * 4) {
+                capacity <<= 1;
+            }
+            Table resized = new Table(capacity);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) {
+                    int target = resized.slotFor(keys[slot]);
+                    resized.keys[target] = keys[slot];
+                    resized.values[target] = values[slot];
+                    resized.used++;
+                    resized.live++;
+                }
+            }
+            return resized;
+        }
+    }
+
+    private static final class Located {
+        private final String storeId;
+        private final ItemSnapshot snapshot;
+
+        private Located(String storeId, ItemSnapshot snapshot) {
+            this.storeId = storeId;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.springwebpos.scan;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a till needs after a scan, as of the last change the {@link BarcodeIndex} saw. Immutable, so one instance is
+ * shared by every lookup until the item changes.
+ */
+@AllArgsConstructor
+@Getter
+public class ItemSnapshot {
+    private final String code;
+    private final long barcode;
+    private final String description;
+    private final double price;
+    private final int qty;
+}
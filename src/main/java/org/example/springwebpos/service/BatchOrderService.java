@@ -0,0 +1,298 @@
+package org.example.springwebpos.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.CustomerDAO;
+import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.dao.OrderDAO;
+import org.example.springwebpos.dto.BatchOrderResultDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.entity.CustomerEntity;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.entity.OrderEntity;
+import org.example.springwebpos.exception.CustomerNotFoundException;
+import org.example.springwebpos.exception.InvalidRequestException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.journal.PendingOrders;
+import org.example.springwebpos.outbox.OrderOutbox;
+import org.example.springwebpos.receipt.ReceiptRenderer;
+import org.example.springwebpos.shard.StoreContext;
+import org.example.springwebpos.util.AppUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batches of orders queued by offline terminals. Shares stock checks, pricing and entity mapping with the
+ * single-order path through {@link OrderAssembler}; everything else (lanes, the executor and the per-chunk
+ * transactions) lives here.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchOrderService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchOrderService.class);
+
+    private final OrderDAO orderDAO;
+    private final CustomerDAO customerDAO;
+    private final ItemDAO itemDAO;
+    private final InventoryLedger inventoryLedger;
+    private final PendingOrders pendingOrders;
+    private final ReceiptRenderer receiptRenderer;
+    private final OrderOutbox orderOutbox;
+    private final OrderAssembler orderAssembler;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${pos.orders.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${pos.orders.batch.parallelism:4}")
+    private int batchParallelism;
+
+    @Value("${pos.orders.batch.max-orders:10000}")
+    private int batchMaxOrders;
+
+    private ExecutorService batchExecutor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchParallelism), runnable -> {
+            Thread thread = new Thread(runnable, "order-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    /**
+     * Places a batch of orders queued by an offline terminal and reports each order's outcome in submission order.
+     * <p>
+     * Orders already stored (or repeated in the batch) are reported as duplicates, so a terminal can resend a batch
+     * whose response it lost. Orders that share an item are kept in one lane in submission order; lanes share no
+     * items and run in parallel. Each lane commits in chunks of {@code pos.orders.batch.chunk-size} orders, one
+     * transaction per chunk, so a failing chunk does not undo the others.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchOrderResultDTO> placeOrders(List<OrderDTO> orders) {
+        if (orders.size() > batchMaxOrders) {
+            throw new InvalidRequestException("A batch holds at most " + batchMaxOrders + " orders");
+        }
+        String storeId = StoreContext.current();
+        BatchOrderResultDTO[] results = new BatchOrderResultDTO[orders.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> orderIds = new HashSet<>();
+        for (int index = 0; index < orders.size(); index++) {
+            OrderDTO orderDTO = orders.get(index);
+            if (orderDTO.getOrderDetails() == null || orderDTO.getOrderDetails().isEmpty()) {
+                results[index] = batchResult(index, orderDTO, BatchOrderResultDTO.Status.FAILED, "Order has no lines");
+                continue;
+            }
+            if (orderDTO.getOrderId() == null || orderDTO.getOrderId().isEmpty()) {
+                orderDTO.setOrderId(AppUtil.createOrderId());
+            }
+            if (!orderIds.add(orderDTO.getOrderId())) {
+                results[index] = batchResult(index, orderDTO, BatchOrderResultDTO.Status.DUPLICATE,
+                        "Order repeated in batch");
+                continue;
+            }
+            accepted.add(index);
+        }
+        Set<String> existing = orderIds.isEmpty() ? Set.of() : new HashSet<>(orderDAO.findExistingIds(orderIds));
+        accepted.removeIf(index -> {
+            if (!existing.contains(orders.get(index).getOrderId())) {
+                return false;
+            }
+            results[index] = batchResult(index, orders.get(index), BatchOrderResultDTO.Status.DUPLICATE,
+                    "Order already placed");
+            return true;
+        });
+
+        List<List<Integer>> lanes = planLanes(orders, accepted);
+        logger.info("Placing batch of {} orders ({} new) in {} lanes", orders.size(), accepted.size(), lanes.size());
+        CompletableFuture.allOf(lanes.stream()
+                .map(lane -> CompletableFuture.runAsync(() -> StoreContext.callAs(storeId, () -> {
+                    placeLane(orders, lane, storeId, results);
+                    return null;
+                }), batchExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+        return List.of(results);
+    }
+
+    /**
+     * Groups orders that share items (union-find over item codes) and spreads the groups over at most
+     * {@code pos.orders.batch.parallelism} lanes, biggest group first onto the least loaded lane. Each lane lists its
+     * orders in submission order.
+     */
+    private List<List<Integer>> planLanes(List<OrderDTO> orders, List<Integer> accepted) {
+        int[] parent = new int[orders.size()];
+        for (int index = 0; index < parent.length; index++) {
+            parent[index] = index;
+        }
+        Map<String, Integer> firstOrderWithItem = new HashMap<>();
+        for (int index : accepted) {
+            for (OrderDetailDTO detail : orders.get(index).getOrderDetails()) {
+                Integer other = firstOrderWithItem.putIfAbsent(detail.getItemCode(), index);
+                if (other != null) {
+                    parent[root(parent, index)] = root(parent, other);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index : accepted) {
+            groups.computeIfAbsent(root(parent, index), key -> new ArrayList<>()).add(index);
+        }
+
+        PriorityQueue<List<Integer>> lanes = new PriorityQueue<>(Comparator.comparingInt(List::size));
+        for (int lane = 0; lane < Math.min(batchParallelism, groups.size()); lane++) {
+            lanes.add(new ArrayList<>());
+        }
+        groups.values().stream()
+                .sorted(Comparator.comparingInt(List<Integer>::size).reversed())
+                .forEach(group -> {
+                    List<Integer> lane = lanes.poll();
+                    lane.addAll(group);
+                    lanes.add(lane);
+                });
+        List<List<Integer>> planned = new ArrayList<>(lanes);
+        planned.forEach(lane -> lane.sort(null));
+        return planned;
+    }
+
+    private static int root(int[] parent, int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private void placeLane(List<OrderDTO> orders, List<Integer> lane, String storeId, BatchOrderResultDTO[] results) {
+        for (int from = 0; from < lane.size(); from += batchChunkSize) {
+            List<Integer> chunk = lane.subList(from, Math.min(lane.size(), from + batchChunkSize));
+            try {
+                Map<Integer, BatchOrderResultDTO> outcome = transactionTemplate.execute(status ->
+                        placeChunk(orders, chunk, storeId));
+                outcome.forEach((index, result) -> results[index] = result);
+            } catch (RuntimeException e) {
+                logger.warn("Batch chunk of {} orders rolled back: {}", chunk.size(), e.getMessage());
+                for (int index : chunk) {
+                    results[index] = batchResult(index, orders.get(index), BatchOrderResultDTO.Status.FAILED,
+                            "Chunk rolled back: " + describe(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Places one chunk in the current transaction. Customers and items are loaded in bulk; each order is checked
+     * against the stock left by the orders before it, and the stock taken by the whole chunk is written once per
+     * item at the end (one JDBC batch, or one ledger reservation per item).
+     */
+    private Map<Integer, BatchOrderResultDTO> placeChunk(List<OrderDTO> orders, List<Integer> chunk, String storeId) {
+        Set<String> customerIds = new HashSet<>();
+        Set<String> itemCodes = new HashSet<>();
+        for (int index : chunk) {
+            customerIds.add(orders.get(index).getCustomerId());
+            orders.get(index).getOrderDetails().forEach(detail -> itemCodes.add(detail.getItemCode()));
+        }
+        Map<String, CustomerEntity> customers = customerDAO.findAllByIdInAndStoreId(customerIds, storeId).stream()
+                .collect(Collectors.toMap(CustomerEntity::getId, Function.identity()));
+        List<ItemEntity> loaded = inventoryLedger.isEnabled()
+                ? itemDAO.findAllActiveByCodeIn(storeId, itemCodes)
+                : itemDAO.findAllByCodeInForUpdate(storeId, itemCodes);
+        Map<String, ItemEntity> items = loaded.stream()
+                .collect(Collectors.toMap(ItemEntity::getCode, Function.identity()));
+        pendingOrders.trackSale();
+        Map<String, Integer> available = new HashMap<>();
+        for (ItemEntity item : loaded) {
+            available.put(item.getCode(), orderAssembler.unheld(item.getCode(),
+                    inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(item.getCode()) : item.getQty()));
+        }
+
+        Map<Integer, BatchOrderResultDTO> outcome = new HashMap<>();
+        Map<String, Integer> taken = new LinkedHashMap<>();
+        List<OrderEntity> placed = new ArrayList<>();
+        List<OrderDTO> placedOrders = new ArrayList<>();
+        for (int index : chunk) {
+            OrderDTO orderDTO = orders.get(index);
+            try {
+                orderDTO.setStoreId(storeId);
+                CustomerEntity customer = customers.get(orderDTO.getCustomerId());
+                if (customer == null) {
+                    throw new CustomerNotFoundException("Customer not found with ID: " + orderDTO.getCustomerId());
+                }
+                Map<String, Integer> requested = new HashMap<>();
+                List<ItemEntity> lineItems = new ArrayList<>();
+                for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
+                    ItemEntity item = items.get(detail.getItemCode());
+                    if (item == null) {
+                        throw ItemNotFound.withCode(detail.getItemCode());
+                    }
+                    requested.merge(item.getCode(), detail.getQuantity(), Integer::sum);
+                    detail.setUnitPrice(item.getPrice());
+                    lineItems.add(item);
+                }
+                requested.forEach((code, quantity) -> orderAssembler.checkStock(code, quantity, available.get(code)));
+                orderAssembler.calculateTotals(orderDTO);
+
+                requested.forEach((code, quantity) -> {
+                    available.merge(code, -quantity, Integer::sum);
+                    taken.merge(code, quantity, Integer::sum);
+                });
+                placed.add(orderAssembler.toOrderEntity(orderDTO, customer, lineItems));
+                placedOrders.add(orderDTO);
+                receiptRenderer.renderAfterCommit(orderDTO, OrderAssembler.itemNames(lineItems));
+                outcome.put(index, batchResult(index, orderDTO, BatchOrderResultDTO.Status.CREATED, null));
+            } catch (RuntimeException e) {
+                outcome.put(index, batchResult(index, orderDTO, BatchOrderResultDTO.Status.FAILED, describe(e)));
+            }
+        }
+        if (placed.isEmpty()) {
+            return outcome;
+        }
+
+        orderAssembler.takeStock(storeId, items, taken);
+        orderDAO.saveAll(placed);
+        orderOutbox.ordersPlaced(placedOrders);
+        logger.debug("Placed chunk: orders={} failed={} items={}", placed.size(), chunk.size() - placed.size(),
+                taken.size());
+        return outcome;
+    }
+
+    private static BatchOrderResultDTO batchResult(int index, OrderDTO orderDTO, BatchOrderResultDTO.Status status,
+                                                   String message) {
+        return new BatchOrderResultDTO(index, orderDTO.getOrderId(), status, message,
+                status == BatchOrderResultDTO.Status.CREATED ? orderDTO : null);
+    }
+
+    private static String describe(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.springwebpos.service;
+
+import org.example.springwebpos.dto.CartCheckoutDTO;
+import org.example.springwebpos.dto.CartDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+
+public interface CartService {
+    CartDTO createCart(CartDTO cartDTO);
+
+    CartDTO getCart(String cartId);
+
+    CartDTO addLine(String cartId, OrderDetailDTO line);
+
+    CartDTO removeLine(String cartId, String itemCode, Integer quantity);
+
+    OrderDTO checkout(String cartId, CartCheckoutDTO checkoutDTO);
+
+    void abandonCart(String cartId);
+}
@@ -0,0 +1,218 @@
+package org.example.springwebpos.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.cart.Cart;
+import org.example.springwebpos.cart.CartStore;
+import org.example.springwebpos.dao.CustomerDAO;
+import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.dto.CartCheckoutDTO;
+import org.example.springwebpos.dto.CartDTO;
+import org.example.springwebpos.dto.CartLineDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.exception.CartNotFoundException;
+import org.example.springwebpos.exception.CustomerNotFoundException;
+import org.example.springwebpos.exception.InsufficientStockException;
+import org.example.springwebpos.exception.InvalidRequestException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.journal.PendingOrders;
+import org.example.springwebpos.pricing.Basket;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.retry.TransactionRetryExecutor;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side carts. Each scan looks up one item, checks it against current stock and re-prices the basket in
+ * memory, so by checkout the order is fully priced and only stock reservation and the insert are left. Stock seen
+ * while scanning is advisory; checkout checks it again under lock.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartServiceIMPL implements CartService {
+    private static final Logger logger = LoggerFactory.getLogger(CartServiceIMPL.class);
+
+    private final CartStore cartStore;
+    private final ItemDAO itemDAO;
+    private final CustomerDAO customerDAO;
+    private final InventoryLedger inventoryLedger;
+    private final PendingOrders pendingOrders;
+    private final PricingEngine pricingEngine;
+    private final OrderService orderService;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+
+    @Value("${pos.cart.max-lines:200}")
+    private int maxLines;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO createCart(CartDTO cartDTO) {
+        if (cartDTO.getCustomerId() != null && !customerDAO.existsByIdAndStoreId(cartDTO.getCustomerId(),
+                StoreContext.current())) {
+            throw new CustomerNotFoundException("Customer not found with ID: " + cartDTO.getCustomerId());
+        }
+        Cart cart = cartStore.create(StoreContext.current());
+        synchronized (cart) {
+            cart.setCustomerId(cartDTO.getCustomerId());
+            cart.setDiscountPercent(cartDTO.getDiscountPercent());
+            logger.debug("Created cart {} for customer {}", cart.getCartId(), cart.getCustomerId());
+            return toCartDTO(price(cart));
+        }
+    }
+
+    @Override
+    public CartDTO getCart(String cartId) {
+        Cart cart = findCart(cartId);
+        synchronized (cart) {
+            return toCartDTO(cart);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO addLine(String cartId, OrderDetailDTO line) {
+        Cart cart = findCart(cartId);
+        synchronized (cart) {
+            checkOpen(cart);
+            ItemEntity item = itemDAO.findByCodeAndStoreIdAndRetiredFalse(line.getItemCode(), cart.getStoreId())
+                    .orElseThrow(() -> {
+                        logger.debug("Item ID {} not found", line.getItemCode());
+                        return ItemNotFound.withCode(line.getItemCode());
+                    });
+            Basket basket = cart.getBasket();
+            int index = cart.lineOf(item.getCode());
+            int quantity = (index < 0 ? 0 : basket.getQuantity(index)) + line.getQuantity();
+            int available = (inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(item.getCode()) : item.getQty())
+                    - pendingOrders.getHeld(item.getCode());
+            if (available < quantity) {
+                logger.debug("Insufficient quantity for item: {} (in cart: {}, available: {})",
+                        item.getCode(), quantity, available);
+                throw new InsufficientStockException("Insufficient quantity for item: " + item.getCode());
+            }
+            if (index >= 0) {
+                basket.setQuantity(index, quantity);
+            } else if (basket.size() >= maxLines) {
+                throw new InvalidRequestException("A cart holds at most " + maxLines + " lines");
+            } else {
+                basket.add(item.getCode(), PricingEngine.toMinor(item.getPrice()), quantity);
+                cart.getDescriptions().put(item.getCode(), item.getDescription());
+            }
+            return toCartDTO(price(cart));
+        }
+    }
+
+    @Override
+    public CartDTO removeLine(String cartId, String itemCode, Integer quantity) {
+        Cart cart = findCart(cartId);
+        synchronized (cart) {
+            checkOpen(cart);
+            Basket basket = cart.getBasket();
+            int index = cart.lineOf(itemCode);
+            if (index < 0) {
+                throw new ItemNotFound("Item " + itemCode + " is not in the cart");
+            }
+            int remaining = quantity == null ? 0 : basket.getQuantity(index) - quantity;
+            if (remaining > 0) {
+                basket.setQuantity(index, remaining);
+            } else {
+                basket.remove(index);
+                cart.getDescriptions().remove(itemCode);
+            }
+            return toCartDTO(price(cart));
+        }
+    }
+
+    /**
+     * Places the cart as an order at the prices it was scanned at and closes the cart. Runs outside any caller
+     * transaction, so the cart is only closed once the order has committed, and lock conflicts are retried with a
+     * fresh transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDTO checkout(String cartId, CartCheckoutDTO checkoutDTO) {
+        Cart cart = findCart(cartId);
+        synchronized (cart) {
+            checkOpen(cart);
+            Basket basket = price(cart).getBasket();
+            if (basket.size() == 0) {
+                throw new InvalidRequestException("Cart " + cartId + " is empty");
+            }
+            String customerId = checkoutDTO.getCustomerId() != null
+                    ? checkoutDTO.getCustomerId() : cart.getCustomerId();
+            if (customerId == null) {
+                throw new InvalidRequestException("A customer is required to check out");
+            }
+            List<OrderDetailDTO> details = new ArrayList<>(basket.size());
+            for (int line = 0; line < basket.size(); line++) {
+                details.add(new OrderDetailDTO(basket.getItemCode(line),
+                        PricingEngine.toMajor(basket.getUnitPrice(line)), basket.getQuantity(line),
+                        PricingEngine.toMajor(basket.getLineTotal(line))));
+            }
+            OrderDTO order = new OrderDTO();
+            order.setCustomerId(customerId);
+            order.setOrderDate(LocalDate.now().toString());
+            order.setCash(checkoutDTO.getCash());
+            order.setTotal(PricingEngine.toMajor(basket.getTotal()));
+            order.setDiscount(PricingEngine.toMajor(basket.getDiscount()));
+            order.setSubTotal(PricingEngine.toMajor(basket.getSubTotal()));
+            order.setOrderDetails(details);
+
+            OrderDTO placedOrder = transactionRetryExecutor.execute("checkout",
+                    () -> orderService.placePricedOrder(order));
+            cartStore.remove(cartId);
+            logger.debug("Checked out cart {} as order {}", cartId, placedOrder.getOrderId());
+            return placedOrder;
+        }
+    }
+
+    @Override
+    public void abandonCart(String cartId) {
+        findCart(cartId);
+        cartStore.remove(cartId);
+    }
+
+    private Cart findCart(String cartId) {
+        Cart cart = cartStore.get(cartId);
+        // Carts are per store; another store's cart id is treated as unknown
+        if (cart == null || !cart.getStoreId().equals(StoreContext.current())) {
+            throw new CartNotFoundException("Cart not found with ID: " + cartId);
+        }
+        return cart;
+    }
+
+    private static void checkOpen(Cart cart) {
+        if (cart.isClosed()) {
+            throw new CartNotFoundException("Cart not found with ID: " + cart.getCartId());
+        }
+    }
+
+    private Cart price(Cart cart) {
+        pricingEngine.price(cart.getBasket(), PricingEngine.toManualBasisPoints(cart.getDiscountPercent()));
+        return cart;
+    }
+
+    private static CartDTO toCartDTO(Cart cart) {
+        Basket basket = cart.getBasket();
+        List<CartLineDTO> lines = new ArrayList<>(basket.size());
+        for (int line = 0; line < basket.size(); line++) {
+            String itemCode = basket.getItemCode(line);
+            lines.add(new CartLineDTO(itemCode, cart.getDescriptions().get(itemCode),
+                    PricingEngine.toMajor(basket.getUnitPrice(line)), basket.getQuantity(line),
+                    PricingEngine.toMajor(basket.getLineTotal(line))));
+        }
+        return new CartDTO(cart.getCartId(), cart.getStoreId(), cart.getCustomerId(), cart.getDiscountPercent(),
+                PricingEngine.toMajor(basket.getTotal()), PricingEngine.toMajor(basket.getDiscount()),
+                PricingEngine.toMajor(basket.getSubTotal()), lines);
+    }
+}
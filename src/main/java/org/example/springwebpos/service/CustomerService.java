@@ -2,17 +2,22 @@ package org.example.springwebpos.service;
 
 import org.example.springwebpos.customObj.CustomerResponse;
 import org.example.springwebpos.dto.CustomerDTO;
+import org.example.springwebpos.util.StagedImage;
 
+import java.io.IOException;
 import java.util.List;
 
 public interface CustomerService {
-    void saveCustomer(CustomerDTO customerDTO);
+    void saveCustomer(CustomerDTO customerDTO, StagedImage profilePic);
 
-    void updateCustomer(CustomerDTO customerDTO);
+    /**
+     * Changes only the non-null fields of {@code customerDTO}; a null {@code profilePic} keeps the current picture.
+     */
+    void updateCustomer(CustomerDTO customerDTO, StagedImage profilePic) throws IOException;
 
     void deleteCustomer(String customerId);
 
-    CustomerResponse getSelectedCustomer(String customerId);
+    CustomerResponse getSelectedCustomer(String customerId, boolean fullPicture);
 
-    List<CustomerDTO> getAllCustomers();
+    List<CustomerDTO> getAllCustomers(boolean fullPicture);
 }
@@ -4,19 +4,28 @@ import lombok.RequiredArgsConstructor;
 import org.example.springwebpos.customObj.CustomerErrorResponse;
 import org.example.springwebpos.customObj.CustomerResponse;
 import org.example.springwebpos.dao.CustomerDAO;
+import org.example.springwebpos.dao.OrderDAO;
 import org.example.springwebpos.dto.CustomerDTO;
+import org.example.springwebpos.dto.OrderDTO;
 import org.example.springwebpos.entity.CustomerEntity;
 import org.example.springwebpos.exception.CustomerNotFoundException;
 import org.example.springwebpos.exception.DataPersistFailedException;
+import org.example.springwebpos.shard.StoreContext;
 import org.example.springwebpos.util.AppUtil;
 import org.example.springwebpos.util.Mapping;
+import org.example.springwebpos.util.ProfilePicProcessor;
+import org.example.springwebpos.util.StagedImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -32,31 +41,60 @@ public class CustomerServiceIMPL implements CustomerService {
     @Autowired
     private final Mapping mapping;
 
+    @Autowired
+    private final ProfilePicProcessor profilePicProcessor;
+
+    @Autowired
+    private final OrderDAO orderDAO;
+
     @Override
-    public void saveCustomer(CustomerDTO customerDTO) {
+    public void saveCustomer(CustomerDTO customerDTO, StagedImage profilePic) {
         logger.info("Saving customer: Name={}", customerDTO.getName());
         customerDTO.setId(AppUtil.createCustomerId()); // Assuming you have a method for generating customer IDs
-        CustomerEntity savedCustomer = customerDAO.save(mapping.convertToCustomerEntity(customerDTO));
+        CustomerEntity customerEntity = mapping.convertToCustomerEntity(customerDTO);
+        customerEntity.setStoreId(StoreContext.current());
+        customerEntity.setProfilePicHash(profilePic != null ? profilePic.getSha256() : null);
+        CustomerEntity savedCustomer = customerDAO.save(customerEntity);
         if (savedCustomer == null) {
             logger.error("Failed to persist customer data: Name={}", customerDTO.getName());
             throw new DataPersistFailedException("Cannot save data");
         }
+        profilePicProcessor.generateThumbnailAfterCommit(savedCustomer.getId(), profilePic);
         logger.info("Customer saved successfully: Name={}", customerDTO.getName());
     }
 
     @Override
-    public void updateCustomer(CustomerDTO customerDTO) {
+    public void updateCustomer(CustomerDTO customerDTO, StagedImage profilePic) throws IOException {
         logger.info("Updating customer: ID={}", customerDTO.getId());
-        Optional<CustomerEntity> tmpCustomer = customerDAO.findById(customerDTO.getId());
+        Optional<CustomerEntity> tmpCustomer = customerDAO.findByIdAndStoreId(customerDTO.getId(),
+                StoreContext.current());
         if (!tmpCustomer.isPresent()) {
             logger.warn("Customer not found: ID={}", customerDTO.getId());
-            throw new CustomerNotFoundException("Customer Not Found");
+            throw CustomerNotFoundException.INSTANCE;
         } else {
-            tmpCustomer.get().setName(customerDTO.getName());
-            tmpCustomer.get().setAddress(customerDTO.getAddress());
-            tmpCustomer.get().setMobile(customerDTO.getMobile());
-            tmpCustomer.get().setProfilePic(customerDTO.getProfilePic());
-            customerDAO.save(tmpCustomer.get());
+            // Only supplied fields change; @DynamicUpdate keeps untouched columns out of the UPDATE
+            CustomerEntity customer = tmpCustomer.get();
+            if (customerDTO.getName() != null) {
+                customer.setName(customerDTO.getName());
+            }
+            if (customerDTO.getAddress() != null) {
+                customer.setAddress(customerDTO.getAddress());
+            }
+            if (customerDTO.getMobile() != null) {
+                customer.setMobile(customerDTO.getMobile());
+            }
+            if (profilePic != null) {
+                String hash = profilePic.getSha256();
+                if (hash.equals(customer.getProfilePicHash())) {
+                    logger.debug("Profile picture unchanged for customer {}, not rewritten", customerDTO.getId());
+                } else {
+                    customer.setProfilePic(profilePic.toBase64());
+                    customer.setProfilePicHash(hash);
+                    // The old thumbnail no longer matches; the full picture is served until the new one is ready
+                    customer.setProfilePicThumb(null);
+                    profilePicProcessor.generateThumbnailAfterCommit(customerDTO.getId(), profilePic);
+                }
+            }
             logger.info("Customer updated successfully: ID={}", customerDTO.getId());
         }
     }
@@ -64,10 +102,11 @@ public class CustomerServiceIMPL implements CustomerService {
     @Override
     public void deleteCustomer(String customerId) {
         logger.info("Deleting customer: ID={}", customerId);
-        Optional<CustomerEntity> selectedCustomerId = customerDAO.findById(customerId);
+        Optional<CustomerEntity> selectedCustomerId = customerDAO.findByIdAndStoreId(customerId,
+                StoreContext.current());
         if (!selectedCustomerId.isPresent()) {
             logger.warn("Customer not found for deletion: ID={}", customerId);
-            throw new CustomerNotFoundException("Customer not found");
+            throw CustomerNotFoundException.INSTANCE;
         } else {
             customerDAO.deleteById(customerId);
             logger.info("Customer deleted successfully: ID={}", customerId);
@@ -75,10 +114,12 @@ public class CustomerServiceIMPL implements CustomerService {
     }
 
     @Override
-    public CustomerResponse getSelectedCustomer(String customerId) {
+    @Transactional(readOnly = true)
+    public CustomerResponse getSelectedCustomer(String customerId, boolean fullPicture) {
         logger.info("Fetching customer: ID={}", customerId);
-        if (customerDAO.existsById(customerId)) {
-            return mapping.convertToCUstomerDTO(customerDAO.getReferenceById(customerId));
+        Optional<CustomerEntity> customer = customerDAO.findByIdAndStoreId(customerId, StoreContext.current());
+        if (customer.isPresent()) {
+            return withPicture(mapping.convertToCUstomerDTO(customer.get()), customer.get(), fullPicture);
         } else {
             logger.warn("Customer not found: ID={}", customerId);
             return new CustomerErrorResponse("0", "Customer not found");
@@ -86,8 +127,31 @@ public class CustomerServiceIMPL implements CustomerService {
     }
 
     @Override
-    public List<CustomerDTO> getAllCustomers() {
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> getAllCustomers(boolean fullPicture) {
         logger.info("Fetching all customers");
-        return mapping.convertCustomerListToDTO(customerDAO.findAll());
+        String storeId = StoreContext.current();
+        // Columns rather than entities, so the full pictures aren't loaded just to be replaced by thumbnails
+        List<Object[]> rows = fullPicture ? customerDAO.findRowsWithFullPictureByStoreId(storeId)
+                : customerDAO.findRowsByStoreId(storeId);
+        Map<String, List<OrderDTO>> ordersByCustomer = new HashMap<>();
+        for (OrderDTO order : mapping.convertToOrderListDTO(orderDAO.findAllWithDetailsByCustomerStoreId(storeId))) {
+            ordersByCustomer.computeIfAbsent(order.getCustomerId(), id -> new ArrayList<>()).add(order);
+        }
+        List<CustomerDTO> customerDTOs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String id = (String) row[0];
+            customerDTOs.add(new CustomerDTO(id, (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                    ordersByCustomer.getOrDefault(id, new ArrayList<>())));
+        }
+        return customerDTOs;
+    }
+
+    // Serve the thumbnail unless the full picture is asked for or the thumbnail isn't ready yet
+    private CustomerDTO withPicture(CustomerDTO customerDTO, CustomerEntity customer, boolean fullPicture) {
+        if (!fullPicture && customer.getProfilePicThumb() != null) {
+            customerDTO.setProfilePic(customer.getProfilePicThumb());
+        }
+        return customerDTO;
     }
 }
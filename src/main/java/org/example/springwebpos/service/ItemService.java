@@ -2,17 +2,21 @@ package org.example.springwebpos.service;
 
 import org.example.springwebpos.customObj.ItemResponse;
 import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.dto.ItemPatchDTO;
+import org.example.springwebpos.dto.LowStockAlertDTO;
 
 import java.util.List;
 
 public interface ItemService {
     void saveItem(ItemDTO itemDTO);
 
-    void updateItem(String itemCode, ItemDTO itemDTO);
+    void updateItem(String itemCode, ItemPatchDTO itemPatchDTO);
 
     void deleteItem(String code);
 
     ItemResponse getSelectedItem(String code);
 
     List<ItemDTO> getAllItems();
+
+    List<LowStockAlertDTO> getLowStockItems();
 }
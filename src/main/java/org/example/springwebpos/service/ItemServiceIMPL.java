@@ -5,9 +5,17 @@ import org.example.springwebpos.customObj.ItemErrorResponse;
 import org.example.springwebpos.customObj.ItemResponse;
 import org.example.springwebpos.dao.ItemDAO;
 import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.dto.ItemPatchDTO;
+import org.example.springwebpos.dto.LowStockAlertDTO;
 import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.event.ItemChangeEvent;
+import org.example.springwebpos.event.ItemChangePublisher;
 import org.example.springwebpos.exception.DataPersistFailedException;
+import org.example.springwebpos.exception.DuplicateBarcodeException;
 import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.inventory.LowStockAlerts;
+import org.example.springwebpos.shard.StoreContext;
 import org.example.springwebpos.util.AppUtil;
 import org.example.springwebpos.util.Mapping;
 import org.slf4j.Logger;
@@ -32,29 +40,70 @@ public class ItemServiceIMPL implements ItemService {
     @Autowired
     private final Mapping mapping;
 
+    @Autowired
+    private final ItemChangePublisher itemChangePublisher;
+
+    @Autowired
+    private final InventoryLedger inventoryLedger;
+
+    @Autowired
+    private final LowStockAlerts lowStockAlerts;
+
     @Override
     public void saveItem(ItemDTO itemDTO) {
         logger.info("Saving item with description: {}", itemDTO.getDescription());
         itemDTO.setCode(AppUtil.createItemId());
-        ItemEntity savedItem = itemDAO.save(mapping.convertToItemEntity(itemDTO));
+        ItemEntity itemEntity = mapping.convertToItemEntity(itemDTO);
+        itemEntity.setStoreId(StoreContext.current());
+        if (itemEntity.getBarcode() != null) {
+            checkBarcodeFree(itemEntity.getStoreId(), itemEntity.getBarcode());
+        }
+        ItemEntity savedItem = itemDAO.save(itemEntity);
         if (savedItem == null) {
             logger.error("Failed to save item: {}", itemDTO);
             throw new DataPersistFailedException("Cannot save data");
         }
+        inventoryLedger.refreshAfterCommit(savedItem.getCode());
+        lowStockAlerts.checkLevel(savedItem);
+        itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.SAVED, savedItem));
         logger.info("Item saved successfully with code: {}", itemDTO.getCode());
     }
 
+    /**
+     * Applies only the fields present in the patch. The entity is {@code @DynamicUpdate}, so the UPDATE lists just
+     * the columns whose value actually changed, and nothing is written if none did.
+     */
     @Override
-    public void updateItem(String itemCode, ItemDTO incomeItemDTO) {
+    public void updateItem(String itemCode, ItemPatchDTO patch) {
         logger.info("Updating item with code: {}", itemCode);
-        Optional<ItemEntity> tmpItemEntity = itemDAO.findById(itemCode);
+        Optional<ItemEntity> tmpItemEntity = itemDAO.findByCodeAndStoreIdAndRetiredFalse(itemCode,
+                StoreContext.current());
         if (!tmpItemEntity.isPresent()) {
             logger.warn("Item with code {} not found", itemCode);
-            throw new ItemNotFound("Item not found");
+            throw ItemNotFound.withCode(itemCode);
         } else {
-            tmpItemEntity.get().setDescription(incomeItemDTO.getDescription());
-            tmpItemEntity.get().setPrice(incomeItemDTO.getPrice());
-            tmpItemEntity.get().setQty(incomeItemDTO.getQty());
+            ItemEntity item = tmpItemEntity.get();
+            if (patch.getDescription() != null) {
+                item.setDescription(patch.getDescription());
+            }
+            if (patch.getPrice() != null) {
+                item.setPrice(patch.getPrice());
+            }
+            if (patch.getQty() != null) {
+                item.setQty(patch.getQty());
+                inventoryLedger.refreshAfterCommit(itemCode);
+            }
+            if (patch.getReorderLevel() != null) {
+                item.setReorderLevel(patch.getReorderLevel());
+            }
+            if (patch.getBarcode() != null && !patch.getBarcode().equals(item.getBarcode())) {
+                checkBarcodeFree(item.getStoreId(), patch.getBarcode());
+                item.setBarcode(patch.getBarcode());
+            }
+            if (patch.getQty() != null || patch.getReorderLevel() != null) {
+                lowStockAlerts.checkLevel(item);
+            }
+            itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.UPDATED, item));
             logger.info("Item with code {} updated successfully", itemCode);
         }
     }
@@ -62,21 +111,27 @@ public class ItemServiceIMPL implements ItemService {
     @Override
     public void deleteItem(String code) {
         logger.info("Deleting item with code: {}", code);
-        Optional<ItemEntity> findId = itemDAO.findById(code);
-        if (!findId.isPresent()) {
+        // Soft delete: one UPDATE, the item's order history is not loaded
+        String storeId = StoreContext.current();
+        if (itemDAO.retire(storeId, code) == 0) {
             logger.warn("Item with code {} not found", code);
-            throw new ItemNotFound("Item not found");
+            throw ItemNotFound.withCode(code);
         } else {
-            itemDAO.deleteById(code);
+            inventoryLedger.forgetAfterCommit(code);
+            lowStockAlerts.clearAfterCommit(code);
+            itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.DELETED, storeId, code, 0,
+                    0));
             logger.info("Item with code {} deleted successfully", code);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemResponse getSelectedItem(String code) {
         logger.info("Fetching item with code: {}", code);
-        if (itemDAO.existsById(code)) {
-            return mapping.convertToItemDTO(itemDAO.getReferenceById(code));
+        Optional<ItemEntity> item = itemDAO.findByCodeAndStoreIdAndRetiredFalse(code, StoreContext.current());
+        if (item.isPresent()) {
+            return mapping.convertToItemDTO(item.get());
         } else {
             logger.warn("Item with code {} not found", code);
             return new ItemErrorResponse("0", "Item not found");
@@ -84,8 +139,23 @@ public class ItemServiceIMPL implements ItemService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<LowStockAlertDTO> getLowStockItems() {
+        // Served from the alert buffer maintained at checkout, no query against items
+        return lowStockAlerts.getAlerts(StoreContext.current());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ItemDTO> getAllItems() {
         logger.info("Fetching all items from database");
-        return mapping.convertItemListToDTO(itemDAO.findAll());
+        return mapping.convertItemListToDTO(itemDAO.findAllByStoreIdAndRetiredFalse(StoreContext.current()));
+    }
+
+    private void checkBarcodeFree(String storeId, long barcode) {
+        if (itemDAO.existsByStoreIdAndBarcode(storeId, barcode)) {
+            logger.warn("Barcode {} is already used in store {}", barcode, storeId);
+            throw new DuplicateBarcodeException("Barcode " + barcode + " is already assigned to another item");
+        }
     }
 }
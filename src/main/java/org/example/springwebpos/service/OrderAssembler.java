@@ -0,0 +1,158 @@
+package org.example.springwebpos.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.entity.CustomerEntity;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.entity.OrderDetailEntity;
+import org.example.springwebpos.entity.OrderEntity;
+import org.example.springwebpos.event.ItemChangeEvent;
+import org.example.springwebpos.event.ItemChangePublisher;
+import org.example.springwebpos.exception.InsufficientCashException;
+import org.example.springwebpos.exception.InsufficientStockException;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.inventory.LowStockAlerts;
+import org.example.springwebpos.journal.PendingOrders;
+import org.example.springwebpos.pricing.Basket;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.util.Mapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock checks, pricing and entity mapping shared by {@link OrderServiceIMPL} and {@link BatchOrderService}.
+ * Callers own the transaction.
+ */
+@Component
+@RequiredArgsConstructor
+class OrderAssembler {
+    private static final Logger logger = LoggerFactory.getLogger(OrderAssembler.class);
+    private static final String TAKE_STOCK_SQL = "UPDATE items SET qty = qty - ? WHERE code = ? AND storeId = ?";
+
+    private final Mapping mapping;
+    private final InventoryLedger inventoryLedger;
+    private final LowStockAlerts lowStockAlerts;
+    private final ItemChangePublisher itemChangePublisher;
+    private final PendingOrders pendingOrders;
+    private final PricingEngine pricingEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes stock from {@code items}, which must all belong to {@code storeId}.
+     */
+    void takeStock(String storeId, Map<String, ItemEntity> items, Map<String, Integer> taken) {
+        Map<String, Integer> remaining = new HashMap<>();
+        if (inventoryLedger.isEnabled()) {
+            taken.forEach((code, quantity) -> {
+                int left = inventoryLedger.reserve(code, quantity);
+                if (unheld(code, left) < 0) {
+                    // A till sold the same item since the stock was checked; reservations so far roll back
+                    throw insufficientStock(code, quantity, inventoryLedger.getAvailable(code));
+                }
+                remaining.put(code, left);
+            });
+        } else {
+            List<Object[]> updates = new ArrayList<>(taken.size());
+            taken.forEach((code, quantity) -> {
+                updates.add(new Object[]{quantity, code, storeId});
+                remaining.put(code, items.get(code).getQty() - quantity);
+            });
+            jdbcTemplate.batchUpdate(TAKE_STOCK_SQL, updates);
+        }
+        taken.forEach((code, quantity) -> {
+            ItemEntity item = items.get(code);
+            int left = remaining.get(code);
+            lowStockAlerts.checkSale(item, left + quantity, left);
+            itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, storeId,
+                    code, item.getPrice(), left));
+        });
+    }
+
+    /**
+     * Stock that journaled orders awaiting replay have not already sold.
+     */
+    int unheld(String itemCode, int available) {
+        return available - pendingOrders.getHeld(itemCode);
+    }
+
+    void checkStock(String itemCode, int quantity, int available) {
+        if (available < quantity) {
+            throw insufficientStock(itemCode, quantity, available);
+        }
+    }
+
+    InsufficientStockException insufficientStock(String itemCode, int quantity, int available) {
+        logger.debug("Insufficient quantity for item: {} (requested: {}, available: {})",
+                itemCode, quantity, available);
+        return new InsufficientStockException("Insufficient quantity for item: " + itemCode);
+    }
+
+    /**
+     * Fills in line totals, subtotal, discount and balance from the unit prices already set on the details.
+     * {@code orderDTO.discount} comes in as a percentage and goes out as an amount.
+     */
+    void calculateTotals(OrderDTO orderDTO) {
+        List<OrderDetailDTO> details = orderDTO.getOrderDetails();
+        Basket basket = new Basket(details.size());
+        for (OrderDetailDTO detail : details) {
+            basket.add(detail.getItemCode(), PricingEngine.toMinor(detail.getUnitPrice()), detail.getQuantity());
+        }
+        pricingEngine.price(basket, PricingEngine.toManualBasisPoints(orderDTO.getDiscount()));
+
+        long balance = PricingEngine.toMinor(orderDTO.getCash()) - basket.getSubTotal();
+        logger.debug("Priced order {} in cents: total={}, discount={}, subTotal={}, balance={}",
+                orderDTO.getOrderId(), basket.getTotal(), basket.getDiscount(), basket.getSubTotal(), balance);
+
+        // Check if cash is enough to place the order
+        if (balance < 0) {
+            logger.debug("Insufficient cash for order {}", orderDTO.getOrderId());
+            throw InsufficientCashException.INSTANCE;
+        }
+
+        for (int line = 0; line < details.size(); line++) {
+            details.get(line).setTotalPrice(PricingEngine.toMajor(basket.getLineTotal(line)));
+        }
+        orderDTO.setTotal(PricingEngine.toMajor(basket.getTotal()));
+        orderDTO.setDiscount(PricingEngine.toMajor(basket.getDiscount()));
+        orderDTO.setSubTotal(PricingEngine.toMajor(basket.getSubTotal()));
+        orderDTO.setBalance(PricingEngine.toMajor(balance));
+    }
+
+    static Map<String, String> itemNames(List<ItemEntity> items) {
+        Map<String, String> names = new HashMap<>();
+        for (ItemEntity item : items) {
+            if (item.getDescription() != null) {
+                names.put(item.getCode(), item.getDescription());
+            }
+        }
+        return names;
+    }
+
+    OrderEntity toOrderEntity(OrderDTO orderDTO, CustomerEntity customer, List<ItemEntity> items) {
+        // Convert DTO to Entity and set customer
+        OrderEntity orderEntity = mapping.convertToOrderEntity(orderDTO);
+        orderEntity.setCustomer(customer);
+
+        List<OrderDetailEntity> orderDetails = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            OrderDetailDTO orderDetailDTO = orderDTO.getOrderDetails().get(i);
+            OrderDetailEntity orderDetail = new OrderDetailEntity();
+            orderDetail.setOrder(orderEntity);
+            orderDetail.setItem(items.get(i));
+            orderDetail.setQuantity(orderDetailDTO.getQuantity());
+            orderDetail.setUnitPrice(orderDetailDTO.getUnitPrice());
+            orderDetail.setTotalPrice(orderDetailDTO.getTotalPrice());
+            orderDetails.add(orderDetail);
+        }
+        orderEntity.setOrderDetails(orderDetails);
+        return orderEntity;
+    }
+}
@@ -1,7 +1,27 @@
 package org.example.springwebpos.service;
 
 import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.StoreSalesDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface OrderService {
     OrderDTO placeOrder(OrderDTO orderDTO);
+
+    OrderDTO priceOrder(OrderDTO orderDTO);
+
+    OrderDTO placePricedOrder(OrderDTO orderDTO);
+
+    Map<String, Integer> getAvailableStock(Collection<String> itemCodes);
+
+    int replayOrders(List<OrderDTO> orders);
+
+    List<StoreSalesDTO> getSalesByStore();
+
+    OrderDTO getOrder(String orderId);
+
+    Optional<OrderDTO> findPlacedOrder(String orderId);
 }
@@ -3,22 +3,46 @@ package org.example.springwebpos.service;
 import lombok.RequiredArgsConstructor;
 import org.example.springwebpos.dao.CustomerDAO;
 import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.dao.OrderArchiveDAO;
 import org.example.springwebpos.dao.OrderDAO;
 import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.dto.StoreSalesDTO;
 import org.example.springwebpos.entity.CustomerEntity;
 import org.example.springwebpos.entity.ItemEntity;
-import org.example.springwebpos.entity.OrderDetailEntity;
 import org.example.springwebpos.entity.OrderEntity;
+import org.example.springwebpos.event.ItemChangeEvent;
+import org.example.springwebpos.event.ItemChangePublisher;
+import org.example.springwebpos.exception.CustomerNotFoundException;
 import org.example.springwebpos.exception.InsufficientCashException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.exception.OrderNotFoundException;
+import org.example.springwebpos.inventory.InventoryLedger;
+import org.example.springwebpos.inventory.LowStockAlerts;
+import org.example.springwebpos.journal.PendingOrders;
+import org.example.springwebpos.outbox.OrderOutbox;
+import org.example.springwebpos.receipt.ReceiptRenderer;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.example.springwebpos.shard.StoreContext;
 import org.example.springwebpos.util.AppUtil;
+import org.example.springwebpos.util.LogSampler;
 import org.example.springwebpos.util.Mapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,116 +50,320 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderServiceIMPL implements OrderService {
     private final OrderDAO orderDAO;
+    private final OrderArchiveDAO orderArchiveDAO;
     private final CustomerDAO customerDAO;
     private final ItemDAO itemDAO;
     private final Mapping mapping;
+    private final ItemChangePublisher itemChangePublisher;
+    private final InventoryLedger inventoryLedger;
+    private final LowStockAlerts lowStockAlerts;
+    private final ReceiptRenderer receiptRenderer;
+    private final OrderOutbox orderOutbox;
+    private final PendingOrders pendingOrders;
+    private final ShardFanOut shardFanOut;
+    private final OrderAssembler orderAssembler;
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceIMPL.class);
+    private static final LogSampler STOCK_LOG_SAMPLER = LogSampler.perSecond(5);
 
     @Override
     public OrderDTO placeOrder(OrderDTO orderDTO) {
-        logger.info("Saving order for customer ID: {}", orderDTO.getCustomerId());
+        logger.debug("Saving order: customerId={} lines={}",
+                orderDTO.getCustomerId(), orderDTO.getOrderDetails().size());
 
         // Generate Order ID
         if (orderDTO.getOrderId() == null || orderDTO.getOrderId().isEmpty()) {
             orderDTO.setOrderId(AppUtil.createOrderId());
             logger.debug("Generated new order ID: {}", orderDTO.getOrderId());
         }
+        String storeId = StoreContext.current();
+        orderDTO.setStoreId(storeId);
 
         // Fetch and validate customer
-        CustomerEntity customer = customerDAO.findById(orderDTO.getCustomerId())
-                .orElseThrow(() -> {
-                    logger.error("Customer ID {} not found", orderDTO.getCustomerId());
-                    return new RuntimeException("Customer not found with ID: " + orderDTO.getCustomerId());
-                });
-        logger.debug("Customer name: {}", customer.getName());
-
-        // Convert DTO to Entity and set customer
-        OrderEntity orderEntity = mapping.convertToOrderEntity(orderDTO);
-        orderEntity.setCustomer(customer);
-
-        logger.debug("Processing order details");
-        List<OrderDetailEntity> orderDetails = orderDTO.getOrderDetails().stream().map(orderDetailDTO -> {
-            OrderDetailEntity orderDetail = new OrderDetailEntity();
-            orderDetail.setOrder(orderEntity);
-
-            // Fetch and validate item
-            ItemEntity item = itemDAO.findById(orderDetailDTO.getItemCode())
-                    .orElseThrow(() -> {
-                        logger.error("Item ID {} not found", orderDetailDTO.getItemCode());
-                        return new RuntimeException("Item not found with code: " + orderDetailDTO.getItemCode());
-                    });
-            logger.debug("Found item: {} with price {}", item.getDescription(), item.getPrice());
-            // Check available quantity
-            if (item.getQty() < orderDetailDTO.getQuantity()) {
-                logger.error("Insufficient quantity for item: {} (requested: {}, available: {})",
-                        item.getCode(), orderDetailDTO.getQuantity(), item.getQty());
-                throw new RuntimeException("Insufficient quantity for item: " + item.getCode());
+        CustomerEntity customer = findCustomer(orderDTO.getCustomerId());
+        // All of the order's items in one query. Without the ledger they are locked in code order before their stock
+        // is read, so a concurrent sale can't be lost by the read-modify-write below and two orders sharing items
+        // can't deadlock
+        List<String> codes = orderDTO.getOrderDetails().stream().map(OrderDetailDTO::getItemCode).distinct().toList();
+        Map<String, ItemEntity> loaded = (inventoryLedger.isEnabled()
+                ? itemDAO.findAllActiveByCodeIn(storeId, codes)
+                : itemDAO.findAllByCodeInForUpdate(storeId, codes)).stream()
+                .collect(Collectors.toMap(ItemEntity::getCode, Function.identity()));
+        // Before the first look at what journaled orders hold, so a hold taken meanwhile can't miss this sale
+        pendingOrders.trackSale();
+        List<ItemEntity> items = new ArrayList<>();
+        for (OrderDetailDTO orderDetailDTO : orderDTO.getOrderDetails()) {
+            ItemEntity item = loaded.get(orderDetailDTO.getItemCode());
+            if (item == null) {
+                logger.debug("Item ID {} not found", orderDetailDTO.getItemCode());
+                throw ItemNotFound.withCode(orderDetailDTO.getItemCode());
             }
+            int remaining = reserveStock(item, orderDetailDTO.getQuantity());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Reserved stock: item={} qty={} remaining={}",
+                        item.getCode(), orderDetailDTO.getQuantity(), remaining);
+            } else if (logger.isInfoEnabled() && STOCK_LOG_SAMPLER.tryAcquire()) {
+                logger.info("Reserved stock (sampled): item={} qty={} remaining={} suppressed={}",
+                        item.getCode(), orderDetailDTO.getQuantity(), remaining, STOCK_LOG_SAMPLER.drainSuppressed());
+            }
+            itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, storeId,
+                    item.getCode(), item.getPrice(), remaining));
 
-            // Update Item quantity
-            item.setQty(item.getQty() - orderDetailDTO.getQuantity());
-            logger.info("Updated item quantity for item: {}. New quantity: {}", item.getCode(), item.getQty());
-            itemDAO.save(item);
+            orderDetailDTO.setUnitPrice(item.getPrice());
+            items.add(item);
+        }
+
+        orderAssembler.calculateTotals(orderDTO);
 
-            // Set OrderDetail fields
-            double unitPrice = item.getPrice();
-            orderDetail.setItem(item);
-            orderDetail.setQuantity(orderDetailDTO.getQuantity());
-            orderDetail.setUnitPrice(unitPrice);
-
-            double detailSubtotal = orderDetailDTO.getQuantity() * unitPrice;
-            orderDetail.setTotalPrice(detailSubtotal);
-
-            return orderDetail;
-        }).collect(Collectors.toList());
-
-        orderEntity.setOrderDetails(orderDetails);
-
-        // Calculate total
-        double subTotal = orderDetails.stream()
-                .mapToDouble(OrderDetailEntity::getTotalPrice)
-                .sum();
-        orderEntity.setTotal(subTotal);
-        logger.debug("Calculated subtotal: {}", subTotal);
-
-        // Calculate discount
-        double discountPercent = orderDTO.getDiscount();
-        double discountAmount = subTotal * discountPercent / 100;
-        orderEntity.setDiscount(discountAmount);
-        logger.debug("Calculated discount amount ({}%): {}", discountPercent, discountAmount);
-
-        // Calculate subTotal after discount
-        double total = subTotal - discountAmount;
-        orderEntity.setSubTotal(total);
-        logger.debug("Total after discount: {}", total);
-
-        // Calculate balance
-        double cash = orderDTO.getCash();
-        double balance = cash - total;
-        orderEntity.setBalance(balance);
-        logger.debug("Calculated balance: {}", balance);
-
-        // Check if cash is enough to place the order
+        // Save Order
+        OrderEntity savedOrder = orderDAO.save(orderAssembler.toOrderEntity(orderDTO, customer, items));
+        logger.info("Saved order: orderId={} customerId={} lines={}",
+                savedOrder.getOrderId(), orderDTO.getCustomerId(), savedOrder.getOrderDetails().size());
+        OrderDTO placedOrder = mapping.convertToOrderDTO(savedOrder);
+        orderOutbox.orderPlaced(placedOrder);
+        receiptRenderer.renderAfterCommit(placedOrder, OrderAssembler.itemNames(items));
+        return placedOrder;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderDTO priceOrder(OrderDTO orderDTO) {
+        if (orderDTO.getOrderId() == null || orderDTO.getOrderId().isEmpty()) {
+            orderDTO.setOrderId(AppUtil.createOrderId());
+        }
+        orderDTO.setStoreId(StoreContext.current());
+        findCustomer(orderDTO.getCustomerId());
+
+        List<String> codes = orderDTO.getOrderDetails().stream().map(OrderDetailDTO::getItemCode).toList();
+        Map<String, ItemEntity> items = itemDAO.findAllActiveByCodeIn(orderDTO.getStoreId(), codes).stream()
+                .collect(Collectors.toMap(ItemEntity::getCode, Function.identity()));
+        Map<String, Integer> requested = orderDTO.getOrderDetails().stream()
+                .collect(Collectors.toMap(OrderDetailDTO::getItemCode, OrderDetailDTO::getQuantity, Integer::sum));
+        for (OrderDetailDTO orderDetailDTO : orderDTO.getOrderDetails()) {
+            ItemEntity item = items.get(orderDetailDTO.getItemCode());
+            if (item == null) {
+                logger.debug("Item ID {} not found", orderDetailDTO.getItemCode());
+                throw ItemNotFound.withCode(orderDetailDTO.getItemCode());
+            }
+            int available = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(item.getCode()) : item.getQty();
+            orderAssembler.checkStock(item.getCode(), requested.get(item.getCode()),
+                    orderAssembler.unheld(item.getCode(), available));
+            orderDetailDTO.setUnitPrice(item.getPrice());
+        }
+
+        orderAssembler.calculateTotals(orderDTO);
+        return orderDTO;
+    }
+
+    /**
+     * Places an order whose lines and totals were already priced, e.g. by a cart, at those prices.
+     * {@code orderDTO.discount} is taken as an amount. Only cash, stock and the items still being on sale are
+     * checked: the items are loaded in one query and stock is taken in one batch.
+     */
+    @Override
+    public OrderDTO placePricedOrder(OrderDTO orderDTO) {
+        if (orderDTO.getOrderId() == null || orderDTO.getOrderId().isEmpty()) {
+            orderDTO.setOrderId(AppUtil.createOrderId());
+        }
+        orderDTO.setStoreId(StoreContext.current());
+        long balance = PricingEngine.toMinor(orderDTO.getCash()) - PricingEngine.toMinor(orderDTO.getSubTotal());
         if (balance < 0) {
-            logger.warn("Insufficient cash for the order. Order cannot be placed.");
-            throw new InsufficientCashException("Insufficient cash for the order");
+            logger.debug("Insufficient cash for order {}", orderDTO.getOrderId());
+            throw InsufficientCashException.INSTANCE;
         }
+        orderDTO.setBalance(PricingEngine.toMajor(balance));
+        CustomerEntity customer = findCustomer(orderDTO.getCustomerId());
 
-        // Each Item discount Set OrderDetail table
-        if (subTotal > 0 && discountAmount > 0) {
-            for (OrderDetailEntity detail : orderDetails) {
-                double proportion = detail.getTotalPrice() / subTotal;
-                double detailDiscount = discountAmount * proportion;
-                double finalDetailTotal = detail.getTotalPrice() - detailDiscount;
-                detail.setTotalPrice(finalDetailTotal);
-                logger.debug("Applied discount to order detail ID {}: {} -> {}",
-                        detail.getId(), detail.getTotalPrice() + detailDiscount, finalDetailTotal);
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        orderDTO.getOrderDetails().forEach(detail ->
+                requested.merge(detail.getItemCode(), detail.getQuantity(), Integer::sum));
+        List<String> codes = new ArrayList<>(requested.keySet());
+        List<ItemEntity> loaded = inventoryLedger.isEnabled()
+                ? itemDAO.findAllActiveByCodeIn(orderDTO.getStoreId(), codes)
+                : itemDAO.findAllByCodeInForUpdate(orderDTO.getStoreId(), codes);
+        Map<String, ItemEntity> items = loaded.stream()
+                .collect(Collectors.toMap(ItemEntity::getCode, Function.identity()));
+        List<ItemEntity> lineItems = new ArrayList<>(orderDTO.getOrderDetails().size());
+        for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
+            ItemEntity item = items.get(detail.getItemCode());
+            if (item == null) {
+                logger.debug("Item ID {} not found", detail.getItemCode());
+                throw ItemNotFound.withCode(detail.getItemCode());
             }
+            lineItems.add(item);
+        }
+        pendingOrders.trackSale();
+        if (!inventoryLedger.isEnabled()) {
+            requested.forEach((code, quantity) ->
+                    orderAssembler.checkStock(code, quantity, orderAssembler.unheld(code, items.get(code).getQty())));
         }
+        orderAssembler.takeStock(orderDTO.getStoreId(), items, requested);
 
-        // Save Order
-        OrderEntity savedOrder = orderDAO.save(orderEntity);
-        logger.info("Saved order: {}", savedOrder.getOrderId());
-        return mapping.convertToOrderDTO(savedOrder);
+        OrderEntity savedOrder = orderDAO.save(orderAssembler.toOrderEntity(orderDTO, customer, lineItems));
+        logger.info("Saved priced order: orderId={} customerId={} lines={}",
+                savedOrder.getOrderId(), orderDTO.getCustomerId(), savedOrder.getOrderDetails().size());
+        OrderDTO placedOrder = mapping.convertToOrderDTO(savedOrder);
+        orderOutbox.orderPlaced(placedOrder);
+        receiptRenderer.renderAfterCommit(placedOrder, OrderAssembler.itemNames(lineItems));
+        return placedOrder;
+    }
+
+    /**
+     * Units per item as the primary sees them now: the ledger's counters when it is enabled, otherwise
+     * {@code items.qty}. Deliberately not read-only, so the read never goes to a lagging replica. Retired and
+     * unknown items are left out.
+     */
+    @Override
+    public Map<String, Integer> getAvailableStock(Collection<String> itemCodes) {
+        Map<String, Integer> available = new HashMap<>();
+        for (ItemEntity item : itemDAO.findAllActiveByCodeIn(StoreContext.current(), itemCodes)) {
+            available.put(item.getCode(),
+                    inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(item.getCode()) : item.getQty());
+        }
+        return available;
+    }
+
+    @Override
+    public int replayOrders(List<OrderDTO> orders) {
+        int applied = 0;
+        for (OrderDTO orderDTO : orders) {
+            // The journal may hand over an order a second time if we stopped before its checkpoint was written
+            if (orderDAO.existsById(orderDTO.getOrderId())) {
+                logger.info("Skipping already replayed order: {}", orderDTO.getOrderId());
+                continue;
+            }
+            if (orderDTO.getStoreId() == null) {
+                // Journaled before orders carried their store
+                orderDTO.setStoreId(StoreContext.current());
+            }
+            String storeId = orderDTO.getStoreId();
+            CustomerEntity customer = customerDAO.findByIdAndStoreId(orderDTO.getCustomerId(), storeId)
+                    .orElseThrow(() -> new CustomerNotFoundException("Customer not found with ID: "
+                            + orderDTO.getCustomerId()));
+            // Retired items still count: the sale was made while the item was on sale. Without the ledger the rows
+            // are locked like placeOrder locks them, so a concurrent sale's decrement is not overwritten below
+            List<String> codes = orderDTO.getOrderDetails().stream()
+                    .map(OrderDetailDTO::getItemCode).distinct().toList();
+            Map<String, ItemEntity> loaded = (inventoryLedger.isEnabled()
+                    ? itemDAO.findAllByStoreIdAndCodeIn(storeId, codes)
+                    : itemDAO.findAllIncludingRetiredByCodeInForUpdate(storeId, codes)).stream()
+                    .collect(Collectors.toMap(ItemEntity::getCode, Function.identity()));
+            List<ItemEntity> items = new ArrayList<>();
+            for (OrderDetailDTO orderDetailDTO : orderDTO.getOrderDetails()) {
+                ItemEntity item = loaded.get(orderDetailDTO.getItemCode());
+                if (item == null) {
+                    throw ItemNotFound.withCode(orderDetailDTO.getItemCode());
+                }
+                // The sale has already been acknowledged at the till, so it is recorded even if stock went short
+                int remaining;
+                if (inventoryLedger.isEnabled()) {
+                    remaining = inventoryLedger.consume(item.getCode(), orderDetailDTO.getQuantity());
+                } else {
+                    item.setQty(item.getQty() - orderDetailDTO.getQuantity());
+                    remaining = item.getQty();
+                }
+                if (remaining < 0) {
+                    logger.warn("Replayed order {} left item {} with negative stock: {}",
+                            orderDTO.getOrderId(), item.getCode(), remaining);
+                }
+                lowStockAlerts.checkSale(item, remaining + orderDetailDTO.getQuantity(), remaining);
+                itemChangePublisher.publishAfterCommit(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, storeId,
+                        item.getCode(), item.getPrice(), remaining));
+                items.add(item);
+            }
+            orderDAO.save(orderAssembler.toOrderEntity(orderDTO, customer, items));
+            orderOutbox.orderPlaced(orderDTO);
+            receiptRenderer.renderAfterCommit(orderDTO, OrderAssembler.itemNames(items));
+            applied++;
+        }
+        logger.info("Replayed {} journaled orders ({} skipped)", applied, orders.size() - applied);
+        return applied;
+    }
+
+    /**
+     * Sales per store across every shard, archived orders included. Each shard is queried in parallel in its own
+     * transaction, so this method does not join the caller's.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<StoreSalesDTO> getSalesByStore() {
+        List<StoreSalesDTO> sales = new ArrayList<>();
+        shardFanOut.readEveryShard(() -> {
+            List<Object[]> rows = new ArrayList<>(orderDAO.summarizeSalesByStore());
+            rows.addAll(orderArchiveDAO.summarizeSalesByStore());
+            return rows;
+        }).forEach((shard, rows) -> {
+            Map<String, StoreSalesDTO> byStore = new HashMap<>();
+            for (Object[] row : rows) {
+                StoreSalesDTO store = byStore.computeIfAbsent((String) row[0],
+                        storeId -> new StoreSalesDTO(storeId, shard, 0, 0));
+                store.setOrderCount(store.getOrderCount() + (Long) row[1]);
+                store.setRevenue(store.getRevenue() + (Double) row[2]);
+            }
+            sales.addAll(byStore.values());
+        });
+        sales.sort(Comparator.comparing(StoreSalesDTO::getStoreId));
+        return sales;
+    }
+
+    /**
+     * Looks in the hot tables first and falls back to the archive for orders the archiver has moved. Both reads see
+     * the same snapshot, so an order being archived concurrently is found in one of them. Only the current store's
+     * orders are found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderDTO getOrder(String orderId) {
+        return findOrder(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
+    }
+
+    /**
+     * Same lookup as {@link #getOrder}, but deliberately not read-only, so it never goes to a lagging replica: an
+     * order the journal drainer has just committed must be found when its till retries.
+     */
+    @Override
+    public Optional<OrderDTO> findPlacedOrder(String orderId) {
+        return findOrder(orderId);
+    }
+
+    private Optional<OrderDTO> findOrder(String orderId) {
+        String storeId = StoreContext.current();
+        Optional<OrderEntity> order = orderDAO.findByOrderIdAndStoreId(orderId, storeId);
+        if (order.isPresent()) {
+            return order.map(mapping::convertToOrderDTO);
+        }
+        return orderArchiveDAO.findByOrderIdAndStoreId(orderId, storeId).map(mapping::convertToOrderDTO);
+    }
+
+    private CustomerEntity findCustomer(String customerId) {
+        return customerDAO.findByIdAndStoreId(customerId, StoreContext.current())
+                .orElseThrow(() -> {
+                    logger.debug("Customer ID {} not found", customerId);
+                    return new CustomerNotFoundException("Customer not found with ID: " + customerId);
+                });
+    }
+
+    /**
+     * Takes the requested units from stock and returns what is left. With the inventory ledger enabled this is a
+     * CAS on the in-memory counter and the item row is left untouched (no row lock); otherwise the managed item
+     * is decremented and flushed with the order. A sale that crosses the item's reorder level raises a low stock
+     * alert when the order commits.
+     */
+    private int reserveStock(ItemEntity item, int quantity) {
+        int remaining;
+        if (inventoryLedger.isEnabled()) {
+            remaining = inventoryLedger.reserve(item.getCode(), quantity);
+            if (orderAssembler.unheld(item.getCode(), remaining) < 0) {
+                throw orderAssembler.insufficientStock(item.getCode(), quantity,
+                        inventoryLedger.getAvailable(item.getCode()));
+            }
+        } else {
+            orderAssembler.checkStock(item.getCode(), quantity, orderAssembler.unheld(item.getCode(), item.getQty()));
+            item.setQty(item.getQty() - quantity);
+            itemDAO.save(item);
+            remaining = item.getQty();
+        }
+        lowStockAlerts.checkSale(item, remaining + quantity, remaining);
+        return remaining;
     }
 }
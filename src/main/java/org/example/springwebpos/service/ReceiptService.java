@@ -0,0 +1,7 @@
+package org.example.springwebpos.service;
+
+import org.example.springwebpos.receipt.ReceiptFormat;
+
+public interface ReceiptService {
+    byte[] getReceipt(String orderId, ReceiptFormat format);
+}
@@ -0,0 +1,49 @@
+package org.example.springwebpos.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.ItemDAO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.receipt.ReceiptFormat;
+import org.example.springwebpos.receipt.ReceiptRenderer;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ReceiptServiceIMPL implements ReceiptService {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptServiceIMPL.class);
+
+    private final ReceiptRenderer receiptRenderer;
+    private final OrderService orderService;
+    private final ItemDAO itemDAO;
+
+    /**
+     * Serves the receipt from the cache filled after checkout; reprints of older orders (evicted, rendered by
+     * another node, or archived) are rebuilt from the order once and cached again. Orders of other stores are not
+     * found, cached or not.
+     */
+    @Override
+    public byte[] getReceipt(String orderId, ReceiptFormat format) {
+        String storeId = StoreContext.current();
+        byte[] cached = receiptRenderer.getCached(storeId, orderId, format);
+        if (cached != null) {
+            return cached;
+        }
+        logger.debug("Receipt cache miss for order {}", orderId);
+        OrderDTO order = orderService.getOrder(orderId);
+        Map<String, String> itemNames = itemDAO.findAllByStoreIdAndCodeIn(storeId, order.getOrderDetails().stream()
+                        .map(OrderDetailDTO::getItemCode).toList()).stream()
+                .filter(item -> item.getDescription() != null)
+                .collect(Collectors.toMap(ItemEntity::getCode, ItemEntity::getDescription));
+        return receiptRenderer.render(order, itemNames, format);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.springwebpos.service;
+
+import org.example.springwebpos.dto.SettlementDTO;
+
+public interface SettlementService {
+    /**
+     * Queues the settlement of {@code businessDate} for the current store.
+     *
+     * @return {@code false} if that settlement was already queued or running
+     */
+    boolean requestSettlement(String businessDate);
+
+    SettlementDTO getSettlement(String businessDate);
+}
@@ -0,0 +1,52 @@
+package org.example.springwebpos.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.SettlementDAO;
+import org.example.springwebpos.dto.SettlementDTO;
+import org.example.springwebpos.exception.InvalidRequestException;
+import org.example.springwebpos.exception.SettlementNotFoundException;
+import org.example.springwebpos.settlement.SettlementJob;
+import org.example.springwebpos.shard.StoreContext;
+import org.example.springwebpos.util.Mapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@Service
+@RequiredArgsConstructor
+public class SettlementServiceIMPL implements SettlementService {
+    private final SettlementDAO settlementDAO;
+    private final SettlementJob settlementJob;
+    private final Mapping mapping;
+    private static final Logger logger = LoggerFactory.getLogger(SettlementServiceIMPL.class);
+
+    @Override
+    public boolean requestSettlement(String businessDate) {
+        // Rejects anything but yyyy-MM-dd, the prefix orders are matched on
+        try {
+            LocalDate.parse(businessDate);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Not a yyyy-MM-dd date: " + businessDate);
+        }
+        String storeId = StoreContext.current();
+        if (settlementJob.isQueued(storeId, businessDate)) {
+            logger.info("Settlement already queued: store={} date={}", storeId, businessDate);
+            return false;
+        }
+        settlementJob.submit(storeId, businessDate);
+        logger.info("Settlement queued: store={} date={}", storeId, businessDate);
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SettlementDTO getSettlement(String businessDate) {
+        return settlementDAO.findByStoreIdAndBusinessDate(StoreContext.current(), businessDate)
+                .map(mapping::convertToSettlementDTO)
+                .orElseThrow(() -> new SettlementNotFoundException("No settlement for " + businessDate));
+    }
+}
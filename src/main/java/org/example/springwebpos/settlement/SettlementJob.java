@@ -0,0 +1,287 @@
+package org.example.springwebpos.settlement;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.OrderDAO;
+import org.example.springwebpos.dao.SettlementDAO;
+import org.example.springwebpos.dto.SettlementDTO;
+import org.example.springwebpos.entity.SettlementEntity;
+import org.example.springwebpos.entity.SettlementItemEntity;
+import org.example.springwebpos.pricing.PricingEngine;
+import org.example.springwebpos.shard.ShardFanOut;
+import org.example.springwebpos.shard.StoreContext;
+import org.example.springwebpos.util.AppUtil;
+import org.example.springwebpos.util.Mapping;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * End-of-day settlement (Z-report) per store and business date.
+ * <p>
+ * The day's orders and order lines, archived ones included, are streamed through forward-only scrollable cursors in
+ * a read-only transaction (so they may come from the replica and take no row locks), cut into chunks and summed on a
+ * dedicated fork/join pool while the cursor keeps reading. Only a bounded number of chunks is in flight, so memory
+ * stays flat however big the day was. The result is written in one short transaction; settling a day again replaces
+ * its record. Runs are queued on a single background thread, and a store/date that is already queued is not queued
+ * twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class SettlementJob {
+    private static final Logger logger = LoggerFactory.getLogger(SettlementJob.class);
+
+    private static final String ORDERS_HQL = "select o.total, o.discount, o.subTotal, o.cash, o.balance "
+            + "from OrderEntity o where o.storeId = :storeId and o.orderDate like :day";
+    private static final String DETAILS_HQL = "select d.item.code, d.quantity, d.totalPrice "
+            + "from OrderDetailEntity d where d.order.storeId = :storeId and d.order.orderDate like :day";
+    private static final String ARCHIVED_ORDERS_HQL = "select o.total, o.discount, o.subTotal, o.cash, o.balance "
+            + "from OrderArchiveEntity o where o.storeId = :storeId and o.orderDate like :day";
+    private static final String ARCHIVED_DETAILS_HQL = "select d.itemCode, d.quantity, d.totalPrice "
+            + "from OrderDetailArchiveEntity d where d.order.storeId = :storeId and d.order.orderDate like :day";
+
+    private final SettlementDAO settlementDAO;
+    private final OrderDAO orderDAO;
+    private final Mapping mapping;
+    private final ShardFanOut shardFanOut;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${pos.settlement.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${pos.settlement.max-chunks-in-flight:8}")
+    private int maxChunksInFlight;
+
+    @Value("${pos.settlement.split-threshold:1000}")
+    private int splitThreshold;
+
+    @Value("${pos.settlement.parallelism:2}")
+    private int parallelism;
+
+    private final Map<String, CompletableFuture<SettlementDTO>> queued = new ConcurrentHashMap<>();
+    private TransactionTemplate readOnlyTransaction;
+    private ForkJoinPool aggregationPool;
+    private ThreadPoolExecutor runner;
+
+    @PostConstruct
+    public void start() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        aggregationPool = new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("settlement-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, null, false);
+        runner = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "settlement-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the settlement of {@code businessDate} for {@code storeId}. If that store/date is already queued or
+     * running, the pending run is returned instead of starting another one.
+     */
+    public CompletableFuture<SettlementDTO> submit(String storeId, String businessDate) {
+        String key = storeId + '|' + businessDate;
+        CompletableFuture<SettlementDTO> created = new CompletableFuture<>();
+        CompletableFuture<SettlementDTO> pending = queued.putIfAbsent(key, created);
+        if (pending != null) {
+            return pending;
+        }
+        runner.execute(() -> {
+            try {
+                created.complete(StoreContext.callAs(storeId, () -> settle(storeId, businessDate)));
+            } catch (RuntimeException e) {
+                logger.error("Settlement failed: store={} date={} error={}", storeId, businessDate, e.getMessage(), e);
+                created.completeExceptionally(e);
+            } finally {
+                queued.remove(key);
+            }
+        });
+        return created;
+    }
+
+    public boolean isQueued(String storeId, String businessDate) {
+        return queued.containsKey(storeId + '|' + businessDate);
+    }
+
+    /**
+     * Settles yesterday for every store that has orders on it, across all shards.
+     */
+    @Scheduled(cron = "${pos.settlement.cron:0 5 0 * * *}")
+    public void settleYesterday() {
+        String businessDate = LocalDate.now().minusDays(1).toString();
+        Collection<String> stores = new TreeSet<>();
+        shardFanOut.readEveryShard(() -> orderDAO.findStoreIdsByOrderDateLike(businessDate + '%'))
+                .values().forEach(stores::addAll);
+        logger.info("Scheduling settlement of {} for {} stores", businessDate, stores.size());
+        stores.forEach(storeId -> submit(storeId, businessDate));
+    }
+
+    private SettlementDTO settle(String storeId, String businessDate) {
+        long started = System.nanoTime();
+        SettlementTotals totals = readOnlyTransaction.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            SettlementTotals day = new SettlementTotals();
+            scroll(session, ORDERS_HQL, storeId, businessDate, SettlementTotals::addOrder, day);
+            scroll(session, DETAILS_HQL, storeId, businessDate, SettlementTotals::addDetail, day);
+            // Re-settling an old day must count the orders the archiver has moved since
+            scroll(session, ARCHIVED_ORDERS_HQL, storeId, businessDate, SettlementTotals::addOrder, day);
+            scroll(session, ARCHIVED_DETAILS_HQL, storeId, businessDate, SettlementTotals::addDetail, day);
+            return day;
+        });
+        SettlementDTO settlement = transactionTemplate.execute(status -> save(storeId, businessDate, totals));
+        logger.info("Settled store={} date={}: orders={} netSales={} items={} in {} ms", storeId, businessDate,
+                totals.orderCount, settlement.getNetSales(), totals.items.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return settlement;
+    }
+
+    /**
+     * Streams one query's rows into chunks for the aggregation pool, folding finished chunks into {@code into}
+     * whenever more than {@code maxChunksInFlight} are outstanding.
+     */
+    private void scroll(Session session, String hql, String storeId, String businessDate,
+                        BiConsumer<SettlementTotals, Object[]> accumulator, SettlementTotals into) {
+        Deque<ForkJoinTask<SettlementTotals>> inFlight = new ArrayDeque<>();
+        try (ScrollableResults<Object[]> rows = session.createQuery(hql, Object[].class)
+                .setParameter("storeId", storeId)
+                .setParameter("day", businessDate + '%')
+                .setReadOnly(true)
+                .setFetchSize(fetchSize(session))
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            List<Object[]> chunk = new ArrayList<>(chunkSize);
+            while (rows.next()) {
+                chunk.add(rows.get());
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(aggregationPool.submit(new ChunkTask(chunk, 0, chunk.size(), accumulator)));
+                    chunk = new ArrayList<>(chunkSize);
+                    while (inFlight.size() > maxChunksInFlight) {
+                        into.merge(inFlight.poll().join());
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(aggregationPool.submit(new ChunkTask(chunk, 0, chunk.size(), accumulator)));
+            }
+        } finally {
+            while (!inFlight.isEmpty()) {
+                into.merge(inFlight.poll().join());
+            }
+        }
+    }
+
+    /**
+     * MySQL Connector/J only streams rows instead of buffering the whole result when the fetch size is
+     * {@link Integer#MIN_VALUE}; other drivers take the fetch size literally.
+     */
+    private int fetchSize(Session session) {
+        SessionFactoryImplementor factory = session.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        return factory.getJdbcServices().getDialect() instanceof MySQLDialect ? Integer.MIN_VALUE : chunkSize;
+    }
+
+    private SettlementDTO save(String storeId, String businessDate, SettlementTotals totals) {
+        // Reuse the existing row so a re-run updates in place instead of tripping the store/date unique key
+        SettlementEntity settlement = settlementDAO.findByStoreIdAndBusinessDate(storeId, businessDate)
+                .orElseGet(() -> {
+                    SettlementEntity created = new SettlementEntity();
+                    created.setSettlementId(AppUtil.createSettlementId());
+                    created.setStoreId(storeId);
+                    created.setBusinessDate(businessDate);
+                    return created;
+                });
+        settlement.setOrderCount(totals.orderCount);
+        settlement.setGrossSales(PricingEngine.toMajor(totals.grossSales));
+        settlement.setDiscounts(PricingEngine.toMajor(totals.discounts));
+        settlement.setNetSales(PricingEngine.toMajor(totals.netSales));
+        settlement.setCashCollected(PricingEngine.toMajor(totals.cashCollected));
+        settlement.setChangeGiven(PricingEngine.toMajor(totals.changeGiven));
+        settlement.setSettledAt(LocalDateTime.now().toString());
+        settlement.getItems().clear();
+        new TreeSet<>(totals.items.keySet()).forEach(code -> {
+            long[] item = totals.items.get(code);
+            settlement.getItems().add(new SettlementItemEntity(null, settlement, code, item[0],
+                    PricingEngine.toMajor(item[1])));
+        });
+        return mapping.convertToSettlementDTO(settlementDAO.save(settlement));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        aggregationPool.shutdownNow();
+    }
+
+    /**
+     * Sums {@code rows[from, to)}, splitting in halves until a slice is below the split threshold.
+     */
+    private final class ChunkTask extends RecursiveTask<SettlementTotals> {
+        private final List<Object[]> rows;
+        private final int from;
+        private final int to;
+        private final BiConsumer<SettlementTotals, Object[]> accumulator;
+
+        private ChunkTask(List<Object[]> rows, int from, int to, BiConsumer<SettlementTotals, Object[]> accumulator) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        protected SettlementTotals compute() {
+            if (to - from <= splitThreshold) {
+                SettlementTotals totals = new SettlementTotals();
+                for (int row = from; row < to; row++) {
+                    accumulator.accept(totals, rows.get(row));
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(rows, from, middle, accumulator);
+            left.fork();
+            SettlementTotals right = new ChunkTask(rows, middle, to, accumulator).compute();
+            return right.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.springwebpos.settlement;
+
+import org.example.springwebpos.pricing.PricingEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Partial Z-report over a slice of the day's rows. Amounts are kept in cents so partials from different
+ * fork/join tasks add up exactly whatever order they are merged in.
+ */
+final class SettlementTotals {
+    long orderCount;
+    long grossSales;
+    long discounts;
+    long netSales;
+    long cashCollected;
+    long changeGiven;
+    // itemCode -> {units, sales in cents}
+    final Map<String, long[]> items = new HashMap<>();
+
+    /**
+     * Row of {@code total, discount, subTotal, cash, balance} from the orders scan.
+     */
+    void addOrder(Object[] row) {
+        orderCount++;
+        grossSales += PricingEngine.toMinor((Double) row[0]);
+        discounts += PricingEngine.toMinor((Double) row[1]);
+        netSales += PricingEngine.toMinor((Double) row[2]);
+        cashCollected += PricingEngine.toMinor((Double) row[3]);
+        changeGiven += PricingEngine.toMinor((Double) row[4]);
+    }
+
+    /**
+     * Row of {@code itemCode, quantity, totalPrice} from the order details scan.
+     */
+    void addDetail(Object[] row) {
+        long[] item = items.computeIfAbsent((String) row[0], key -> new long[2]);
+        item[0] += (Integer) row[1];
+        item[1] += PricingEngine.toMinor((Double) row[2]);
+    }
+
+    SettlementTotals merge(SettlementTotals other) {
+        orderCount += other.orderCount;
+        grossSales += other.grossSales;
+        discounts += other.discounts;
+        netSales += other.netSales;
+        cashCollected += other.cashCollected;
+        changeGiven += other.changeGiven;
+        other.items.forEach((code, item) -> {
+            long[] mine = items.computeIfAbsent(code, key -> new long[2]);
+            mine[0] += item[0];
+            mine[1] += item[1];
+        });
+        return this;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.springwebpos.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the same unit of work on every shard in parallel, each in its own transaction, for queries that span
+ * stores. The caller gets one result per shard and merges them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardFanOut {
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${pos.shards.fan-out-timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(2, shardRoutingDataSource.getShardNames().size()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Read-only fan-out; the primary shard may answer from its replica.
+     */
+    public <T> Map<String, T> readEveryShard(Supplier<T> work) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return onEveryShard(readOnly, work);
+    }
+
+    /**
+     * Fan-out against the shard primaries, for writes and for reads that must not see replica lag.
+     */
+    public <T> Map<String, T> executeOnEveryShard(Supplier<T> work) {
+        return onEveryShard(new TransactionTemplate(transactionManager), work);
+    }
+
+    private <T> Map<String, T> onEveryShard(TransactionTemplate transactionTemplate, Supplier<T> work) {
+        List<String> shards = shardRoutingDataSource.getShardNames();
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String shard : shards) {
+            futures.put(shard, CompletableFuture.supplyAsync(() -> StoreContext.callOnShard(shard,
+                    () -> transactionTemplate.execute(status -> work.get())), executor));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Map.Entry<String, CompletableFuture<T>> future : futures.entrySet()) {
+            try {
+                results.put(future.getKey(), future.getValue().get(
+                        Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while querying shard " + future.getKey(), e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Query failed on shard " + future.getKey(), e.getCause());
+            } catch (TimeoutException e) {
+                futures.values().forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Shard " + future.getKey() + " did not answer within "
+                        + timeoutMs + " ms", e);
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.springwebpos.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the database of the current store. Stores that are not mapped to a shard live on {@value #PRIMARY_SHARD},
+ * the primary database (with its read replica). Like the read/write router below it, this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the store is known by the time a
+ * connection is actually fetched.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public static final String PRIMARY_SHARD = "primary";
+
+    private final Map<String, String> storeToShard;
+    private final Map<String, DataSource> shards;
+
+    /**
+     * @param shards       shard name to DataSource, including {@value #PRIMARY_SHARD}
+     * @param storeToShard store id to shard name
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shards, Map<String, String> storeToShard) {
+        for (Map.Entry<String, String> mapping : storeToShard.entrySet()) {
+            if (!shards.containsKey(mapping.getValue())) {
+                throw new IllegalArgumentException("Store " + mapping.getKey() + " is mapped to unknown shard "
+                        + mapping.getValue());
+            }
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        this.storeToShard = Map.copyOf(storeToShard);
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(PRIMARY_SHARD));
+        // An unknown key would otherwise silently land on the primary
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public String shardFor(String storeId) {
+        return storeToShard.getOrDefault(storeId, PRIMARY_SHARD);
+    }
+
+    public List<String> getShardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    /**
+     * The shard connections opened on this thread go to right now.
+     */
+    public String currentShard() {
+        String shard = StoreContext.shardOverride();
+        return shard != null ? shard : shardFor(StoreContext.current());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    /**
+     * Closes the pools of the extra shards; the primary pool is a bean of its own.
+     */
+    @Override
+    public void close() {
+        shards.forEach((name, dataSource) -> {
+            if (!PRIMARY_SHARD.equals(name) && dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.springwebpos.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The store the current thread is working for. Set per request from the {@value #HEADER} header and carried over
+ * by hand to background work (journal replay, thumbnails, stock flushes). Threads without a store work for
+ * {@value #DEFAULT_STORE}.
+ */
+public final class StoreContext {
+    public static final String HEADER = "X-Store-Id";
+    public static final String DEFAULT_STORE = "default";
+
+    private static final ThreadLocal<String> CURRENT_STORE = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD_OVERRIDE = new ThreadLocal<>();
+
+    private StoreContext() {
+    }
+
+    public static String current() {
+        String storeId = CURRENT_STORE.get();
+        return storeId != null ? storeId : DEFAULT_STORE;
+    }
+
+    public static void set(String storeId) {
+        CURRENT_STORE.set(storeId);
+    }
+
+    public static void clear() {
+        CURRENT_STORE.remove();
+    }
+
+    /**
+     * Runs {@code work} on behalf of {@code storeId} and restores the previous store afterwards.
+     */
+    public static <T> T callAs(String storeId, Supplier<T> work) {
+        String previous = CURRENT_STORE.get();
+        CURRENT_STORE.set(storeId);
+        try {
+            return work.get();
+        } finally {
+            restore(CURRENT_STORE, previous);
+        }
+    }
+
+    /**
+     * Pins connections opened by {@code work} to one shard regardless of the current store; used for work that
+     * spans every store on a shard.
+     */
+    public static <T> T callOnShard(String shard, Supplier<T> work) {
+        String previous = SHARD_OVERRIDE.get();
+        SHARD_OVERRIDE.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(SHARD_OVERRIDE, previous);
+        }
+    }
+
+    static String shardOverride() {
+        return SHARD_OVERRIDE.get();
+    }
+
+    private static void restore(ThreadLocal<String> holder, String previous) {
+        if (previous == null) {
+            holder.remove();
+        } else {
+            holder.set(previous);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.springwebpos.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.regex.Pattern;
+
+/**
+ * Binds the {@value StoreContext#HEADER} request header to {@link StoreContext} (and the log MDC) for the duration
+ * of the request. Requests without the header work for the default store.
+ */
+public class StoreContextInterceptor implements AsyncHandlerInterceptor {
+    private static final Pattern STORE_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        String storeId = request.getHeader(StoreContext.HEADER);
+        if (storeId == null || storeId.isEmpty()) {
+            storeId = StoreContext.DEFAULT_STORE;
+        } else if (!STORE_ID.matcher(storeId).matches()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + StoreContext.HEADER);
+            return false;
+        }
+        StoreContext.set(storeId);
+        MDC.put("storeId", storeId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StoreContext.clear();
+        MDC.remove("storeId");
+    }
+
+    // Streaming responses (SSE) hand the request over to another thread and never reach afterCompletion here
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        StoreContext.clear();
+        MDC.remove("storeId");
+    }
+}
@@ -1,15 +1,14 @@
 package org.example.springwebpos.util;
 
 import java.util.Base64;
-import java.util.UUID;
 
 public class AppUtil {
     public static String createOrderId() {
-        return "ORDER-" + UUID.randomUUID();
+        return IdGenerator.next();
     }
 
     public static String createCustomerId() {
-        return "CUSTOMER-" + UUID.randomUUID();
+        return IdGenerator.next();
     }
 
     public static String toBase64ProfilePic(byte[] profilePic) {
@@ -17,6 +16,14 @@ public class AppUtil {
     }
 
     public static String createItemId() {
-        return "ITEM-" + UUID.randomUUID();
+        return IdGenerator.next();
+    }
+
+    public static String createSettlementId() {
+        return IdGenerator.next();
+    }
+
+    public static String createCartId() {
+        return IdGenerator.next();
     }
 }
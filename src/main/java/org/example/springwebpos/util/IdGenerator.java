@@ -0,0 +1,143 @@
+package org.example.springwebpos.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Node-aware, time-ordered 128-bit ids in the ULID text format (26 Crockford base32 characters).
+ * <p>
+ * Layout: 48-bit epoch millis, 16-bit node id, 64-bit counter. The counter starts at a random value each
+ * millisecond and increments within it, so ids from one node are strictly increasing, and nodes with distinct
+ * node ids can't produce the same id. Sorted ids follow insertion order, which keeps InnoDB primary-key inserts
+ * appending.
+ * <p>
+ * The node id is taken from the {@code pos.node.id} system property or {@code POS_NODE_ID} environment
+ * variable; give every node its own. Without one it falls back to a 16-bit hash of the host name, which two hosts
+ * can share; their ids then only stay apart because the counters start at random values, which is very likely
+ * but not guaranteed.
+ */
+public final class IdGenerator {
+    public static final int TEXT_LENGTH = 26;
+    public static final int BINARY_LENGTH = 16;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerator.class);
+    private static final long NODE_ID = resolveNodeId();
+
+    private static long lastMillis;
+    private static long counter;
+
+    private IdGenerator() {
+    }
+
+    public static String next() {
+        long millis;
+        long sequence;
+        synchronized (IdGenerator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Leave headroom so the counter doesn't wrap within the millisecond
+                counter = ThreadLocalRandom.current().nextLong() >>> 1;
+            } else {
+                // Same millisecond, or the clock stepped back: stay on the last timestamp and keep counting
+                counter++;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long high = (millis << 16) | NODE_ID;
+        return encode(high, sequence);
+    }
+
+    public static long timestampOf(String id) {
+        return toLongs(id)[0] >>> 16;
+    }
+
+    public static byte[] toBytes(String id) {
+        long[] parts = toLongs(id);
+        byte[] bytes = new byte[BINARY_LENGTH];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (parts[0] >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (parts[1] >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes.length != BINARY_LENGTH) {
+            throw new IllegalArgumentException("Expected " + BINARY_LENGTH + " bytes, got " + bytes.length);
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xFF);
+            low = (low << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return encode(high, low);
+    }
+
+    private static String encode(long high, long low) {
+        char[] chars = new char[TEXT_LENGTH];
+        // 128 bits in 26 five-bit groups: the first character carries only the top 3 bits
+        for (int i = TEXT_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (low & 0x1F)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long[] toLongs(String id) {
+        if (id == null || id.length() != TEXT_LENGTH) {
+            throw new IllegalArgumentException("Not a " + TEXT_LENGTH + "-character id: " + id);
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            char c = id.charAt(i);
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) {
+                throw new IllegalArgumentException("Invalid id: " + id);
+            }
+            high = (high << 5) | (low >>> 59);
+            low = (low << 5) | value;
+        }
+        return new long[]{high, low};
+    }
+
+    private static long resolveNodeId() {
+        String configured = System.getProperty("pos.node.id", System.getenv("POS_NODE_ID"));
+        if (configured != null && !configured.isBlank()) {
+            long nodeId = Long.parseLong(configured.trim());
+            if (nodeId < 0 || nodeId > 0xFFFF) {
+                throw new IllegalStateException("pos.node.id must be between 0 and 65535, got " + nodeId);
+            }
+            return nodeId;
+        }
+        long nodeId;
+        try {
+            nodeId = InetAddress.getLocalHost().getHostName().hashCode() & 0xFFFF;
+        } catch (UnknownHostException e) {
+            nodeId = ThreadLocalRandom.current().nextInt(0x10000);
+        }
+        logger.warn("No pos.node.id or POS_NODE_ID set, using node id {}; set a distinct one on every node so ids "
+                + "from different nodes can't collide", nodeId);
+        return nodeId;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.springwebpos.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free rate limiter for hot-path log statements: at most {@code permitsPerSecond} calls per second get
+ * {@code true}, and the number suppressed since the last permitted call can be logged with it.
+ * <pre>{@code
+ * if (SAMPLER.tryAcquire()) {
+ *     logger.info("Updated stock: item={} qty={} suppressed={}", code, qty, SAMPLER.drainSuppressed());
+ * }
+ * }</pre>
+ */
+public final class LogSampler {
+    private final int permitsPerSecond;
+    // Upper bits: current one-second window, lower 20 bits: permits used in that window
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private LogSampler(int permitsPerSecond) {
+        if (permitsPerSecond <= 0 || permitsPerSecond >= (1 << 20)) {
+            throw new IllegalArgumentException("permitsPerSecond out of range: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public static LogSampler perSecond(int permitsPerSecond) {
+        return new LogSampler(permitsPerSecond);
+    }
+
+    public boolean tryAcquire() {
+        long window = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = state.get();
+            long currentWindow = current >>> 20;
+            long used = current & 0xFFFFF;
+            long next;
+            if (currentWindow != window) {
+                next = (window << 20) | 1;
+            } else if (used < permitsPerSecond) {
+                next = current + 1;
+            } else {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -3,9 +3,12 @@ package org.example.springwebpos.util;
 import org.example.springwebpos.dto.CustomerDTO;
 import org.example.springwebpos.dto.ItemDTO;
 import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.SettlementDTO;
 import org.example.springwebpos.entity.CustomerEntity;
 import org.example.springwebpos.entity.ItemEntity;
+import org.example.springwebpos.entity.OrderArchiveEntity;
 import org.example.springwebpos.entity.OrderEntity;
+import org.example.springwebpos.entity.SettlementEntity;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +25,10 @@ public class Mapping {
         return modelMapper.map(order, OrderDTO.class);
     }
 
+    public OrderDTO convertToOrderDTO(OrderArchiveEntity order) {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+
     public OrderEntity convertToOrderEntity(OrderDTO dto) {
         return modelMapper.map(dto, OrderEntity.class);
     }
@@ -58,4 +65,9 @@ public class Mapping {
         return modelMapper.map(itemEntities, new TypeToken<List<ItemDTO>>() {
         }.getType());
     }
+
+    //Settlement matters mapping
+    public SettlementDTO convertToSettlementDTO(SettlementEntity settlement) {
+        return modelMapper.map(settlement, SettlementDTO.class);
+    }
 }
@@ -0,0 +1,210 @@
+package org.example.springwebpos.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.springwebpos.dao.CustomerDAO;
+import org.example.springwebpos.shard.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spools profile picture uploads to temp files and produces the downscaled thumbnails served by default.
+ * Thumbnails are rendered on a small bounded executor after the customer row commits; if the queue is full the
+ * thumbnail is skipped and the API keeps serving the full picture for that customer.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfilePicProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(ProfilePicProcessor.class);
+
+    private final CustomerDAO customerDAO;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${pos.profile-pic.thumbnail-size:128}")
+    private int thumbnailSize;
+
+    @Value("${pos.profile-pic.thumbnail-threads:2}")
+    private int threads;
+
+    @Value("${pos.profile-pic.thumbnail-queue:64}")
+    private int queueSize;
+
+    @Value("${pos.profile-pic.max-pixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "profile-pic-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public StagedImage stage(MultipartFile upload) throws IOException {
+        Path file = Files.createTempFile("profile-pic-", ".upload");
+        MessageDigest digest = sha256();
+        // Hash while spooling so unchanged re-uploads can be detected without reading the file twice
+        try (InputStream in = new DigestInputStream(upload.getInputStream(), digest)) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new StagedImage(file, Files.size(file), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Queues a thumbnail for the customer once the current transaction commits. The staged file is handed over to
+     * the background task, which deletes it when done.
+     */
+    public void generateThumbnailAfterCommit(String customerId, StagedImage image) {
+        if (image == null) {
+            return;
+        }
+        String storeId = StoreContext.current();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(storeId, customerId, image);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(storeId, customerId, image);
+            }
+        });
+    }
+
+    private void submit(String storeId, String customerId, StagedImage image) {
+        image.detach();
+        try {
+            executor.execute(() -> {
+                try {
+                    String thumbnail = renderThumbnail(image.getPath());
+                    if (thumbnail != null) {
+                        Integer updated = StoreContext.callAs(storeId, () -> transactionTemplate.execute(status ->
+                                customerDAO.updateProfilePicThumb(customerId, image.getSha256(), thumbnail)));
+                        if (updated != null && updated > 0) {
+                            logger.debug("Thumbnail stored for customer {}", customerId);
+                        } else {
+                            logger.debug("Picture of customer {} changed meanwhile, thumbnail discarded", customerId);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Thumbnail generation failed for customer {}: {}", customerId, e.getMessage());
+                } finally {
+                    image.delete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail queue full, serving full picture for customer {}", customerId);
+            image.delete();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String renderThumbnail(Path source) throws IOException {
+        BufferedImage original = decode(source);
+        if (original == null) {
+            return null;
+        }
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", out);
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * Decodes the image if its header declares at most {@code maxPixels} pixels, reading only every n-th pixel
+     * when the thumbnail needs far fewer. The size check comes first because a small file can declare an image
+     * large enough to exhaust the heap when decoded.
+     */
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                logger.warn("Unsupported image format, no thumbnail generated");
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Image of {}x{} pixels exceeds {} pixels, no thumbnail generated", width, height,
+                            maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep at least twice the thumbnail resolution so the bilinear downscale still smooths
+                int step = Math.max(1, Math.max(width, height) / (2 * thumbnailSize));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
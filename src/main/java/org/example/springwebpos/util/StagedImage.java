@@ -0,0 +1,77 @@
+package org.example.springwebpos.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * An uploaded image spooled to a temp file. Closing deletes the file unless a background task has taken it over
+ * with {@link #detach()}.
+ */
+public class StagedImage implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StagedImage.class);
+
+    private final Path path;
+    private final long size;
+    private final String sha256;
+    private volatile boolean detached;
+
+    StagedImage(Path path, long size, String sha256) {
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Streams the file through a base64 encoder, without holding the raw bytes in memory as well.
+     */
+    public String toBase64() throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream((int) (size * 4 / 3) + 4);
+        try (InputStream in = Files.newInputStream(path); OutputStream out = Base64.getEncoder().wrap(encoded)) {
+            in.transferTo(out);
+        }
+        return encoded.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Hex SHA-256 of the file contents, taken while spooling, used to tell whether a re-uploaded picture changed.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    void detach() {
+        detached = true;
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Cannot delete staged image {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!detached) {
+            delete();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- GTIN printed on the product, stored as a number so the 12- and 13-digit forms of a UPC are the same barcode.
+-- Unique per store rather than globally: every store selling a product carries its manufacturer barcode.
+-- Retiring an item clears its barcode so a replacement item can take it over.
+ALTER TABLE items ADD COLUMN barcode BIGINT;
+CREATE UNIQUE INDEX uk_items_store_barcode ON items (storeId, barcode);
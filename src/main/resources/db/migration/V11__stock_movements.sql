@@ -0,0 +1,22 @@
+-- Stock taken through the inventory ledger. Each sale inserts its units here in the order's own transaction, which
+-- takes no lock on the item row; the ledger folds committed rows into items.qty in batches and deletes them. Stock
+-- on hand is items.qty minus the rows not folded yet, so a crash between the two loses nothing.
+CREATE TABLE stock_movements
+(
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    code VARCHAR(255) NOT NULL,
+    qty  INT          NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_stock_movements_code ON stock_movements (code);
+
+-- The ledger keeps the authoritative counters in memory, so only one application instance may run it against a
+-- database. The owner renews its lease on every flush; another instance can take over once the lease has expired.
+CREATE TABLE inventory_ledger_lease
+(
+    id        INT NOT NULL,
+    owner     VARCHAR(255),
+    renewedAt TIMESTAMP(3),
+    PRIMARY KEY (id)
+);
+INSERT INTO inventory_ledger_lease (id, owner, renewedAt) VALUES (1, NULL, NULL);
@@ -0,0 +1,47 @@
+-- Schema as previously generated by Hibernate at boot. Existing databases are baselined at this version.
+CREATE TABLE IF NOT EXISTS customers
+(
+    id         VARCHAR(255) NOT NULL,
+    name       VARCHAR(255),
+    address    VARCHAR(255),
+    mobile     VARCHAR(255),
+    profilePic LONGTEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_customers_mobile UNIQUE (mobile)
+);
+
+CREATE TABLE IF NOT EXISTS items
+(
+    code        VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    price       DOUBLE       NOT NULL,
+    qty         INT          NOT NULL,
+    PRIMARY KEY (code)
+);
+
+CREATE TABLE IF NOT EXISTS orders
+(
+    orderId    VARCHAR(255) NOT NULL,
+    customerId VARCHAR(255) NOT NULL,
+    orderDate  VARCHAR(255),
+    total      DOUBLE       NOT NULL,
+    discount   DOUBLE       NOT NULL,
+    subTotal   DOUBLE       NOT NULL,
+    cash       DOUBLE       NOT NULL,
+    balance    DOUBLE       NOT NULL,
+    PRIMARY KEY (orderId),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customerId) REFERENCES customers (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_details
+(
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    order_id   VARCHAR(255) NOT NULL,
+    item_code  VARCHAR(255) NOT NULL,
+    quantity   INT          NOT NULL,
+    unitPrice  DOUBLE       NOT NULL,
+    totalPrice DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_details_order FOREIGN KEY (order_id) REFERENCES orders (orderId),
+    CONSTRAINT fk_order_details_item FOREIGN KEY (item_code) REFERENCES items (code)
+);
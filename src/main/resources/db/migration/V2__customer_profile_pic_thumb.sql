@@ -0,0 +1 @@
+ALTER TABLE customers ADD COLUMN profilePicThumb MEDIUMTEXT;
@@ -0,0 +1,8 @@
+-- Owning store of each row. Rows written before multi-store support belong to the default store.
+ALTER TABLE customers ADD COLUMN storeId VARCHAR(32) NOT NULL DEFAULT 'default';
+ALTER TABLE items ADD COLUMN storeId VARCHAR(32) NOT NULL DEFAULT 'default';
+ALTER TABLE orders ADD COLUMN storeId VARCHAR(32) NOT NULL DEFAULT 'default';
+
+CREATE INDEX idx_customers_store ON customers (storeId);
+CREATE INDEX idx_items_store ON items (storeId);
+CREATE INDEX idx_orders_store ON orders (storeId);
@@ -0,0 +1,30 @@
+-- End-of-day settlement (Z-report) per store and business date; re-running a day replaces its record
+CREATE TABLE settlements
+(
+    settlementId  VARCHAR(255) NOT NULL,
+    storeId       VARCHAR(32)  NOT NULL,
+    businessDate  VARCHAR(255) NOT NULL,
+    orderCount    BIGINT       NOT NULL,
+    grossSales    DOUBLE       NOT NULL,
+    discounts     DOUBLE       NOT NULL,
+    netSales      DOUBLE       NOT NULL,
+    cashCollected DOUBLE       NOT NULL,
+    changeGiven   DOUBLE       NOT NULL,
+    settledAt     VARCHAR(255),
+    PRIMARY KEY (settlementId),
+    CONSTRAINT uk_settlements_store_date UNIQUE (storeId, businessDate)
+);
+
+CREATE TABLE settlement_items
+(
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    settlement_id VARCHAR(255) NOT NULL,
+    itemCode      VARCHAR(255) NOT NULL,
+    units         BIGINT       NOT NULL,
+    sales         DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_settlement_items_settlement FOREIGN KEY (settlement_id) REFERENCES settlements (settlementId)
+);
+
+-- The settlement scan reads one store's day
+CREATE INDEX idx_orders_store_date ON orders (storeId, orderDate);
@@ -0,0 +1,33 @@
+-- Orders past pos.archive.after-days are moved here by the archiver. No foreign keys: archived rows must not slow
+-- down writes to customers or items, and items may be deleted after their sales were archived.
+CREATE TABLE orders_archive
+(
+    orderId    VARCHAR(255) NOT NULL,
+    storeId    VARCHAR(32)  NOT NULL,
+    customerId VARCHAR(255) NOT NULL,
+    orderDate  VARCHAR(255),
+    total      DOUBLE       NOT NULL,
+    discount   DOUBLE       NOT NULL,
+    subTotal   DOUBLE       NOT NULL,
+    cash       DOUBLE       NOT NULL,
+    balance    DOUBLE       NOT NULL,
+    archivedAt VARCHAR(255) NOT NULL,
+    PRIMARY KEY (orderId)
+);
+
+CREATE TABLE order_details_archive
+(
+    id         BIGINT       NOT NULL,
+    order_id   VARCHAR(255) NOT NULL,
+    item_code  VARCHAR(255) NOT NULL,
+    quantity   INT          NOT NULL,
+    unitPrice  DOUBLE       NOT NULL,
+    totalPrice DOUBLE       NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_order_details_archive_order ON order_details_archive (order_id);
+CREATE INDEX idx_orders_archive_store_date ON orders_archive (storeId, orderDate);
+
+-- The archiver picks the oldest orders across all stores
+CREATE INDEX idx_orders_date ON orders (orderDate);
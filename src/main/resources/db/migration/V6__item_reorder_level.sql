@@ -0,0 +1,2 @@
+-- Stock level at or below which a sale raises a reorder alert; 0 turns alerts off for the item
+ALTER TABLE items ADD COLUMN reorderLevel INT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Deleted items are retired instead of removed, so their order history stays intact
+ALTER TABLE items ADD COLUMN retired BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Catalog reads filter on (storeId, retired); the composite index replaces the storeId-only one
+CREATE INDEX idx_items_store_retired ON items (storeId, retired);
+DROP INDEX idx_items_store ON items;
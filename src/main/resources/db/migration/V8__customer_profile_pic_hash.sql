@@ -0,0 +1,2 @@
+-- SHA-256 of the stored profile picture, so re-uploading the same image does not rewrite the LONGTEXT column
+ALTER TABLE customers ADD COLUMN profilePicHash CHAR(64);
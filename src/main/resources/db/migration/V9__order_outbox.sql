@@ -0,0 +1,11 @@
+-- Order events written in the checkout transaction and delivered downstream by the outbox relay. Rows are deleted
+-- once delivered. The id is a ULID, so primary key order is creation order and the id carries the creation time.
+CREATE TABLE order_outbox
+(
+    id        BINARY(16)   NOT NULL,
+    storeId   VARCHAR(32)  NOT NULL,
+    orderId   VARCHAR(255) NOT NULL,
+    eventType VARCHAR(32)  NOT NULL,
+    payload   MEDIUMTEXT   NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,40 @@
+package org.example.springwebpos;
+
+import org.example.springwebpos.config.WebAppRootConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the root application context against in-memory H2 databases, migrated by Flyway like a real deployment.
+ * Every context gets its own databases, named after {@code name}, so test classes don't see each other's data.
+ */
+public final class TestContexts {
+    private TestContexts() {
+    }
+
+    public static AnnotationConfigApplicationContext start(String name, Map<String, Object> properties) {
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("pos.datasource.primary.driver", "org.h2.Driver");
+        merged.put("pos.datasource.primary.url", url(name));
+        merged.put("pos.datasource.primary.username", "sa");
+        merged.put("pos.datasource.primary.password", "");
+        merged.put("pos.datasource.replica.driver", "org.h2.Driver");
+        merged.put("pos.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        merged.putAll(properties);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test-" + name, merged));
+        context.register(WebAppRootConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * JDBC URL of an in-memory H2 database in MySQL mode that lives until the JVM exits.
+     */
+    public static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;LOCK_TIMEOUT=10000";
+    }
+}
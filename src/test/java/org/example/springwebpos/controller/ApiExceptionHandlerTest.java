@@ -0,0 +1,77 @@
+package org.example.springwebpos.controller;
+
+import org.example.springwebpos.customObj.ApiErrorResponse;
+import org.example.springwebpos.diagnostics.ErrorDiagnostics;
+import org.example.springwebpos.exception.DataPersistFailedException;
+import org.example.springwebpos.exception.InvalidRequestException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Resolves handlers the way Spring MVC does, so the status is the one a client would see.
+ */
+class ApiExceptionHandlerTest {
+    private final ApiExceptionHandler handler = new ApiExceptionHandler(new ErrorDiagnostics());
+    private final ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(
+            ApiExceptionHandler.class);
+
+    @Test
+    void invalidRequestsAreBadRequests() throws Exception {
+        ResponseEntity<ApiErrorResponse> response = handle(new InvalidRequestException("A batch holds at most 1"));
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("A batch holds at most 1", response.getBody().getMessage());
+    }
+
+    @Test
+    void internalPreconditionsAndPersistenceFailuresAreServerErrors() throws Exception {
+        ResponseEntity<ApiErrorResponse> precondition = handle(new IllegalArgumentException("Invalid id: x"));
+        ResponseEntity<ApiErrorResponse> persistence = handle(new DataPersistFailedException("Cannot save data"));
+
+        assertEquals(500, precondition.getStatusCode().value());
+        assertEquals("Internal server error", precondition.getBody().getMessage());
+        assertEquals(500, persistence.getStatusCode().value());
+        assertEquals("Internal server error", persistence.getBody().getMessage());
+    }
+
+    @Test
+    void missingItemsAreNotFound() throws Exception {
+        assertEquals(404, handle(ItemNotFound.INSTANCE).getStatusCode().value());
+    }
+
+    @Test
+    void missingItemResponseNamesTheItem() throws Exception {
+        ItemNotFound e = ItemNotFound.withCode("I-42");
+        ResponseEntity<ApiErrorResponse> response = handle(e);
+
+        assertEquals(404, response.getStatusCode().value());
+        assertEquals("Item not found with code: I-42", response.getBody().getMessage());
+        assertEquals("I-42", e.getItemCode());
+    }
+
+    @Test
+    void unknownReceiptFormatIsAnInvalidRequest() throws Exception {
+        OrderController controller = new OrderController(null, null, null, null, null, null);
+
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> controller.getReceipt("O-1", "pdf"));
+
+        assertEquals("Unknown receipt format: pdf", e.getMessage());
+        assertEquals(400, handle(e).getStatusCode().value());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<ApiErrorResponse> handle(Exception e) throws Exception {
+        Method method = resolver.resolveMethod(e);
+        assertNotNull(method, "No handler for " + e.getClass().getSimpleName());
+        return (ResponseEntity<ApiErrorResponse>) method.invoke(handler, e);
+    }
+}
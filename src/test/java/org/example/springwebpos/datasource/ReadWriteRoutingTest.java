@@ -0,0 +1,107 @@
+package org.example.springwebpos.datasource;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.exception.OrderNotFoundException;
+import org.example.springwebpos.service.ItemService;
+import org.example.springwebpos.service.OrderService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Primary and replica are two separate H2 databases with nothing replicating between them, so which one a call
+ * went to shows in what it can see. The last test takes the replica down for good.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadWriteRoutingTest {
+    private static AnnotationConfigApplicationContext context;
+    private static ItemService itemService;
+    private static OrderService orderService;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+
+    @BeforeAll
+    static void start() {
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(TestContexts.url("routing-replica"),
+                "sa", "");
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration").load().migrate();
+        context = TestContexts.start("routing", Map.of(
+                "pos.datasource.replica.url", TestContexts.url("routing-replica"),
+                "pos.datasource.replica.username", "sa",
+                "pos.datasource.replica.password", ""));
+        itemService = context.getBean(ItemService.class);
+        orderService = context.getBean(OrderService.class);
+        primary = new JdbcTemplate(new DriverManagerDataSource(TestContexts.url("routing"), "sa", ""));
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    @Order(1)
+    void writesGoToThePrimaryAndReadOnlyCallsToTheReplica() {
+        String written = "Written " + UUID.randomUUID();
+        itemService.saveItem(new ItemDTO(null, written, 1.5, 10, 0, null));
+        replica.update("INSERT INTO items (code, description, price, qty) VALUES ('R1', 'Replica only', 1, 1)");
+
+        assertEquals(1, count(primary, "SELECT COUNT(*) FROM items WHERE description = ?", written));
+        assertEquals(0, count(replica, "SELECT COUNT(*) FROM items WHERE description = ?", written));
+        assertTrue(describes("Replica only"));
+        assertFalse(describes(written));
+    }
+
+    @Test
+    @Order(2)
+    void retriedOrderIsLookedUpOnThePrimary() {
+        primary.update("INSERT INTO customers (id, name, address, mobile) VALUES ('C0', 'Customer', 'Address', "
+                + "'0710000000')");
+        primary.update("INSERT INTO orders (orderId, customerId, orderDate, total, discount, subTotal, cash, "
+                + "balance) VALUES ('O-primary', 'C0', '2026-10-19', 10, 0, 10, 10, 0)");
+
+        // Not replicated yet: the read-only lookup misses it, the idempotency check must not
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrder("O-primary"));
+        assertEquals("O-primary", orderService.findPlacedOrder("O-primary").orElseThrow().getOrderId());
+    }
+
+    @Test
+    @Order(3)
+    void unreachableReplicaFallsBackToThePrimary() {
+        ReplicaLagMonitor monitor = context.getBean(ReplicaLagMonitor.class);
+        assertTrue(monitor.isReplicaUsable());
+
+        monitor.getReplica().close();
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(-1, monitor.getLastLagSeconds());
+        assertFalse(describes("Replica only"));
+        assertTrue(itemService.getAllItems().stream().anyMatch(item -> item.getDescription().startsWith("Written")));
+    }
+
+    private static boolean describes(String description) {
+        return itemService.getAllItems().stream().map(ItemDTO::getDescription).anyMatch(description::equals);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
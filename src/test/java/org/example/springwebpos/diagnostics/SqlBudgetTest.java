@@ -0,0 +1,95 @@
+package org.example.springwebpos.diagnostics;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.service.ItemService;
+import org.example.springwebpos.service.OrderService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlBudgetTest {
+    private static final int ITEMS = 20;
+
+    private static AnnotationConfigApplicationContext context;
+    private static OrderService orderService;
+    private static ItemService itemService;
+
+    @BeforeAll
+    static void start() {
+        context = TestContexts.start("sql-budget", Map.of("pos.diagnostics.sql.enabled", "true"));
+        orderService = context.getBean(OrderService.class);
+        itemService = context.getBean(ItemService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO customers (id, name, address, mobile) VALUES ('C0', 'Customer', 'Address', "
+                + "'0710000000')");
+        for (int i = 0; i < ITEMS; i++) {
+            jdbcTemplate.update("INSERT INTO items (code, description, price, qty) VALUES (?, ?, ?, ?)",
+                    "I" + i, "Item " + i, 1.25, 1_000);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    /**
+     * Customer and items are read with one query each however many lines the order has; only the stock update and
+     * the order line insert run once per line.
+     */
+    @Test
+    void checkoutReadsItsItemsWithOneQuery() {
+        for (int lines : new int[]{1, 10}) {
+            OrderDTO order = order(lines);
+            SqlBudget budget = SqlBudget.of("checkout " + lines).maxStatements(5 + 2 * lines);
+            budget.check(() -> orderService.placeOrder(order));
+            budget.getScope().getRepeatedShapes(2).keySet().forEach(shape ->
+                    assertTrue(shape.startsWith("update items") || shape.startsWith("insert into order_details"),
+                            "Repeated per line: " + shape));
+        }
+    }
+
+    @Test
+    void getAllItemsIsOneQuery() {
+        assertEquals(ITEMS, SqlBudget.of("getAllItems").maxStatements(1).maxRows(ITEMS)
+                .check(() -> itemService.getAllItems()).size());
+    }
+
+    @Test
+    void exceededBudgetNamesTheRepeatedStatement() {
+        AssertionError error = assertThrows(AssertionError.class, () -> SqlBudget.of("lookups").maxRepeats(2)
+                .check(() -> {
+                    for (int i = 0; i < 3; i++) {
+                        itemService.getSelectedItem("I" + i);
+                    }
+                }));
+
+        assertTrue(error.getMessage().contains("3x (budget 2) select"), error.getMessage());
+        assertTrue(error.getMessage().contains("from items"), error.getMessage());
+    }
+
+    private static OrderDTO order(int lines) {
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId("C0");
+        order.setOrderDate("2026-10-19");
+        order.setCash(1_000);
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (int line = 0; line < lines; line++) {
+            details.add(new OrderDetailDTO("I" + line, 0, 1, 0));
+        }
+        order.setOrderDetails(details);
+        return order;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.springwebpos.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemChangePublisherTest {
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+    private static final String STORE = "store-a";
+
+    private final ItemChangePublisher publisher = new ItemChangePublisher();
+
+    @AfterEach
+    void shutdown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void eventIdsAreStrictlyIncreasingEvenWithinTheSameMillisecond() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        publisher.subscribe(STORE, client);
+
+        for (int i = 0; i < 50; i++) {
+            publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "I" + i, 10, i));
+        }
+
+        client.awaitEvents(50);
+        List<Long> ids = client.ids;
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1), "ids must increase: " + ids);
+        }
+    }
+
+    @Test
+    void subscribersOnlyReceiveTheirOwnStoresChanges() throws Exception {
+        RecordingEmitter own = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        publisher.subscribe(STORE, own);
+        publisher.subscribe("store-b", other);
+
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "I1", 10, 1));
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, "store-b", "I2", 10, 2));
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.DELETED, STORE, "I3", 0, 0));
+
+        own.awaitEvents(2);
+        other.awaitEvents(1);
+    }
+
+    @Test
+    void blockedSubscriberDoesNotHoldUpOthersAndIsClosedAfterTheSendTimeout() throws Exception {
+        BlockedEmitter stuck = new BlockedEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        publisher.subscribe(STORE, stuck);
+        publisher.subscribe(STORE, healthy);
+
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "I1", 10, 1));
+        assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "I2", 10, 2));
+
+        healthy.awaitEvents(2);
+        assertEquals(2, publisher.getSubscriberCount());
+
+        Thread.sleep(ItemChangePublisher.SEND_TIMEOUT_MS + 100);
+        publisher.closeStalledSubscribers();
+        assertEquals(1, publisher.getSubscriberCount());
+        assertTrue(stuck.completedWithError);
+    }
+
+    @Test
+    void subscriberThatFallsTooFarBehindIsClosed() throws Exception {
+        BlockedEmitter stuck = new BlockedEmitter();
+        publisher.subscribe(STORE, stuck);
+        publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "first", 10, 1));
+        assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 1000; i++) {
+            publisher.publish(ItemChangeEvent.of(ItemChangeEvent.Type.STOCK, STORE, "I" + i, 10, i));
+        }
+
+        assertEquals(0, publisher.getSubscriberCount());
+        assertTrue(stuck.completedWithError);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Long> ids = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            Matcher matcher = EVENT_ID.matcher(text);
+            if (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ids.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(count, ids.size());
+        }
+    }
+
+    private static class BlockedEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean completedWithError;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("connection aborted");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError = true;
+            released.countDown();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.springwebpos.inventory;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.dto.ItemPatchDTO;
+import org.example.springwebpos.service.ItemService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryLedgerTest {
+    private static AnnotationConfigApplicationContext context;
+    private static InventoryLedger ledger;
+    private static ItemService itemService;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void start() {
+        context = TestContexts.start("ledger", Map.of(
+                "pos.inventory.ledger.enabled", "true",
+                "pos.inventory.ledger.lease-seconds", "1",
+                "pos.inventory.flush-interval-ms", "3600000"));
+        ledger = context.getBean(InventoryLedger.class);
+        itemService = context.getBean(ItemService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @BeforeEach
+    void reset() throws ReflectiveOperationException {
+        jdbcTemplate.update("UPDATE inventory_ledger_lease SET owner = NULL, renewedAt = NULL");
+        Field enabled = InventoryLedger.class.getDeclaredField("enabled");
+        enabled.setAccessible(true);
+        enabled.set(ledger, true);
+        ledger.rebuild();
+    }
+
+    @Test
+    void committedReservationsAreRecordedAsMovementsAndFoldedByFlush() {
+        String code = newItem(10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(7, ledger.reserve(code, 3));
+            assertEquals(5, ledger.reserve(code, 2));
+        });
+
+        assertEquals(5, ledger.getAvailable(code));
+        assertEquals(10, qty(code));
+        assertEquals(5, movements(code));
+
+        ledger.flush();
+
+        assertEquals(5, qty(code));
+        assertEquals(0, movements(code));
+        assertEquals(5, ledger.getAvailable(code));
+    }
+
+    @Test
+    void rolledBackReservationHandsItsUnitsBack() {
+        String code = newItem(4);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(0, ledger.reserve(code, 4));
+            assertEquals(-1, ledger.reserve(code, 1));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(4, ledger.getAvailable(code));
+        assertEquals(0, movements(code));
+    }
+
+    @Test
+    void stockCountKeepsReservationsThatCommitAfterIt() throws Exception {
+        String code = newItem(20);
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch counted = new CountDownLatch(1);
+        CompletableFuture<Void> checkout = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    ledger.reserve(code, 3);
+                    reserved.countDown();
+                    await(counted);
+                }));
+        assertTrue(reserved.await(10, TimeUnit.SECONDS));
+
+        ItemPatchDTO patch = new ItemPatchDTO();
+        patch.setQty(50);
+        itemService.updateItem(code, patch);
+        // The count replaces the stock on hand; the checkout still holds its 3 units
+        assertEquals(47, ledger.getAvailable(code));
+
+        counted.countDown();
+        checkout.get(10, TimeUnit.SECONDS);
+        assertEquals(47, ledger.getAvailable(code));
+
+        ledger.flush();
+        assertEquals(47, qty(code));
+        assertEquals(47, ledger.getAvailable(code));
+    }
+
+    @Test
+    void stockCountSupersedesMovementsNotFoldedYet() {
+        String code = newItem(20);
+        transactionTemplate.executeWithoutResult(status -> ledger.reserve(code, 5));
+
+        ItemPatchDTO patch = new ItemPatchDTO();
+        patch.setQty(30);
+        itemService.updateItem(code, patch);
+        ledger.flush();
+
+        assertEquals(30, qty(code));
+        assertEquals(30, ledger.getAvailable(code));
+    }
+
+    @Test
+    void rebuildSubtractsMovementsLeftOverFromACrash() {
+        String code = newItem(10);
+        jdbcTemplate.update("INSERT INTO stock_movements (code, qty) VALUES (?, ?)", code, 4);
+
+        ledger.rebuild();
+
+        assertEquals(6, ledger.getAvailable(code));
+        assertEquals(-1, ledger.reserve(code, 7));
+        ledger.flush();
+        assertEquals(6, qty(code));
+    }
+
+    @Test
+    void startupFailsWhileAnotherInstanceHoldsTheLease() {
+        jdbcTemplate.update("UPDATE inventory_ledger_lease SET owner = 'other', "
+                + "renewedAt = TIMESTAMPADD(HOUR, 1, CURRENT_TIMESTAMP(3))");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, ledger::rebuild);
+        assertTrue(e.getMessage().contains("owned by other"));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        jdbcTemplate.update("UPDATE inventory_ledger_lease SET owner = 'other', "
+                + "renewedAt = TIMESTAMPADD(SECOND, -5, CURRENT_TIMESTAMP(3))");
+
+        ledger.rebuild();
+
+        assertFalse("other".equals(jdbcTemplate.queryForObject(
+                "SELECT owner FROM inventory_ledger_lease WHERE id = 1", String.class)));
+    }
+
+    @Test
+    void flushStopsUsingTheLedgerOnceTheLeaseIsTakenOver() {
+        jdbcTemplate.update("UPDATE inventory_ledger_lease SET owner = 'other'");
+
+        ledger.flush();
+
+        assertFalse(ledger.isEnabled());
+    }
+
+    @Test
+    void statePacksNegativeAvailability() {
+        long state = InventoryLedger.pack(-3, 7);
+        assertEquals(-3, InventoryLedger.available(state));
+        assertEquals(7, InventoryLedger.inFlight(state));
+    }
+
+    private static String newItem(int qty) {
+        String description = "Item " + UUID.randomUUID();
+        itemService.saveItem(new ItemDTO(null, description, 2.5, qty, 0, null));
+        return itemService.getAllItems().stream()
+                .filter(item -> item.getDescription().equals(description))
+                .findFirst().orElseThrow().getCode();
+    }
+
+    private static int qty(String code) {
+        return jdbcTemplate.queryForObject("SELECT qty FROM items WHERE code = ?", Integer.class, code);
+    }
+
+    private static int movements(String code) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(qty), 0) FROM stock_movements WHERE code = ?",
+                Integer.class, code);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.springwebpos.journal;
+
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+
+/**
+ * Opens {@link OrderJournal}s outside Spring, setting the fields normally injected from application.properties.
+ */
+final class JournalFixtures {
+    static final int CAPACITY = 64 * 1024;
+
+    private JournalFixtures() {
+    }
+
+    static OrderJournal open(Path dir) {
+        return open(dir, CAPACITY, 1, 2000);
+    }
+
+    static OrderJournal open(Path dir, int capacity, long syncIntervalMs, long ackTimeoutMs) {
+        OrderJournal journal = new OrderJournal();
+        set(journal, "enabled", true);
+        set(journal, "journalDir", dir.toString());
+        set(journal, "capacity", capacity);
+        set(journal, "syncIntervalMs", syncIntervalMs);
+        set(journal, "syncBatchSize", 64);
+        set(journal, "ackTimeoutMs", ackTimeoutMs);
+        journal.open();
+        return journal;
+    }
+
+    static void set(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.springwebpos.journal;
+
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.exception.InsufficientStockException;
+import org.example.springwebpos.exception.OrderOutcomeUnknownException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournaledOrderServiceTest {
+    @TempDir
+    Path dir;
+
+    private final StubOrderService orderService = new StubOrderService();
+    private final PendingOrders pendingOrders = new PendingOrders();
+    private OrderJournal journal;
+
+    @AfterEach
+    void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void journalsOrderAndAnswersRetryWithTheFirstAcknowledgement() {
+        journal = JournalFixtures.open(dir);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+
+        OrderDTO first = service.placeOrder(StubOrderService.order("O1", 100));
+        OrderDTO retry = service.placeOrder(StubOrderService.order("O1", 250));
+
+        assertEquals(100, first.getSubTotal());
+        assertEquals(100, retry.getSubTotal());
+        assertEquals(1, orderService.priced);
+        assertEquals(1, journal.getPendingCount());
+        assertEquals(0, orderService.placedSynchronously);
+    }
+
+    @Test
+    void ackTimeoutIsReportedAsUnknownAndNeverFallsBackToASecondSale() throws Exception {
+        // The sync thread lingers far longer than an appender is willing to wait
+        journal = JournalFixtures.open(dir, JournalFixtures.CAPACITY, 300, 1);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+
+        assertThrows(OrderOutcomeUnknownException.class,
+                () -> service.placeOrder(StubOrderService.order("O1", 100)));
+        assertEquals(0, orderService.placedSynchronously);
+        assertNotNull(pendingOrders.find("O1"));
+
+        Thread.sleep(600);
+        OrderDTO retry = service.placeOrder(StubOrderService.order("O1", 100));
+        assertEquals("O1", retry.getOrderId());
+        assertEquals(1, orderService.priced);
+        assertEquals(1, journal.getPendingCount());
+    }
+
+    @Test
+    void fallsBackToSynchronousCheckoutOnlyWhenNothingWasWritten() {
+        journal = JournalFixtures.open(dir, 64, 1, 2000);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+
+        service.placeOrder(StubOrderService.order("O1", 100));
+
+        assertEquals(1, orderService.placedSynchronously);
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void retryOfAnOrderAlreadyReplayedReturnsTheStoredOrder() {
+        journal = JournalFixtures.open(dir);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+        orderService.stored.put("O1", StubOrderService.order("O1", 100));
+
+        OrderDTO retry = service.placeOrder(StubOrderService.order("O1", 100));
+
+        assertEquals("O1", retry.getOrderId());
+        assertEquals(0, orderService.priced);
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void pendingOrdersAreRebuiltFromTheJournalOnRestart() {
+        journal = JournalFixtures.open(dir);
+        new JournaledOrderService(journal, orderService, pendingOrders).placeOrder(StubOrderService.order("O1", 100));
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+        PendingOrders recovered = new PendingOrders();
+        new JournaledOrderService(journal, orderService, recovered).recover();
+
+        assertNotNull(recovered.find("O1"));
+        assertEquals(1, recovered.find("O1").seq());
+    }
+
+    @Test
+    void journaledOrdersHoldStockUntilTheirReplayCommits() {
+        journal = JournalFixtures.open(dir);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+        orderService.stock.put("I1", 5);
+
+        service.placeOrder(StubOrderService.order("O1", "I1", 3));
+        assertEquals(3, pendingOrders.getHeld("I1"));
+        assertThrows(InsufficientStockException.class, () -> service.placeOrder(StubOrderService.order("O2", "I1", 3)));
+        assertNull(pendingOrders.find("O2"));
+
+        // O1 replayed: the table now shows the sale and the hold is released
+        orderService.stock.put("I1", 2);
+        pendingOrders.remove("O1");
+        assertEquals(0, pendingOrders.getHeld("I1"));
+        service.placeOrder(StubOrderService.order("O3", "I1", 2));
+        assertEquals(2, pendingOrders.getHeld("I1"));
+    }
+
+    @Test
+    void holdIsRefusedWhenStockWasReleasedAfterAvailabilityWasRead() {
+        pendingOrders.hold(pendingOrders.getStockEpoch(), "O1", Map.of("I1", 1), Map.of("I1", 5));
+        long epoch = pendingOrders.getStockEpoch();
+        pendingOrders.remove("O1");
+
+        assertFalse(pendingOrders.hold(epoch, "O2", Map.of("I1", 1), Map.of("I1", 5)));
+        assertTrue(pendingOrders.hold(pendingOrders.getStockEpoch(), "O2", Map.of("I1", 1), Map.of("I1", 5)));
+    }
+
+    @Test
+    void holdIsRefusedWhileASynchronousSaleIsInFlight() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            pendingOrders.trackSale();
+            assertFalse(pendingOrders.hold(pendingOrders.getStockEpoch(), "O1", Map.of("I1", 1), Map.of("I1", 5)));
+        } finally {
+            complete();
+        }
+
+        assertTrue(pendingOrders.hold(pendingOrders.getStockEpoch(), "O1", Map.of("I1", 1), Map.of("I1", 5)));
+    }
+
+    @Test
+    void synchronousSaleCommittingBetweenTheReadAndTheHoldIsNotOversold() {
+        journal = JournalFixtures.open(dir);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+        orderService.stock.put("I1", 3);
+        // A till selling the last 3 units checked the holds before the journal read availability...
+        TransactionSynchronizationManager.initSynchronization();
+        pendingOrders.trackSale();
+        orderService.availabilityHook = codes -> {
+            // ...and commits right after the read, before the hold is taken
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                orderService.stock.put("I1", 0);
+                complete();
+            }
+        };
+
+        assertThrows(InsufficientStockException.class, () -> service.placeOrder(StubOrderService.order("O1", "I1", 3)));
+        assertNull(pendingOrders.find("O1"));
+        assertEquals(0, pendingOrders.getHeld("I1"));
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void fallbackToSynchronousCheckoutReleasesTheHold() {
+        journal = JournalFixtures.open(dir, 64, 1, 2000);
+        JournaledOrderService service = new JournaledOrderService(journal, orderService, pendingOrders);
+
+        service.placeOrder(StubOrderService.order("O1", "I1", 3));
+
+        assertEquals(1, orderService.placedSynchronously);
+        assertEquals(0, pendingOrders.getHeld("I1"));
+    }
+
+    @Test
+    void stockHoldsAreRestoredFromTheJournalOnRestart() {
+        journal = JournalFixtures.open(dir);
+        new JournaledOrderService(journal, orderService, pendingOrders)
+                .placeOrder(StubOrderService.order("O1", "I1", 3));
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+        PendingOrders recovered = new PendingOrders();
+        new JournaledOrderService(journal, orderService, recovered).recover();
+
+        assertEquals(3, recovered.getHeld("I1"));
+    }
+
+    private static void complete() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.springwebpos.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.exception.CustomerNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalDrainerTest {
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StubOrderService orderService = new StubOrderService();
+    private final PendingOrders pendingOrders = new PendingOrders();
+    private OrderJournal journal;
+    private OrderJournalDrainer drainer;
+
+    @BeforeEach
+    void open() {
+        journal = JournalFixtures.open(dir);
+        drainer = new OrderJournalDrainer(journal, orderService, pendingOrders);
+        JournalFixtures.set(drainer, "batchSize", 100);
+        JournalFixtures.set(drainer, "maxReplayAttempts", 3);
+    }
+
+    @AfterEach
+    void close() {
+        journal.close();
+    }
+
+    @Test
+    void poisonRecordIsDeadLetteredAndTheCheckpointMovesPastIt() throws Exception {
+        append("O1");
+        append("O2");
+        append("O3");
+        orderService.replayHook = order -> {
+            if (order.getOrderId().equals("O2")) {
+                throw new CustomerNotFoundException("Customer not found with ID: C001");
+            }
+        };
+
+        drainer.drain();
+
+        assertEquals(List.of("O1", "O3"), orderService.replayed);
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(0, pendingOrders.size());
+        List<String> deadLetters = Files.readAllLines(dir.resolve("orders.deadletter"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).startsWith("2\tCustomerNotFoundException"));
+    }
+
+    @Test
+    void unreadableRecordIsDeadLettered() throws Exception {
+        append("O1");
+        journal.append("not json".getBytes());
+        append("O3");
+
+        drainer.drain();
+
+        assertEquals(List.of("O1", "O3"), orderService.replayed);
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(1, Files.readAllLines(dir.resolve("orders.deadletter")).size());
+    }
+
+    @Test
+    void transientFailureKeepsEveryRecordForTheNextTick() {
+        append("O1");
+        append("O2");
+        orderService.replayHook = order -> {
+            throw new CannotCreateTransactionException("Connection refused");
+        };
+
+        drainer.drain();
+        drainer.drain();
+
+        assertEquals(List.of(), orderService.replayed);
+        assertEquals(2, journal.getPendingCount());
+        assertEquals(2, pendingOrders.size());
+        assertTrue(Files.notExists(dir.resolve("orders.deadletter")));
+
+        orderService.replayHook = order -> { };
+        drainer.drain();
+        assertEquals(List.of("O1", "O2"), orderService.replayed);
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void unclassifiedFailureIsDeadLetteredAfterMaxAttempts() {
+        append("O1");
+        append("O2");
+        orderService.replayHook = order -> {
+            if (order.getOrderId().equals("O1")) {
+                throw new IllegalStateException("unexpected");
+            }
+        };
+
+        drainer.drain();
+        drainer.drain();
+        assertEquals(2, journal.getPendingCount());
+
+        drainer.drain();
+        assertEquals(List.of("O2"), orderService.replayed);
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void replayIsExactlyOnceWhenTheCheckpointWasNotWrittenBeforeACrash() {
+        append("O1");
+        append("O2");
+        // Replayed into the database, then the process died before markApplied
+        orderService.replayOrders(List.of(StubOrderService.order("O1", 10), StubOrderService.order("O2", 10)));
+        journal.close();
+        journal = JournalFixtures.open(dir);
+        drainer = new OrderJournalDrainer(journal, orderService, pendingOrders);
+        JournalFixtures.set(drainer, "batchSize", 100);
+
+        assertEquals(2, journal.getPendingCount());
+        drainer.drain();
+
+        assertEquals(List.of("O1", "O2"), orderService.replayed);
+        assertEquals(2, orderService.stored.size());
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    private void append(String orderId) {
+        OrderDTO order = StubOrderService.order(orderId, 10);
+        try {
+            pendingOrders.add(journal.append(objectMapper.writeValueAsBytes(order)), order);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.springwebpos.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+    // [int length][long seq][int crc32]
+    private static final int HEADER_BYTES = 16;
+
+    @TempDir
+    Path dir;
+
+    private OrderJournal journal;
+
+    @AfterEach
+    void close() {
+        journal.close();
+    }
+
+    @Test
+    void pendingRecordsSurviveARestart() {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+
+        assertEquals(List.of("order-1", "order-2"), payloads(journal.readPending(10)));
+        assertEquals(2, journal.getPendingCount());
+        assertEquals(3, journal.append(bytes("order-3")));
+    }
+
+    @Test
+    void tornRecordAndEverythingAfterItIsDiscardedOnRecovery() throws IOException {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        journal.append(bytes("order-3"));
+        journal.close();
+        // A crash in the middle of writing order-2's payload: its checksum no longer matches
+        corrupt(HEADER_BYTES + "order-1".length() + HEADER_BYTES + 2);
+
+        journal = JournalFixtures.open(dir);
+
+        assertEquals(List.of("order-1"), payloads(journal.readPending(10)));
+        assertEquals(2, journal.append(bytes("order-2b")));
+        journal.close();
+        journal = JournalFixtures.open(dir);
+        assertEquals(List.of("order-1", "order-2b"), payloads(journal.readPending(10)));
+    }
+
+    @Test
+    void headerWithoutItsPayloadIsDiscardedOnRecovery() throws IOException {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.close();
+        // Length of a second record that never got its seq, checksum or payload
+        write(HEADER_BYTES + "order-1".length(), ByteBuffer.allocate(Integer.BYTES).putInt(7).flip());
+
+        journal = JournalFixtures.open(dir);
+
+        assertEquals(List.of("order-1"), payloads(journal.readPending(10)));
+        assertEquals(2, journal.append(bytes("order-2")));
+    }
+
+    @Test
+    void crashBeforeTheCheckpointIsWrittenReplaysTheBatchAgain() {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        // Replayed into the database, then the process died: markApplied never ran
+        journal.readPending(10);
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+
+        assertEquals(List.of("order-1", "order-2"), payloads(journal.readPending(10)));
+    }
+
+    @Test
+    void crashAfterTheCheckpointWriteButBeforeTheRewindSkipsAppliedRecords() throws IOException {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        journal.append(bytes("order-3"));
+        journal.close();
+        // markApplied forced the checkpoint for seq 2, then the process died before updating memory
+        writeCheckpoint(2);
+
+        journal = JournalFixtures.open(dir);
+
+        List<JournalRecord> pending = journal.readPending(10);
+        assertEquals(List.of("order-3"), payloads(pending));
+        assertEquals(3, pending.get(0).getSeq());
+        assertEquals(1, journal.getPendingCount());
+    }
+
+    @Test
+    void fullyAppliedJournalKeepsItsSequenceAfterACrashBeforeTheRewind() throws IOException {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        journal.close();
+        writeCheckpoint(2);
+
+        journal = JournalFixtures.open(dir);
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(3, journal.append(bytes("order-3")));
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+        assertEquals(List.of("order-3"), payloads(journal.readPending(10)));
+    }
+
+    @Test
+    void drainedJournalRewindsToTheStartAndKeepsCounting() {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        List<JournalRecord> pending = journal.readPending(10);
+        journal.markApplied(pending.get(pending.size() - 1));
+
+        assertEquals(3, journal.append(bytes("order-3")));
+        JournalRecord rewound = journal.readPending(10).get(0);
+        assertEquals(HEADER_BYTES + "order-3".length(), rewound.getEndPosition());
+        journal.close();
+
+        journal = JournalFixtures.open(dir);
+        pending = journal.readPending(10);
+        assertEquals(List.of("order-3"), payloads(pending));
+        assertEquals(3, pending.get(0).getSeq());
+        assertEquals(1, journal.getPendingCount());
+    }
+
+    @Test
+    void partiallyAppliedJournalIsNotRewound() {
+        journal = JournalFixtures.open(dir);
+        journal.append(bytes("order-1"));
+        journal.append(bytes("order-2"));
+        journal.markApplied(journal.readPending(1).get(0));
+
+        journal.append(bytes("order-3"));
+
+        List<JournalRecord> pending = journal.readPending(10);
+        assertEquals(List.of("order-2", "order-3"), payloads(pending));
+        assertTrue(pending.get(1).getEndPosition() > pending.get(0).getEndPosition());
+    }
+
+    private void corrupt(int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve("orders.journal"), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, offset);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0xFF));
+            channel.write(buffer.flip(), offset);
+        }
+    }
+
+    private void write(int offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve("orders.journal"), StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve("orders.checkpoint"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(seq).flip(), 0);
+        }
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<JournalRecord> records) {
+        return records.stream().map(record -> new String(record.getPayload(), StandardCharsets.UTF_8)).toList();
+    }
+}
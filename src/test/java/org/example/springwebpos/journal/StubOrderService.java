@@ -0,0 +1,100 @@
+package org.example.springwebpos.journal;
+
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.dto.StoreSalesDTO;
+import org.example.springwebpos.exception.OrderNotFoundException;
+import org.example.springwebpos.service.OrderService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory {@link OrderService}: prices every order at its cash, stores placed and replayed orders by id.
+ */
+class StubOrderService implements OrderService {
+    final Map<String, OrderDTO> stored = new ConcurrentHashMap<>();
+    final List<String> replayed = new ArrayList<>();
+    final Map<String, Integer> stock = new ConcurrentHashMap<>();
+    int priced;
+    int placedSynchronously;
+    Consumer<OrderDTO> replayHook = order -> { };
+    // Runs after availability was read, e.g. to let a synchronous sale commit in between
+    Consumer<Collection<String>> availabilityHook = codes -> { };
+
+    @Override
+    public OrderDTO placeOrder(OrderDTO orderDTO) {
+        placedSynchronously++;
+        stored.put(orderDTO.getOrderId(), orderDTO);
+        return orderDTO;
+    }
+
+    @Override
+    public OrderDTO priceOrder(OrderDTO orderDTO) {
+        priced++;
+        orderDTO.setSubTotal(orderDTO.getCash());
+        return orderDTO;
+    }
+
+    @Override
+    public OrderDTO placePricedOrder(OrderDTO orderDTO) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Integer> getAvailableStock(Collection<String> itemCodes) {
+        Map<String, Integer> available = new HashMap<>();
+        itemCodes.forEach(code -> available.put(code, stock.getOrDefault(code, 1000)));
+        availabilityHook.accept(itemCodes);
+        return available;
+    }
+
+    @Override
+    public synchronized int replayOrders(List<OrderDTO> orders) {
+        // All or nothing, like the transactional implementation
+        orders.forEach(replayHook);
+        int applied = 0;
+        for (OrderDTO order : orders) {
+            if (stored.putIfAbsent(order.getOrderId(), order) == null) {
+                replayed.add(order.getOrderId());
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public List<StoreSalesDTO> getSalesByStore() {
+        return List.of();
+    }
+
+    @Override
+    public OrderDTO getOrder(String orderId) {
+        OrderDTO order = stored.get(orderId);
+        if (order == null) {
+            throw new OrderNotFoundException("Order not found with ID: " + orderId);
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<OrderDTO> findPlacedOrder(String orderId) {
+        return Optional.ofNullable(stored.get(orderId));
+    }
+
+    static OrderDTO order(String orderId, double cash) {
+        return new OrderDTO(orderId, "S001", "C001", "2026-01-01", 0, 0, 0, cash, 0, new ArrayList<>());
+    }
+
+    static OrderDTO order(String orderId, String itemCode, int quantity) {
+        OrderDTO order = order(orderId, 100);
+        order.getOrderDetails().add(new OrderDetailDTO(itemCode, 10, quantity, 10.0 * quantity));
+        return order;
+    }
+}
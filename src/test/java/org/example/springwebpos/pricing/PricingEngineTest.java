@@ -0,0 +1,139 @@
+package org.example.springwebpos.pricing;
+
+import org.example.springwebpos.exception.InvalidDiscountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingEngineTest {
+    private final PricingEngine engine = new PricingEngine();
+
+    @Test
+    void basketDiscountIsRoundedHalfUpAndSplitExactlyOverTheLines() {
+        Basket basket = basket("A", 1, 1, "B", 1, 1, "C", 1, 1);
+
+        engine.price(basket, 5_000);
+
+        // 50 % of 3 cents is 1.5, rounded half-up to 2; the shares are round(2 * k / 3) - round(2 * (k - 1) / 3)
+        assertEquals(3, basket.getTotal());
+        assertEquals(2, basket.getDiscount());
+        assertEquals(1, basket.getSubTotal());
+        assertArrayEquals(new long[]{0, 1, 0}, lineTotals(basket));
+    }
+
+    @Test
+    void oddCentsGoToTheLinesByRunningShare() {
+        Basket basket = basket("A", 999, 1, "B", 1, 3, "C", 1_001, 2);
+
+        engine.price(basket, 1_250);
+
+        // Net 3004 cents, 12.5 % = 375.5 -> 376. Running nets 999, 1002, 3004 give 125, 125, 376 allocated
+        assertEquals(3_004, basket.getTotal());
+        assertEquals(376, basket.getDiscount());
+        assertEquals(2_628, basket.getSubTotal());
+        assertArrayEquals(new long[]{874, 3, 1_751}, lineTotals(basket));
+    }
+
+    @Test
+    void lineTotalsAlwaysAddUpToTheSubTotal() {
+        engine.setRules(List.of(new PercentageOffRule(333), new BuyXGetYRule("I1", 2, 1),
+                new ItemAmountOffRule("I2", 7)));
+        Random random = new Random(29);
+        for (int run = 0; run < 10_000; run++) {
+            Basket basket = new Basket();
+            int lines = 1 + random.nextInt(12);
+            for (int line = 0; line < lines; line++) {
+                basket.add("I" + random.nextInt(4), 1 + random.nextInt(10_000), 1 + random.nextInt(7));
+            }
+            engine.price(basket, random.nextInt(10_001));
+
+            long sum = 0;
+            for (long lineTotal : lineTotals(basket)) {
+                sum += lineTotal;
+            }
+            assertEquals(basket.getSubTotal(), sum);
+            assertEquals(basket.getTotal() - basket.getDiscount(), basket.getSubTotal());
+        }
+    }
+
+    @Test
+    void buyXGetYCountsTheItemAcrossAllItsLines() {
+        engine.setRules(List.of(new BuyXGetYRule("A", 2, 1)));
+        Basket scannedOnce = basket("A", 100, 3);
+        Basket scannedThrice = basket("A", 100, 1, "B", 50, 1, "A", 100, 1, "A", 100, 1);
+
+        engine.price(scannedOnce, 0);
+        engine.price(scannedThrice, 0);
+
+        assertEquals(100, scannedOnce.getDiscount());
+        assertEquals(100, scannedThrice.getDiscount());
+        // Free units go to the line where their running share rounds up: round(1 / 3) = 0, round(2 / 3) = 1
+        assertArrayEquals(new long[]{100, 50, 0, 100}, lineTotals(scannedThrice));
+    }
+
+    @Test
+    void amountOffAppliesOnlyToUnitsPaidFor() {
+        engine.setRules(List.of(new BuyXGetYRule("A", 1, 1), new ItemAmountOffRule("A", 30)));
+        Basket basket = basket("A", 100, 3, "A", 90, 2);
+
+        engine.price(basket, 0);
+
+        // 5 units, 2 free: round(2 * 3 / 5) = 1 on the first line, 1 on the second; the paid units are 30 off
+        assertEquals(480, basket.getTotal());
+        assertEquals(280, basket.getDiscount());
+        assertArrayEquals(new long[]{140, 60}, lineTotals(basket));
+    }
+
+    @Test
+    void fullManualDiscountMakesTheBasketFree() {
+        Basket basket = basket("A", 1_234, 3);
+
+        engine.price(basket, PricingEngine.toManualBasisPoints(100));
+
+        assertEquals(0, basket.getSubTotal());
+        assertEquals(3_702, basket.getDiscount());
+    }
+
+    @Test
+    void manualDiscountOutsideZeroToHundredPercentIsRejected() {
+        assertThrows(InvalidDiscountException.class, () -> PricingEngine.toManualBasisPoints(-0.01));
+        assertThrows(InvalidDiscountException.class, () -> PricingEngine.toManualBasisPoints(100.01));
+        assertThrows(InvalidDiscountException.class, () -> PricingEngine.toManualBasisPoints(Double.NaN));
+        assertEquals(0, PricingEngine.toManualBasisPoints(0));
+        assertEquals(1_250, PricingEngine.toManualBasisPoints(12.5));
+    }
+
+    @Test
+    void conversionsRoundTheDecimalValueNotTheBinaryOne() {
+        // 1.005 is 1.00499999999999989... as a double; a naive Math.round(amount * 100) gives 100
+        assertEquals(101, PricingEngine.toMinor(1.005));
+        assertEquals(30, PricingEngine.toMinor(0.1 + 0.2));
+        assertEquals(-101, PricingEngine.toMinor(-1.005));
+        assertEquals(1_001, PricingEngine.toBasisPoints(10.005));
+        assertEquals(0.3, PricingEngine.toMajor(30));
+    }
+
+    /**
+     * Lines as (item code, unit price in cents, quantity) triples.
+     */
+    private static Basket basket(Object... lines) {
+        Basket basket = new Basket();
+        for (int i = 0; i < lines.length; i += 3) {
+            basket.add((String) lines[i], (Integer) lines[i + 1], (Integer) lines[i + 2]);
+        }
+        return basket;
+    }
+
+    private static long[] lineTotals(Basket basket) {
+        long[] totals = new long[basket.size()];
+        for (int line = 0; line < totals.length; line++) {
+            totals[line] = basket.getLineTotal(line);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.springwebpos.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromotionBookTest {
+    @Test
+    void secondBuyXGetYForTheSameItemIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PromotionBook.compile(
+                List.of(new BuyXGetYRule("A", 2, 1), new BuyXGetYRule("B", 2, 1), new BuyXGetYRule("A", 3, 1))));
+
+        assertTrue(e.getMessage().contains("item A"), e.getMessage());
+    }
+
+    @Test
+    void buyXGetYAndAmountOffMayShareAnItem() {
+        PromotionBook book = PromotionBook.compile(List.of(new BuyXGetYRule("A", 2, 1),
+                new ItemAmountOffRule("A", 10), new ItemAmountOffRule("A", 5)));
+
+        assertEquals(1, book.size());
+        assertEquals(1, book.forItem("A").freeUnits(3));
+        assertEquals(100 + 2 * 15, book.forItem("A").discount(100, 3, 1));
+    }
+
+    @Test
+    void negativeAmountOffIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionBook.compile(List.of(new ItemAmountOffRule("A", -1))));
+    }
+
+    @Test
+    void basketPercentagesOutsideZeroToHundredPercentAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionBook.compile(List.of(new PercentageOffRule(-1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionBook.compile(List.of(new PercentageOffRule(6_000), new PercentageOffRule(4_001))));
+
+        assertEquals(10_000, PromotionBook.compile(List.of(new PercentageOffRule(6_000), new PercentageOffRule(4_000)))
+                .getBasketBasisPoints());
+    }
+}
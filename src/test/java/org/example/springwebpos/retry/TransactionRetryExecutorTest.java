@@ -0,0 +1,204 @@
+package org.example.springwebpos.retry;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.controller.OrderController;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.dto.RetryStatsDTO;
+import org.example.springwebpos.export.OrderExporter;
+import org.example.springwebpos.journal.JournaledOrderService;
+import org.example.springwebpos.service.BatchOrderService;
+import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.service.ReceiptService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionRetryExecutorTest {
+    private static final int STOCK = 10_000;
+
+    private static AnnotationConfigApplicationContext context;
+    private static TransactionRetryExecutor retryExecutor;
+    private static TransactionTemplate transactionTemplate;
+    private static JdbcTemplate jdbcTemplate;
+    private static OrderController orderController;
+
+    @BeforeAll
+    static void start() {
+        context = TestContexts.start("retry", Map.of(
+                "pos.datasource.primary.url", TestContexts.url("retry").replace("LOCK_TIMEOUT=10000",
+                        "LOCK_TIMEOUT=300"),
+                "pos.retry.max-attempts", "10",
+                "pos.retry.deadline-ms", "10000"));
+        retryExecutor = context.getBean(TransactionRetryExecutor.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        orderController = new OrderController(context.getBean(OrderService.class),
+                context.getBean(BatchOrderService.class),
+                context.getBean(JournaledOrderService.class), context.getBean(OrderExporter.class),
+                context.getBean(ReceiptService.class), retryExecutor);
+        jdbcTemplate.update("INSERT INTO customers (id, name, address, mobile) VALUES ('C0', 'Customer', 'Address', "
+                + "'0710000000')");
+        for (String code : List.of("I0", "I1", "I2", "L0", "L1")) {
+            jdbcTemplate.update("INSERT INTO items (code, description, price, qty) VALUES (?, ?, 10, ?)",
+                    code, "Item " + code, STOCK);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    /**
+     * Tills selling the same two items list them in opposite order; every checkout must go through and no sale may
+     * be lost.
+     */
+    @Test
+    void concurrentCheckoutsInOppositeLineOrderAllSucceed() throws Exception {
+        int threads = 8;
+        int ordersPerThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean reversed = t % 2 == 1;
+                futures.add(pool.submit(() -> {
+                    int created = 0;
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        OrderDTO order = reversed ? order(0, "I1", "I0") : order(0, "I0", "I1");
+                        if (orderController.placeOrder(order).getStatusCode().value() == 201) {
+                            created++;
+                        }
+                    }
+                    return created;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(ordersPerThread, future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(STOCK - threads * ordersPerThread, qty("I0"));
+        assertEquals(STOCK - threads * ordersPerThread, qty("I1"));
+    }
+
+    /**
+     * Two transactions lock the same rows in opposite order and wait for each other on their first attempt; the
+     * one the database gives up on is retried and both commit.
+     */
+    @Test
+    void deadlockedTransactionIsRetried() throws Exception {
+        RetryStatsDTO before = retryExecutor.snapshot();
+        CyclicBarrier bothLocked = new CyclicBarrier(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> forward = pool.submit(() -> takeBoth("L0", "L1", bothLocked));
+            Future<?> backward = pool.submit(() -> takeBoth("L1", "L0", bothLocked));
+            forward.get(30, TimeUnit.SECONDS);
+            backward.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        RetryStatsDTO after = retryExecutor.snapshot();
+        assertEquals(STOCK - 2, qty("L0"));
+        assertEquals(STOCK - 2, qty("L1"));
+        assertTrue(after.getDeadlocks() + after.getLockTimeouts() > before.getDeadlocks() + before.getLockTimeouts());
+        assertTrue(after.getRecovered() > before.getRecovered());
+        assertEquals(before.getGaveUp(), after.getGaveUp());
+    }
+
+    /**
+     * The first attempt times out on a row another transaction holds. The retry must price the order from the
+     * request's discount percentage, not from the amount the failed attempt left behind.
+     */
+    @Test
+    void retriedCheckoutKeepsTheDiscountPercentage() throws Exception {
+        RetryStatsDTO before = retryExecutor.snapshot();
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT qty FROM items WHERE code = 'I2' FOR UPDATE")) {
+                    statement.executeQuery().close();
+                }
+                locked.countDown();
+                Thread.sleep(800);
+                connection.rollback();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        OrderDTO request = order(10, "I2");
+        ResponseEntity<OrderDTO> response = orderController.placeOrder(request);
+        holder.join();
+
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals(10.0, response.getBody().getTotal());
+        assertEquals(1.0, response.getBody().getDiscount());
+        assertEquals(9.0, response.getBody().getSubTotal());
+        assertEquals(10, request.getDiscount());
+        assertTrue(retryExecutor.snapshot().getRecovered() > before.getRecovered());
+    }
+
+    private static void takeBoth(String first, String second, CyclicBarrier bothLocked) {
+        AtomicInteger attempts = new AtomicInteger();
+        retryExecutor.execute("takeBoth", () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE items SET qty = qty - 1 WHERE code = ?", first);
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    bothLocked.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            jdbcTemplate.update("UPDATE items SET qty = qty - 1 WHERE code = ?", second);
+            return null;
+        }));
+    }
+
+    private static OrderDTO order(double discountPercent, String... codes) {
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId("C0");
+        order.setOrderDate("2026-10-19");
+        order.setCash(1_000);
+        order.setDiscount(discountPercent);
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (String code : codes) {
+            details.add(new OrderDetailDTO(code, 0, 1, 0));
+        }
+        order.setOrderDetails(details);
+        return order;
+    }
+
+    private static int qty(String code) {
+        return jdbcTemplate.queryForObject("SELECT qty FROM items WHERE code = ?", Integer.class, code);
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.springwebpos.shard;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.customObj.ItemErrorResponse;
+import org.example.springwebpos.dto.BatchOrderResultDTO;
+import org.example.springwebpos.dto.CustomerDTO;
+import org.example.springwebpos.dto.ItemDTO;
+import org.example.springwebpos.dto.ItemPatchDTO;
+import org.example.springwebpos.dto.OrderDTO;
+import org.example.springwebpos.dto.OrderDetailDTO;
+import org.example.springwebpos.exception.CustomerNotFoundException;
+import org.example.springwebpos.exception.ItemNotFound;
+import org.example.springwebpos.exception.OrderNotFoundException;
+import org.example.springwebpos.receipt.ReceiptFormat;
+import org.example.springwebpos.service.BatchOrderService;
+import org.example.springwebpos.service.CustomerService;
+import org.example.springwebpos.service.ItemService;
+import org.example.springwebpos.service.OrderService;
+import org.example.springwebpos.service.ReceiptService;
+import org.example.springwebpos.util.AppUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stores {@value #STORE_A} and {@value #STORE_C} share the primary database, {@value #STORE_B} lives on the
+ * {@code east} shard. No store may see or change another store's rows, whether or not they share a database.
+ */
+class StoreScopingTest {
+    private static final String STORE_A = "store-a";
+    private static final String STORE_B = "store-b";
+    private static final String STORE_C = "store-c";
+
+    private static AnnotationConfigApplicationContext context;
+    private static ItemService itemService;
+    private static CustomerService customerService;
+    private static OrderService orderService;
+    private static BatchOrderService batchOrderService;
+    private static ReceiptService receiptService;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate east;
+
+    @BeforeAll
+    static void start() {
+        context = TestContexts.start("store-scoping", Map.of(
+                "pos.shards.names", "east",
+                "pos.shards.east.url", TestContexts.url("store-scoping-east"),
+                "pos.shards.east.username", "sa",
+                "pos.shards.east.password", "",
+                "pos.shards.store-map", STORE_B + ":east"));
+        itemService = context.getBean(ItemService.class);
+        customerService = context.getBean(CustomerService.class);
+        orderService = context.getBean(OrderService.class);
+        batchOrderService = context.getBean(BatchOrderService.class);
+        receiptService = context.getBean(ReceiptService.class);
+        primary = jdbc("store-scoping");
+        east = jdbc("store-scoping-east");
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void eachStoresRowsLandOnItsOwnShard() {
+        String itemA = newItem(STORE_A, 10);
+        String itemB = newItem(STORE_B, 10);
+
+        assertEquals(1, count(primary, "SELECT COUNT(*) FROM items WHERE code = ?", itemA));
+        assertEquals(0, count(east, "SELECT COUNT(*) FROM items WHERE code = ?", itemA));
+        assertEquals(1, count(east, "SELECT COUNT(*) FROM items WHERE code = ?", itemB));
+        assertEquals(0, count(primary, "SELECT COUNT(*) FROM items WHERE code = ?", itemB));
+    }
+
+    @Test
+    void itemsOfAnotherStoreOnTheSameDatabaseCannotBeReadOrChanged() {
+        String item = newItem(STORE_A, 10);
+
+        assertInstanceOf(ItemErrorResponse.class,
+                StoreContext.callAs(STORE_C, () -> itemService.getSelectedItem(item)));
+        ItemPatchDTO patch = new ItemPatchDTO();
+        patch.setQty(99);
+        assertThrows(ItemNotFound.class, () -> StoreContext.callAs(STORE_C, () -> {
+            itemService.updateItem(item, patch);
+            return null;
+        }));
+        assertThrows(ItemNotFound.class, () -> StoreContext.callAs(STORE_C, () -> {
+            itemService.deleteItem(item);
+            return null;
+        }));
+
+        assertEquals(10, qty(primary, item));
+        assertEquals(0, count(primary, "SELECT COUNT(*) FROM items WHERE code = ? AND retired = TRUE", item));
+        assertInstanceOf(ItemDTO.class, StoreContext.callAs(STORE_A, () -> itemService.getSelectedItem(item)));
+    }
+
+    @Test
+    void ordersCannotUseAnotherStoresItemsOrCustomers() {
+        String itemA = newItem(STORE_A, 10);
+        String customerA = newCustomer(STORE_A);
+        String itemC = newItem(STORE_C, 10);
+        String customerC = newCustomer(STORE_C);
+
+        ItemNotFound notFound = assertThrows(ItemNotFound.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.placeOrder(order(customerC, itemA))));
+        assertEquals(itemA, notFound.getItemCode());
+        assertThrows(CustomerNotFoundException.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.placeOrder(order(customerA, itemC))));
+        assertThrows(ItemNotFound.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.priceOrder(order(customerC, itemA))));
+
+        List<BatchOrderResultDTO> results = StoreContext.callAs(STORE_C, () -> batchOrderService.placeOrders(List.of(
+                order(customerC, itemA), order(customerA, itemC), order(customerC, itemC))));
+        assertEquals(BatchOrderResultDTO.Status.FAILED, results.get(0).getStatus());
+        assertEquals(BatchOrderResultDTO.Status.FAILED, results.get(1).getStatus());
+        assertEquals(BatchOrderResultDTO.Status.CREATED, results.get(2).getStatus());
+
+        assertEquals(10, qty(primary, itemA));
+        assertEquals(9, qty(primary, itemC));
+    }
+
+    @Test
+    void ordersOnAShardTakeStockThere() {
+        String item = newItem(STORE_B, 10);
+        String customer = newCustomer(STORE_B);
+
+        OrderDTO placed = StoreContext.callAs(STORE_B, () -> orderService.placeOrder(order(customer, item)));
+
+        assertEquals(9, qty(east, item));
+        assertEquals(1, count(east, "SELECT COUNT(*) FROM orders WHERE orderId = ? AND storeId = ?",
+                placed.getOrderId(), STORE_B));
+        assertEquals(0, count(primary, "SELECT COUNT(*) FROM orders WHERE orderId = ?", placed.getOrderId()));
+    }
+
+    @Test
+    void ordersAndReceiptsOfAnotherStoreOnTheSameDatabaseAreNotFound() {
+        String item = newItem(STORE_A, 10);
+        String customer = newCustomer(STORE_A);
+        OrderDTO placed = StoreContext.callAs(STORE_A, () -> orderService.placeOrder(order(customer, item)));
+        String orderId = placed.getOrderId();
+        // Rendered into the cache first, so the cache has to check the store as well
+        byte[] receipt = StoreContext.callAs(STORE_A, () -> receiptService.getReceipt(orderId, ReceiptFormat.HTML));
+
+        assertThrows(OrderNotFoundException.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.getOrder(orderId)));
+        assertTrue(StoreContext.callAs(STORE_C, () -> orderService.findPlacedOrder(orderId)).isEmpty());
+        assertThrows(OrderNotFoundException.class, () -> StoreContext.callAs(STORE_C, () ->
+                receiptService.getReceipt(orderId, ReceiptFormat.HTML)));
+        assertThrows(OrderNotFoundException.class, () -> StoreContext.callAs(STORE_C, () ->
+                receiptService.getReceipt(orderId, ReceiptFormat.ESCPOS)));
+
+        assertEquals(orderId, StoreContext.callAs(STORE_A, () -> orderService.getOrder(orderId)).getOrderId());
+        assertArrayEquals(receipt, StoreContext.callAs(STORE_A, () ->
+                receiptService.getReceipt(orderId, ReceiptFormat.HTML)));
+    }
+
+    @Test
+    void archivedOrdersOfAnotherStoreAreNotFound() {
+        String orderId = "ARCHIVED-" + UUID.randomUUID();
+        primary.update("INSERT INTO orders_archive (orderId, storeId, customerId, orderDate, total, discount, "
+                + "subTotal, cash, balance, archivedAt) VALUES (?, ?, 'C0', '2025-01-01', 10, 0, 10, 10, 0, "
+                + "'2026-01-01')", orderId, STORE_A);
+
+        assertThrows(OrderNotFoundException.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.getOrder(orderId)));
+        assertEquals(orderId, StoreContext.callAs(STORE_A, () -> orderService.getOrder(orderId)).getOrderId());
+    }
+
+    @Test
+    void replayOnlyRecordsOrdersAgainstTheirOwnStore() {
+        String itemA = newItem(STORE_A, 10);
+        String customerC = newCustomer(STORE_C);
+        String itemB = newItem(STORE_B, 10);
+        String customerB = newCustomer(STORE_B);
+
+        OrderDTO foreign = journaled(STORE_C, customerC, itemA);
+        assertThrows(ItemNotFound.class, () -> StoreContext.callAs(STORE_C, () ->
+                orderService.replayOrders(List.of(foreign))));
+        assertEquals(10, qty(primary, itemA));
+
+        OrderDTO own = journaled(STORE_B, customerB, itemB);
+        assertEquals(1, (int) StoreContext.callAs(STORE_B, () -> orderService.replayOrders(List.of(own))));
+        assertEquals(9, qty(east, itemB));
+    }
+
+    private static String newItem(String storeId, int qty) {
+        String description = "Item " + UUID.randomUUID();
+        return StoreContext.callAs(storeId, () -> {
+            itemService.saveItem(new ItemDTO(null, description, 2.5, qty, 0, null));
+            return itemService.getAllItems().stream()
+                    .filter(item -> item.getDescription().equals(description))
+                    .findFirst().orElseThrow().getCode();
+        });
+    }
+
+    private static String newCustomer(String storeId) {
+        String name = "Customer " + UUID.randomUUID();
+        return StoreContext.callAs(storeId, () -> {
+            CustomerDTO customer = new CustomerDTO();
+            customer.setName(name);
+            customer.setAddress("Address");
+            customer.setMobile(UUID.randomUUID().toString().substring(0, 10));
+            customerService.saveCustomer(customer, null);
+            return customerService.getAllCustomers(false).stream()
+                    .filter(listed -> listed.getName().equals(name))
+                    .findFirst().orElseThrow().getId();
+        });
+    }
+
+    private static OrderDTO order(String customerId, String itemCode) {
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId(customerId);
+        order.setOrderDate("2026-10-19");
+        order.setCash(100);
+        order.setOrderDetails(new ArrayList<>(List.of(new OrderDetailDTO(itemCode, 0, 1, 0))));
+        return order;
+    }
+
+    private static OrderDTO journaled(String storeId, String customerId, String itemCode) {
+        OrderDTO order = order(customerId, itemCode);
+        order.setOrderId(AppUtil.createOrderId());
+        order.setStoreId(storeId);
+        order.getOrderDetails().get(0).setUnitPrice(2.5);
+        order.getOrderDetails().get(0).setTotalPrice(2.5);
+        order.setTotal(2.5);
+        order.setSubTotal(2.5);
+        order.setBalance(97.5);
+        return order;
+    }
+
+    private static JdbcTemplate jdbc(String database) {
+        return new JdbcTemplate(new DriverManagerDataSource(TestContexts.url(database), "sa", ""));
+    }
+
+    private static int qty(JdbcTemplate jdbcTemplate, String code) {
+        return count(jdbcTemplate, "SELECT qty FROM items WHERE code = ?", code);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
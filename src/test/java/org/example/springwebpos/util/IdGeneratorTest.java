@@ -0,0 +1,77 @@
+package org.example.springwebpos.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    @Test
+    void idsFromOneNodeAreStrictlyIncreasing() {
+        String previous = IdGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            String id = IdGenerator.next();
+            assertEquals(IdGenerator.TEXT_LENGTH, id.length());
+            assertTrue(id.compareTo(previous) > 0, id + " does not sort after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() {
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(IdGenerator.next());
+                }
+                return ids;
+            }));
+        }
+        Set<String> unique = new HashSet<>();
+        for (CompletableFuture<List<String>> future : futures) {
+            unique.addAll(future.join());
+        }
+        assertEquals(8 * 20_000, unique.size());
+    }
+
+    @Test
+    void binaryFormRoundTripsAndSortsLikeTheText() {
+        String first = IdGenerator.next();
+        String second = IdGenerator.next();
+        byte[] firstBytes = IdGenerator.toBytes(first);
+        byte[] secondBytes = IdGenerator.toBytes(second);
+
+        assertEquals(first, IdGenerator.fromBytes(firstBytes));
+        assertArrayEquals(secondBytes, IdGenerator.toBytes(IdGenerator.fromBytes(secondBytes)));
+        assertTrue(Arrays.compareUnsigned(firstBytes, secondBytes) < 0);
+    }
+
+    @Test
+    void timestampIsTheGenerationTime() {
+        long before = System.currentTimeMillis();
+        String id = IdGenerator.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = IdGenerator.timestampOf(id);
+        // The generator may stay on an earlier millisecond if the clock stepped back, never on a later one
+        assertTrue(timestamp <= after, timestamp + " is after " + after);
+        assertTrue(timestamp >= before - 1_000, timestamp + " is long before " + before);
+    }
+
+    @Test
+    void malformedBinaryIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.fromBytes(new byte[15]));
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.springwebpos.util;
+
+import org.example.springwebpos.TestContexts;
+import org.example.springwebpos.dao.CustomerDAO;
+import org.example.springwebpos.dto.CustomerDTO;
+import org.example.springwebpos.service.CustomerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilePicProcessorTest {
+    private static AnnotationConfigApplicationContext context;
+    private static CustomerService customerService;
+    private static CustomerDAO customerDAO;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void start() {
+        context = TestContexts.start("profile-pic", Map.of(
+                "pos.profile-pic.thumbnail-size", "16",
+                "pos.profile-pic.thumbnail-threads", "1",
+                "pos.profile-pic.max-pixels", "10000"));
+        customerService = context.getBean(CustomerService.class);
+        customerDAO = context.getBean(CustomerDAO.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void listServesThumbnailsUnlessFullPicturesAreAskedFor() throws Exception {
+        String id = newCustomer(image(90, 60));
+        String thumbnail = awaitThumbnail(id);
+        jdbcTemplate.update("INSERT INTO orders (orderId, customerId, orderDate, total, discount, subTotal, cash, "
+                + "balance) VALUES (?, ?, '2026-10-19', 10, 0, 10, 10, 0)", "O-" + id, id);
+
+        CustomerDTO listed = find(customerService.getAllCustomers(false), id);
+        CustomerDTO full = find(customerService.getAllCustomers(true), id);
+
+        assertEquals(thumbnail, listed.getProfilePic());
+        assertNotEquals(thumbnail, full.getProfilePic());
+        assertEquals(fullPicture(id), full.getProfilePic());
+        assertEquals(1, listed.getOrders().size());
+        assertEquals("O-" + id, listed.getOrders().get(0).getOrderId());
+    }
+
+    @Test
+    void listFallsBackToTheFullPictureUntilTheThumbnailIsReady() throws Exception {
+        String id = newCustomer(image(90, 60));
+        awaitThumbnail(id);
+        jdbcTemplate.update("UPDATE customers SET profilePicThumb = NULL WHERE id = ?", id);
+
+        assertEquals(fullPicture(id), find(customerService.getAllCustomers(false), id).getProfilePic());
+    }
+
+    @Test
+    void thumbnailOfAReplacedPictureIsDiscarded() throws Exception {
+        String id = newCustomer(image(90, 60));
+        String thumbnail = awaitThumbnail(id);
+
+        Integer updated = transactionTemplate.execute(status ->
+                customerDAO.updateProfilePicThumb(id, "0".repeat(64), "stale"));
+
+        assertEquals(0, updated);
+        assertEquals(thumbnail, thumbnail(id));
+    }
+
+    @Test
+    void imageDeclaringTooManyPixelsGetsNoThumbnail() throws Exception {
+        String oversized = newCustomer(image(200, 200));
+        // One thumbnail thread: once the next customer's thumbnail exists, the oversized one has been processed
+        awaitThumbnail(newCustomer(image(50, 50)));
+
+        assertNull(thumbnail(oversized));
+        assertNotNull(fullPicture(oversized));
+    }
+
+    private static String newCustomer(byte[] picture) throws IOException {
+        String name = "Customer " + UUID.randomUUID();
+        Path file = Files.createTempFile("profile-pic-test-", ".png");
+        Files.write(file, picture);
+        StagedImage image = new StagedImage(file, picture.length, sha256(picture));
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setAddress("Address");
+        customer.setMobile(UUID.randomUUID().toString().substring(0, 10));
+        customer.setProfilePic(image.toBase64());
+        customerService.saveCustomer(customer, image);
+        return jdbcTemplate.queryForObject("SELECT id FROM customers WHERE name = ?", String.class, name);
+    }
+
+    private static String awaitThumbnail(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            String thumbnail = thumbnail(id);
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No thumbnail for " + id);
+    }
+
+    private static String thumbnail(String id) {
+        return jdbcTemplate.queryForObject("SELECT profilePicThumb FROM customers WHERE id = ?", String.class, id);
+    }
+
+    private static String fullPicture(String id) {
+        return jdbcTemplate.queryForObject("SELECT profilePic FROM customers WHERE id = ?", String.class, id);
+    }
+
+    private static CustomerDTO find(Iterable<CustomerDTO> customers, String id) {
+        for (CustomerDTO customer : customers) {
+            if (customer.getId().equals(id)) {
+                return customer;
+            }
+        }
+        throw new AssertionError("Customer " + id + " not listed");
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, "png", out));
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}